@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for reading a report: building the DOM, converting bug instances and
+ * streaming the report end to end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int bugInstances;
+
+  @Param({"1", "1000"})
+  private int sourceDirectories;
+
+  private byte[] report;
+  private Parser parser;
+  private IncrementalParser incrementalParser;
+
+  /**
+   * Generate the report, a parser over it for the conversion benchmarks, and an
+   * incremental parser which has already seen it.
+   */
+  @Setup
+  public void setup() throws IOException, ParserException {
+    report = SyntheticReport.generate(bugInstances, sourceDirectories);
+    parser = new Parser(new ByteArrayInputStream(report));
+
+    incrementalParser = new IncrementalParser();
+    incrementalParser.parse(report);
+  }
+
+  @Benchmark
+  public Parser domConstruction() throws ParserException {
+    return new Parser(new ByteArrayInputStream(report));
+  }
+
+  @Benchmark
+  public List<BugInstance> getBugInstances() throws ParserException {
+    return parser.getBugInstances();
+  }
+
+  /**
+   * Convert all bug instances across every available processor.
+   */
+  @Benchmark
+  public List<BugInstance> getBugInstancesParallel() throws ParserException {
+    parser.setParallelism(Runtime.getRuntime().availableProcessors());
+
+    try {
+      return parser.getBugInstances();
+    } finally {
+      parser.setParallelism(1);
+    }
+  }
+
+  /**
+   * Read the report end to end with the streaming parser.
+   */
+  @Benchmark
+  public void streaming(Blackhole blackhole) throws IOException, ParserException {
+    try (StreamingParser streamingParser = new StreamingParser(new ByteArrayInputStream(report))) {
+      Iterator<BugInstance> iterator = streamingParser.iterator();
+
+      while (iterator.hasNext()) {
+        blackhole.consume(iterator.next());
+      }
+    }
+  }
+
+  /**
+   * Re-parse a report which has not changed since it was last parsed incrementally.
+   */
+  @Benchmark
+  public IncrementalParser.Update incrementalUnchanged() throws ParserException {
+    return incrementalParser.parse(report);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for rendering bug instances, both as individual log lines and through the
+ * same output path used by the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RenderBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int bugInstances;
+
+  private List<BugInstance> instances;
+
+  @Setup
+  public void setup() throws IOException, ParserException {
+    byte[] report = SyntheticReport.generate(bugInstances, 10);
+    instances = new Parser(new ByteArrayInputStream(report)).getBugInstances();
+  }
+
+  @Benchmark
+  public void logEntry(Blackhole blackhole) {
+    for (BugInstance instance : instances) {
+      blackhole.consume(instance.getLogEntry(2));
+    }
+  }
+
+  /**
+   * Render every entry into a single reused buffer.
+   */
+  @Benchmark
+  public void appendLogEntry(Blackhole blackhole) throws IOException {
+    StringBuilder entry = new StringBuilder();
+
+    for (BugInstance instance : instances) {
+      entry.setLength(0);
+      instance.appendLogEntry(entry, 2);
+      blackhole.consume(entry);
+    }
+  }
+
+  /**
+   * Render every entry through a buffered sink, discarding the encoded output.
+   */
+  @Benchmark
+  public boolean printBugInstances() throws IOException {
+    try (OutputSink output = new BufferedOutputSink(OutputStream.nullOutputStream())) {
+      return App.printBugInstances(instances.iterator(), 2, output);
+    }
+  }
+}
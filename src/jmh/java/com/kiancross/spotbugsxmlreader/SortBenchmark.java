@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for sorting bug instances by location, comparing the packed keys used by
+ * {@link OutputOrder#sort(List)} with sorting by its comparator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SortBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int bugInstances;
+
+  @Param({"FILE", "PRIORITY"})
+  private SortOrder sortOrder;
+
+  private List<BugInstance> instances;
+  private OutputOrder order;
+
+  @Setup
+  public void setup() throws IOException, ParserException {
+    byte[] report = SyntheticReport.generate(bugInstances, 10);
+    instances = new Parser(new ByteArrayInputStream(report)).getBugInstances();
+
+    // Synthetic reports are generated in file order, which would favour both sorts.
+    Collections.shuffle(instances, new Random(0));
+
+    order = new OutputOrder(null, sortOrder);
+  }
+
+  @Benchmark
+  public List<BugInstance> comparator() {
+    List<BugInstance> sorted = new ArrayList<>(instances);
+    sorted.sort(order.getComparator());
+    return sorted;
+  }
+
+  @Benchmark
+  public List<BugInstance> packedKeys() {
+    List<BugInstance> sorted = new ArrayList<>(instances);
+    order.sort(sorted);
+    return sorted;
+  }
+}
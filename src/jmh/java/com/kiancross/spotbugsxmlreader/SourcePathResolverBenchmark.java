@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for resolving relative source paths, both into a fresh resolver and into
+ * one which has already seen every path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SourcePathResolverBenchmark {
+  @Param({"1", "1000", "10000"})
+  private int sourceDirectories;
+
+  private String[] directories;
+  private String[] relativePaths;
+  private SourcePathResolver warmResolver;
+
+  /**
+   * Generate the source directories and a set of relative paths spread across them.
+   */
+  @Setup
+  public void setup() throws ParserException {
+    directories = new String[sourceDirectories];
+
+    for (int i = 0; i < sourceDirectories; i++) {
+      directories[i] = String.format("/synthetic/module%d/src/main/java%d", i, i);
+    }
+
+    relativePaths = new String[1000];
+
+    for (int i = 0; i < relativePaths.length; i++) {
+      relativePaths[i] = String.format(
+          "java%d/com/example/Source%d.java", i % sourceDirectories, i % 50
+      );
+    }
+
+    warmResolver = new SourcePathResolver(directories);
+    resolveAll(warmResolver);
+  }
+
+  @Benchmark
+  public int coldResolve() throws ParserException {
+    return resolveAll(new SourcePathResolver(directories));
+  }
+
+  @Benchmark
+  public int warmResolve() throws ParserException {
+    return resolveAll(warmResolver);
+  }
+
+  // Returns a hash of the resolved paths, which JMH consumes so that resolution is not
+  // optimised away.
+  private int resolveAll(SourcePathResolver resolver) throws ParserException {
+    int hash = 0;
+
+    for (String relativePath : relativePaths) {
+      hash = 31 * hash + resolver.resolve(relativePath).hashCode();
+    }
+
+    return hash;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the time from launching the CLI to the first byte of its output, for the plain
+ * JAR, the JAR with an AppCDS archive and the native executable.
+ *
+ * <p>Startup cannot be measured within a single JVM, so unlike the JMH benchmarks each
+ * sample is a new process. Launchers which have not been built are skipped.
+ */
+final class StartupBenchmark {
+  private static final double nanosPerMillisecond = 1_000_000.0;
+
+  private StartupBenchmark() {
+  }
+
+  // The time until the first byte is written to standard output, in nanoseconds.
+  static long timeToFirstOutput(List<String> command) throws IOException,
+      InterruptedException {
+
+    ProcessBuilder builder = new ProcessBuilder(command)
+        .redirectError(ProcessBuilder.Redirect.INHERIT);
+
+    long start = System.nanoTime();
+    Process process = builder.start();
+
+    try (InputStream output = process.getInputStream()) {
+      if (output.read() < 0) {
+        throw new IOException("No output from " + String.join(" ", command));
+      }
+
+      long nanos = System.nanoTime() - start;
+
+      // The rest of the output is discarded, so that the process is not blocked on a
+      // full pipe.
+      output.transferTo(OutputStream.nullOutputStream());
+
+      if (process.waitFor() != 0) {
+        throw new IOException("Failed to run " + String.join(" ", command));
+      }
+
+      return nanos;
+    }
+  }
+
+  private static void run(String name, List<String> command, int iterations) throws
+      IOException, InterruptedException {
+
+    // The first launch warms the page cache, and is not counted.
+    timeToFirstOutput(command);
+
+    long[] samples = new long[iterations];
+
+    for (int i = 0; i < iterations; i++) {
+      samples[i] = timeToFirstOutput(command);
+    }
+
+    Arrays.sort(samples);
+
+    System.out.println(String.format(
+        "%-8s %10.1f %10.1f %10.1f",
+        name,
+        samples[0] / nanosPerMillisecond,
+        samples[iterations / 2] / nanosPerMillisecond,
+        samples[iterations - 1] / nanosPerMillisecond
+    ));
+  }
+
+  private static List<String> command(List<String> launcher, String report) {
+    List<String> command = new ArrayList<>(launcher);
+    command.addAll(Arrays.asList("-f", report, "-t", "0"));
+    return command;
+  }
+
+  /**
+   * Print the minimum, median and maximum time to first output of each launcher.
+   *
+   * @param args Report path, number of iterations, shadow JAR path, AppCDS archive path
+   *             and native executable path.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    String report = args[0];
+    int iterations = Integer.parseInt(args[1]);
+    Path jar = Paths.get(args[2]).toAbsolutePath();
+    Path archive = Paths.get(args[3]).toAbsolutePath();
+    Path executable = Paths.get(args[4]).toAbsolutePath();
+
+    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+    System.out.println(String.format(
+        "%-8s %10s %10s %10s", "Launcher", "Min (ms)", "Median", "Max"
+    ));
+
+    run("jar", command(Arrays.asList(java, "-jar", jar.toString()), report), iterations);
+
+    // `-Xshare:on` fails to start if the archive was created by a different JVM, rather
+    // than silently measuring a start without it.
+    if (Files.exists(archive)) {
+      run("cds", command(Arrays.asList(
+          java, "-XX:SharedArchiveFile=" + archive, "-Xshare:on", "-jar", jar.toString()
+      ), report), iterations);
+    } else {
+      System.out.println("cds      skipped, run `./gradlew cdsArchive` first");
+    }
+
+    if (Files.isExecutable(executable)) {
+      run("native", command(Arrays.asList(executable.toString()), report), iterations);
+    } else {
+      System.out.println("native   skipped, run `./gradlew nativeImage` first");
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Generates SpotBugs reports of a configurable size for benchmarking.
+ *
+ * <p>Each source directory has a distinct final segment, so every directory is
+ * reachable by path resolution. Bug instances cycle through a fixed number of source
+ * files per directory, which mirrors the repetition seen in real reports.
+ */
+final class SyntheticReport {
+  private static final String[] categories = {
+    "BAD_PRACTICE", "CORRECTNESS", "MALICIOUS_CODE", "PERFORMANCE", "STYLE"
+  };
+
+  private static final int filesPerDirectory = 50;
+
+  private SyntheticReport() {
+  }
+
+  static byte[] generate(int bugInstances, int sourceDirectories) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    write(output, bugInstances, sourceDirectories);
+    return output.toByteArray();
+  }
+
+  static void write(OutputStream output, int bugInstances, int sourceDirectories) throws
+      IOException {
+
+    Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    writer.write("<BugCollection version=\"4.5.0\">\n");
+    writer.write("  <Project projectName=\"synthetic\">\n");
+
+    for (int i = 0; i < sourceDirectories; i++) {
+      writer.write(String.format(
+          "    <SrcDir>/synthetic/module%d/src/main/java%d</SrcDir>\n", i, i
+      ));
+    }
+
+    writer.write("  </Project>\n");
+
+    for (int i = 0; i < bugInstances; i++) {
+      int directory = i % sourceDirectories;
+      int file = (i / sourceDirectories) % filesPerDirectory;
+
+      String relativePath = String.format("java%d/com/example/Source%d.java", directory, file);
+
+      writer.write(String.format(
+          "  <BugInstance type=\"EXAMPLE\" priority=\"%d\" rank=\"10\" category=\"%s\">\n"
+          + "    <ShortMessage>Synthetic bug</ShortMessage>\n"
+          + "    <LongMessage>Synthetic bug %d in com.example.Source%d</LongMessage>\n"
+          + "    <Class classname=\"com.example.Source%d\" primary=\"true\">\n"
+          + "      <SourceLine classname=\"com.example.Source%d\" relSourcepath=\"%s\"/>\n"
+          + "    </Class>\n"
+          + "    <SourceLine classname=\"com.example.Source%d\" primary=\"true\" start=\"%d\""
+          + " startBytecode=\"%d\" relSourcepath=\"%s\"/>\n"
+          + "  </BugInstance>\n",
+          1 + i % 3, categories[i % categories.length],
+          i, file,
+          file,
+          file, relativePath,
+          file, 1 + i % 500, i % 100, relativePath
+      ));
+    }
+
+    writer.write("</BugCollection>\n");
+    writer.flush();
+  }
+
+  /**
+   * Write a synthetic report to disk.
+   *
+   * @param args Output path, number of bug instances and number of source directories.
+   */
+  public static void main(String[] args) throws IOException {
+    try (OutputStream output = Files.newOutputStream(Paths.get(args[0]))) {
+      write(output, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+    }
+  }
+}
@@ -7,24 +7,147 @@ package com.kiancross.spotbugsxmlreader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Entry class to application.
  */
 public class App {
-  private static boolean printBugInstances(List<BugInstance> instances, int severityThreshold) {
+  // Prints the bug instances of a report, returning whether any of them are errors.
+  @FunctionalInterface
+  private interface ReportPrinter {
+    boolean print(Iterator<BugInstance> instances, OutputSink output) throws IOException;
+  }
+
+  static boolean printBugInstances(
+      Iterator<BugInstance> instances,
+      int severityThreshold,
+      OutputSink output
+  ) throws IOException {
+
+    return writeBugInstances(
+        instances,
+        severityThreshold,
+        new TextFormatter(output, severityThreshold)
+    );
+  }
+
+  static boolean writeBugInstances(
+      Iterator<BugInstance> instances,
+      int severityThreshold,
+      ReportFormatter formatter
+  ) throws IOException {
+
     boolean error = false;
 
-    for (BugInstance instance: instances) {
-      System.out.println(instance.getLogEntry(severityThreshold));
+    while (instances.hasNext()) {
+      BugInstance instance = instances.next();
+      formatter.write(instance);
       error = error || instance.isError(severityThreshold);
     }
 
     return error;
   }
 
+  static boolean writeBaselineDiff(
+      BaselineDiff diff,
+      int severityThreshold,
+      ReportFormatter formatter
+  ) throws IOException {
+
+    boolean error = writeBugInstances(
+        diff.getNewBugInstances().iterator(),
+        severityThreshold,
+        formatter
+    );
+
+    for (BugInstance instance : diff.getFixedBugInstances()) {
+      formatter.writeFixed(instance);
+    }
+
+    return error;
+  }
+
+  private static boolean printReport(
+      Iterator<BugInstance> instances,
+      List<BugInstance> baseline,
+      int severityThreshold,
+      OutputFormat format,
+      GroupBy groupBy,
+      PipelineStats stats,
+      OutputSink output
+  ) throws IOException {
+
+    ReportFormatter formatter = format.create(output, severityThreshold);
+
+    // Other formats are read by tools, which would not expect headings.
+    if (groupBy != null && format == OutputFormat.TEXT) {
+      formatter = new GroupHeadingFormatter(formatter, groupBy, output);
+    }
+
+    if (stats.isEnabled()) {
+      formatter = new TimedReportFormatter(formatter, stats);
+    }
+
+    formatter.begin();
+
+    boolean error = baseline == null
+        ? writeBugInstances(instances, severityThreshold, formatter)
+        : writeBaselineDiff(BaselineDiff.compare(baseline, instances), severityThreshold,
+            formatter);
+
+    formatter.end();
+
+    return error;
+  }
+
+  private static boolean printSummary(
+      Iterator<BugInstance> instances,
+      List<BugInstance> baseline,
+      int severityThreshold,
+      ReportSummary.Format format,
+      int topFiles,
+      PipelineStats stats,
+      OutputSink output
+  ) throws IOException {
+
+    if (baseline != null) {
+      instances = BaselineDiff.compare(baseline, instances).getNewBugInstances().iterator();
+    }
+
+    ReportSummary summary = ReportSummary.of(instances, severityThreshold);
+
+    long start = stats.start();
+    summary.write(output, format, topFiles);
+    stats.stop(PipelineStats.Stage.OUTPUT, start);
+
+    return summary.getErrors() > 0;
+  }
+
+  // Sorts the bug instances before printing them, spilling them to disk beyond the
+  // memory budget.
+  private static ReportPrinter sortPrinter(
+      ReportPrinter printer,
+      OutputOrder order,
+      long maximumMemory
+  ) {
+    return (instances, output) -> {
+      try (BugInstanceSorter sorter = new BugInstanceSorter(order, maximumMemory)) {
+
+        sorter.addAll(instances);
+        return printer.print(sorter.iterator(), output);
+      }
+    };
+  }
+
   private static String getVersion() throws IOException {
     InputStream versionStream = App.class.getClassLoader().getResourceAsStream("version.txt");
 
@@ -53,21 +176,323 @@ public class App {
   }
 
   private static boolean handleMainProgramme(CommandLineInterface cli) throws
-      CommandLineInterfaceException, ParserException {
+      CommandLineInterfaceException, IOException, ParserException {
 
-    try {
-      Parser parser = Parser.fromFilePath(cli.getReportPath());
+    List<String> reportPaths = cli.getReportPaths();
+    int severityThreshold = cli.getErrorSeverityThreshold();
+    int parallelism = cli.getParallelism();
+    boolean streaming = cli.shouldUseStreamingParser();
+    BugInstanceFilter filter = cli.getFilter();
+    ReportSummary.Format statsFormat = cli.getStatsFormat();
 
-      List<BugInstance> bugInstances = parser.getBugInstances();
-      int severityThreshold = cli.getErrorSeverityThreshold();
+    PipelineStats stats = statsFormat == null ? PipelineStats.disabled() : new PipelineStats();
+    stats.begin();
 
-      return !printBugInstances(bugInstances, severityThreshold);
+    MergedReportReader.ParserFactory factory;
+
+    if (cli.getCacheDirectory() != null) {
+      ReportCache cache = new ReportCache(Paths.get(cli.getCacheDirectory()), cli.getCacheSize());
+
+      // The cache holds every finding, so that it can be shared between runs with
+      // different filters.
+      MergedReportReader.ParserFactory uncached = path -> openParser(path, streaming,
+          parallelism, BugInstanceFilter.acceptAll(), stats);
+
+      factory = path -> filterParser(cache.open(path, uncached), filter);
+
+    } else {
+      factory = path -> openParser(path, streaming, parallelism, filter, stats);
+    }
+
+    List<BugInstance> baseline = readBaseline(factory, cli.getBaselinePath());
+
+    ReportSummary.Format summaryFormat = cli.getSummaryFormat();
+    OutputFormat outputFormat = cli.getOutputFormat();
+    int topFiles = cli.getTopFiles();
+    SortOrder sortOrder = cli.getSortOrder();
+    GroupBy groupBy = cli.getGroupBy();
+    long maxMemory = cli.getMaxMemory();
+
+    ReportPrinter unsorted = summaryFormat == null
+        ? (instances, output) -> printReport(instances, baseline, severityThreshold,
+            outputFormat, groupBy, stats, output)
+        : (instances, output) -> printSummary(instances, baseline, severityThreshold,
+            summaryFormat, topFiles, stats, output);
+
+    ReportPrinter printer = sortOrder == null && groupBy == null
+        ? unsorted
+        : sortPrinter(unsorted, new OutputOrder(groupBy, sortOrder), maxMemory);
+
+    if (cli.shouldServe()) {
+      return serveReports(cli, reportPaths, factory, severityThreshold);
+    }
+
+    if (cli.shouldWatch()) {
+      return watchReports(cli, reportPaths, filter, printer);
+    }
+
+    boolean success = reportPaths.size() > 1
+        ? handleMultipleReports(cli, reportPaths, factory, printer)
+        : handleSingleReport(cli, reportPaths.get(0), factory, printer);
+
+    if (statsFormat != null) {
+      stats.finish();
+
+      // Written to standard error so that the report itself is unchanged.
+      try (OutputSink output = BufferedOutputSink.toStandardError()) {
+        stats.write(output, statsFormat);
+      }
+    }
+
+    return success;
+  }
+
+  private static boolean handleSingleReport(
+      CommandLineInterface cli,
+      String reportPath,
+      MergedReportReader.ParserFactory factory,
+      ReportPrinter printer
+  ) throws CommandLineInterfaceException, IOException, ParserException {
+
+    try (
+        ReportParser parser = factory.open(reportPath);
+        OutputSink output = openOutput(cli.getOutputPath())
+    ) {
+      return !printer.print(parser.iterator(), output);
+
+    } catch (UncheckedParserException e) {
+      throw e.getCause();
+
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
 
     } catch (FileNotFoundException e) {
       throw new CommandLineInterfaceException(e.getMessage());
     }
   }
 
+  private static boolean handleMultipleReports(
+      CommandLineInterface cli,
+      List<String> reportPaths,
+      MergedReportReader.ParserFactory factory,
+      ReportPrinter printer
+  ) throws CommandLineInterfaceException, IOException, ParserException {
+
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    try (
+        MergedReportReader reader = new MergedReportReader(reportPaths, factory, threads);
+        OutputSink output = openOutput(cli.getOutputPath())
+    ) {
+      return !printer.print(reader.iterator(), output);
+
+    } catch (UncheckedParserException e) {
+      throw e.getCause();
+
+    } catch (UncheckedIOException e) {
+      if (e.getCause() instanceof FileNotFoundException) {
+        throw new CommandLineInterfaceException(e.getCause().getMessage());
+      }
+
+      throw e.getCause();
+    }
+  }
+
+  private static boolean serveReports(
+      CommandLineInterface cli,
+      List<String> reportPaths,
+      MergedReportReader.ParserFactory factory,
+      int severityThreshold
+  ) throws CommandLineInterfaceException, IOException, ParserException {
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    CompactBugInstanceStore store;
+
+    try (MergedReportReader reader = new MergedReportReader(reportPaths, factory, threads)) {
+      store = CompactBugInstanceStore.from(reader.iterator());
+
+    } catch (UncheckedParserException e) {
+      throw e.getCause();
+
+    } catch (UncheckedIOException e) {
+      if (e.getCause() instanceof FileNotFoundException) {
+        throw new CommandLineInterfaceException(e.getCause().getMessage());
+      }
+
+      throw e.getCause();
+    }
+
+    try (ReportServer server = new ReportServer(store, cli.getPort(), threads,
+        severityThreshold)) {
+
+      Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+      System.err.println("Listening on http://localhost:" + server.getPort());
+
+      server.await();
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    return true;
+  }
+
+  private static boolean watchReports(
+      CommandLineInterface cli,
+      List<String> reportPaths,
+      BugInstanceFilter filter,
+      ReportPrinter printer
+  ) throws CommandLineInterfaceException, IOException {
+
+    List<Path> paths = new ArrayList<>();
+    List<IncrementalParser> parsers = new ArrayList<>();
+
+    for (String reportPath : reportPaths) {
+      if (reportPath.equals(ReportInput.standardInputPath)) {
+        throw new CommandLineInterfaceException("`watch` cannot be used with standard input");
+      }
+
+      paths.add(Paths.get(reportPath));
+      parsers.add(new IncrementalParser());
+    }
+
+    try (ReportWatcher watcher = new ReportWatcher(paths, ReportWatcher.defaultDebounceMillis)) {
+      do {
+        printWatchedReports(cli, reportPaths, parsers, filter, printer);
+      } while (watcher.awaitChange());
+
+    } catch (NoSuchFileException e) {
+      throw new CommandLineInterfaceException("%s (No such file or directory)", e.getFile());
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    return true;
+  }
+
+  private static void printWatchedReports(
+      CommandLineInterface cli,
+      List<String> reportPaths,
+      List<IncrementalParser> parsers,
+      BugInstanceFilter filter,
+      ReportPrinter printer
+  ) throws CommandLineInterfaceException, IOException {
+
+    List<BugInstance> instances = new ArrayList<>();
+
+    for (int i = 0; i < reportPaths.size(); i++) {
+      try {
+        // Findings are filtered after parsing, since the incremental parser must keep
+        // every finding to detect changes.
+        IncrementalParser.Update update = parsers.get(i).parse(reportPaths.get(i));
+
+        for (BugInstance instance : update.getBugInstances()) {
+          if (filter.accepts(instance)) {
+            instances.add(instance);
+          }
+        }
+
+      } catch (FileNotFoundException | ParserException e) {
+        // The report may be part way through being written, so the previous output is
+        // left in place until the next change.
+        System.err.println(reportPaths.get(i) + ": " + e.getMessage());
+        return;
+      }
+    }
+
+    try (OutputSink output = openOutput(cli.getOutputPath())) {
+      printer.print(instances.iterator(), output);
+    }
+  }
+
+  private static List<BugInstance> readBaseline(
+      MergedReportReader.ParserFactory factory,
+      String baselinePath
+  ) throws CommandLineInterfaceException, IOException, ParserException {
+
+    if (baselinePath == null) {
+      return null;
+    }
+
+    try (ReportParser parser = factory.open(baselinePath)) {
+      return parser.getBugInstances();
+
+    } catch (FileNotFoundException e) {
+      throw new CommandLineInterfaceException(e.getMessage());
+    }
+  }
+
+  private static OutputSink openOutput(String outputPath) throws
+      CommandLineInterfaceException, IOException {
+
+    if (outputPath == null) {
+      return BufferedOutputSink.toStandardOutput();
+    }
+
+    try {
+      return BufferedOutputSink.toFile(Paths.get(outputPath));
+
+    } catch (NoSuchFileException e) {
+      throw new CommandLineInterfaceException("%s (No such file or directory)", e.getFile());
+
+    } catch (AccessDeniedException e) {
+      throw new CommandLineInterfaceException("%s (Permission denied)", e.getFile());
+    }
+  }
+
+  private static ReportParser openParser(
+      String reportPath,
+      boolean streaming,
+      int parallelism,
+      BugInstanceFilter filter,
+      PipelineStats stats
+  ) throws FileNotFoundException, ParserException {
+
+    InputStream input = stats.countBytes(ReportInput.open(reportPath));
+
+    if (streaming) {
+      long start = stats.start();
+
+      StreamingParser parser = new StreamingParser(input);
+      parser.setFilter(filter);
+      parser.setStats(stats);
+
+      stats.stop(PipelineStats.Stage.PARSE, start);
+
+      return parser;
+    }
+
+    return Parser.builder()
+        .setParallelism(parallelism)
+        .setFilter(filter)
+        .setStats(stats)
+        .build(input);
+  }
+
+  private static ReportParser filterParser(ReportParser parser, BugInstanceFilter filter)
+      throws ParserException {
+
+    if (filter.isAcceptAll()) {
+      return parser;
+    }
+
+    List<BugInstance> instances = new ArrayList<>();
+
+    try (ReportParser source = parser) {
+      for (BugInstance instance : source.getBugInstances()) {
+        if (filter.accepts(instance)) {
+          instances.add(instance);
+        }
+      }
+
+    } catch (IOException e) {
+      throw new ParserException("Unable to read report: %s", e.getMessage());
+    }
+
+    return new ListReportParser(instances);
+  }
+
   /**
    * Entry function to application.
    *
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of comparing a report against a baseline report.
+ *
+ * <p>Bug instances are matched by {@link BugFingerprint}, so a finding whose line
+ * number has changed is still considered unchanged. Matching is one-to-one: if the
+ * baseline contains a fingerprint twice and the report three times, one instance is
+ * new. The comparison takes time linear in the size of both reports.
+ */
+public class BaselineDiff {
+  private final List<BugInstance> newBugInstances = new ArrayList<>();
+  private final List<BugInstance> fixedBugInstances = new ArrayList<>();
+  private final List<BugInstance> unchangedBugInstances = new ArrayList<>();
+
+  private BaselineDiff() {
+  }
+
+  /**
+   * Classify every bug instance in a report against a baseline.
+   *
+   * @param baseline Bug instances from the baseline report.
+   *
+   * @param instances Bug instances from the report, which are consumed in a single pass.
+   *
+   * @return The classified bug instances, each in the order of the report it came from.
+   */
+  public static BaselineDiff compare(List<BugInstance> baseline, Iterator<BugInstance> instances) {
+    BaselineDiff diff = new BaselineDiff();
+
+    int size = baseline.size();
+
+    // Baseline instances sharing a fingerprint are chained by index, in document order,
+    // so that each map entry holds the first unmatched instance with that fingerprint.
+    Map<BugFingerprint, Integer> unmatched = new HashMap<>(Math.max(16, size * 4 / 3 + 1));
+    int[] next = new int[size];
+
+    for (int i = size - 1; i >= 0; i--) {
+      Integer following = unmatched.put(new BugFingerprint(baseline.get(i)), i);
+      next[i] = following == null ? -1 : following;
+    }
+
+    boolean[] matched = new boolean[size];
+
+    while (instances.hasNext()) {
+      BugInstance instance = instances.next();
+      BugFingerprint fingerprint = new BugFingerprint(instance);
+
+      Integer index = unmatched.get(fingerprint);
+
+      if (index == null) {
+        diff.newBugInstances.add(instance);
+        continue;
+      }
+
+      matched[index] = true;
+      diff.unchangedBugInstances.add(instance);
+
+      if (next[index] == -1) {
+        unmatched.remove(fingerprint);
+      } else {
+        unmatched.put(fingerprint, next[index]);
+      }
+    }
+
+    for (int i = 0; i < size; i++) {
+      if (!matched[i]) {
+        diff.fixedBugInstances.add(baseline.get(i));
+      }
+    }
+
+    return diff;
+  }
+
+  /**
+   * Get the bug instances in the report which are not in the baseline.
+   *
+   * @return The new bug instances.
+   */
+  public List<BugInstance> getNewBugInstances() {
+    return newBugInstances;
+  }
+
+  /**
+   * Get the bug instances in the baseline which are no longer in the report.
+   *
+   * @return The fixed bug instances.
+   */
+  public List<BugInstance> getFixedBugInstances() {
+    return fixedBugInstances;
+  }
+
+  /**
+   * Get the bug instances in the report which are also in the baseline.
+   *
+   * @return The unchanged bug instances.
+   */
+  public List<BugInstance> getUnchangedBugInstances() {
+    return unchangedBugInstances;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes bug instances in a compact binary format, which can be decoded far faster
+ * than the original XML can be parsed.
+ *
+ * <p>The format consists of a header (magic number and version), a dictionary holding
+ * each distinct string once as a length-prefixed UTF-8 sequence, and then a fixed-size
+ * record of integers for each bug instance, in which strings are referred to by their
+ * index in the dictionary. All integers are big-endian.
+ *
+ * <p>Bug instances can also be written one at a time as records with their strings
+ * inline, which can be read back sequentially without holding a dictionary in memory.
+ */
+final class BinaryReportCodec {
+  private static final int magic = 0x53425852;
+  private static final int version = 1;
+
+  private static final int nullIdentifier = -1;
+
+  // Fewest bytes taken by a dictionary entry (its length prefix) and by a record.
+  private static final int entryBytes = Integer.BYTES;
+  private static final int recordBytes = 10 * Integer.BYTES;
+
+  private BinaryReportCodec() {
+  }
+
+  static void encode(List<BugInstance> instances, OutputStream output) throws IOException {
+    StringDictionary dictionary = new StringDictionary();
+    int[] records = new int[instances.size() * 10];
+
+    int offset = 0;
+
+    for (BugInstance instance : instances) {
+      records[offset++] = add(dictionary, instance.getMessage());
+      records[offset++] = add(dictionary, instance.getSourcePath());
+      records[offset++] = add(dictionary, instance.getRelativeSourcePath());
+      records[offset++] = add(dictionary, instance.getCategory());
+      records[offset++] = add(dictionary, instance.getType());
+      records[offset++] = add(dictionary, instance.getClassName());
+      records[offset++] = add(dictionary, instance.getMethodName());
+      records[offset++] = instance.getStartLine();
+      records[offset++] = instance.getStartColumn();
+      records[offset++] = instance.getPriority();
+    }
+
+    DataOutputStream data = new DataOutputStream(output);
+
+    data.writeInt(magic);
+    data.writeInt(version);
+
+    data.writeInt(dictionary.size());
+
+    for (int i = 0; i < dictionary.size(); i++) {
+      byte[] bytes = dictionary.get(i).getBytes(StandardCharsets.UTF_8);
+      data.writeInt(bytes.length);
+      data.write(bytes);
+    }
+
+    data.writeInt(instances.size());
+
+    for (int record : records) {
+      data.writeInt(record);
+    }
+
+    data.flush();
+  }
+
+  /**
+   * Decode bug instances previously written by {@link #encode}.
+   *
+   * @throws IOException Thrown if the data is not in the expected format.
+   */
+  static List<BugInstance> decode(ByteBuffer buffer) throws IOException {
+    try {
+      if (buffer.getInt() != magic || buffer.getInt() != version) {
+        throw new IOException("Unsupported cache format.");
+      }
+
+      String[] dictionary = new String[checkCount(buffer.getInt(), buffer, entryBytes)];
+
+      for (int i = 0; i < dictionary.length; i++) {
+        byte[] bytes = new byte[checkCount(buffer.getInt(), buffer, 1)];
+        buffer.get(bytes);
+        dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      int size = checkCount(buffer.getInt(), buffer, recordBytes);
+      List<BugInstance> instances = new ArrayList<>(size);
+
+      for (int i = 0; i < size; i++) {
+        BugInstance instance = new BugInstance();
+
+        instance.setMessage(get(dictionary, buffer.getInt()));
+        instance.setSourcePath(get(dictionary, buffer.getInt()));
+        instance.setRelativeSourcePath(get(dictionary, buffer.getInt()));
+        instance.setCategory(get(dictionary, buffer.getInt()));
+        instance.setType(get(dictionary, buffer.getInt()));
+        instance.setClassName(get(dictionary, buffer.getInt()));
+        instance.setMethodName(get(dictionary, buffer.getInt()));
+        instance.setStartLine(buffer.getInt());
+        instance.setStartColumn(buffer.getInt());
+        instance.setPriority(buffer.getInt());
+
+        instances.add(instance);
+      }
+
+      if (buffer.hasRemaining()) {
+        throw new IOException("Unexpected data at end of cache entry.");
+      }
+
+      return instances;
+
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Truncated cache entry.", e);
+    }
+  }
+
+  /**
+   * Write a single bug instance with its strings inline, in the same field order as
+   * {@link #encode}.
+   */
+  static void writeRecord(BugInstance instance, DataOutput output) throws IOException {
+    writeString(instance.getMessage(), output);
+    writeString(instance.getSourcePath(), output);
+    writeString(instance.getRelativeSourcePath(), output);
+    writeString(instance.getCategory(), output);
+    writeString(instance.getType(), output);
+    writeString(instance.getClassName(), output);
+    writeString(instance.getMethodName(), output);
+    output.writeInt(instance.getStartLine());
+    output.writeInt(instance.getStartColumn());
+    output.writeInt(instance.getPriority());
+  }
+
+  /**
+   * Read a single bug instance previously written by {@link #writeRecord}.
+   *
+   * @throws IOException Thrown if the data is truncated or not in the expected format.
+   */
+  static BugInstance readRecord(DataInput input) throws IOException {
+    BugInstance instance = new BugInstance();
+
+    instance.setMessage(readString(input));
+    instance.setSourcePath(readString(input));
+    instance.setRelativeSourcePath(readString(input));
+    instance.setCategory(readString(input));
+    instance.setType(readString(input));
+    instance.setClassName(readString(input));
+    instance.setMethodName(readString(input));
+    instance.setStartLine(input.readInt());
+    instance.setStartColumn(input.readInt());
+    instance.setPriority(input.readInt());
+
+    return instance;
+  }
+
+  private static void writeString(String value, DataOutput output) throws IOException {
+    if (value == null) {
+      output.writeInt(nullIdentifier);
+      return;
+    }
+
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(DataInput input) throws IOException {
+    int length = input.readInt();
+
+    if (length == nullIdentifier) {
+      return null;
+    }
+
+    if (length < 0) {
+      throw new IOException("Invalid length in record.");
+    }
+
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int add(StringDictionary dictionary, String value) {
+    return value == null ? nullIdentifier : dictionary.add(value);
+  }
+
+  private static String get(String[] dictionary, int identifier) throws IOException {
+    if (identifier == nullIdentifier) {
+      return null;
+    }
+
+    if (identifier < 0 || identifier >= dictionary.length) {
+      throw new IOException("Invalid string identifier in cache entry.");
+    }
+
+    return dictionary[identifier];
+  }
+
+  // Rejects counts which the rest of the buffer is too short to hold, so that a corrupt
+  // count cannot allocate more memory than the entry itself.
+  private static int checkCount(int count, ByteBuffer buffer, int bytesPerItem) throws
+      IOException {
+
+    if (count < 0 || count > buffer.remaining() / bytesPerItem) {
+      throw new IOException("Invalid length in cache entry.");
+    }
+
+    return count;
+  }
+}
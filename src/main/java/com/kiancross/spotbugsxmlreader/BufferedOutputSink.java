@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An {@link OutputSink} which collects text in a large buffer and encodes it as UTF-8 in
+ * batches.
+ *
+ * <p>Unlike writing each line with {@link System#out}, the underlying output is only
+ * locked and written to once the buffer fills, rather than once per line.
+ */
+public class BufferedOutputSink implements OutputSink {
+  private static final int bufferSize = 1 << 16;
+  private static final String lineSeparator = System.lineSeparator();
+
+  private final Writer writer;
+  private final boolean ownsOutput;
+
+  /**
+   * Construct a sink which writes to an {@link OutputStream}. The stream is closed when
+   * the sink is closed.
+   *
+   * @param output Where to write the encoded text.
+   */
+  public BufferedOutputSink(OutputStream output) {
+    this(buffered(output), true);
+  }
+
+  private BufferedOutputSink(Writer writer, boolean ownsOutput) {
+    this.writer = writer;
+    this.ownsOutput = ownsOutput;
+  }
+
+  private static Writer buffered(OutputStream output) {
+    return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), bufferSize);
+  }
+
+  /**
+   * Construct a sink which writes to standard output. Closing the sink flushes it, but
+   * leaves standard output open.
+   *
+   * @return The sink.
+   */
+  public static BufferedOutputSink toStandardOutput() {
+    return new BufferedOutputSink(buffered(System.out), false);
+  }
+
+  /**
+   * Construct a sink which writes to standard error. Closing the sink flushes it, but
+   * leaves standard error open.
+   *
+   * @return The sink.
+   */
+  public static BufferedOutputSink toStandardError() {
+    return new BufferedOutputSink(buffered(System.err), false);
+  }
+
+  /**
+   * Construct a sink which writes directly to a file through a {@link FileChannel},
+   * replacing any existing content.
+   *
+   * @param path Path to the file.
+   *
+   * @return The sink.
+   *
+   * @throws IOException Thrown if the file cannot be opened for writing.
+   */
+  public static BufferedOutputSink toFile(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(
+        path,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE
+    );
+
+    // The channel writer buffers the encoded bytes itself, so it is not wrapped in a
+    // `BufferedWriter`.
+    Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), bufferSize);
+
+    return new BufferedOutputSink(writer, true);
+  }
+
+  @Override
+  public BufferedOutputSink append(CharSequence text) throws IOException {
+    writer.append(text);
+    return this;
+  }
+
+  @Override
+  public BufferedOutputSink append(CharSequence text, int start, int end) throws IOException {
+    writer.append(text, start, end);
+    return this;
+  }
+
+  @Override
+  public BufferedOutputSink append(char character) throws IOException {
+    writer.append(character);
+    return this;
+  }
+
+  @Override
+  public BufferedOutputSink newLine() throws IOException {
+    writer.write(lineSeparator);
+    return this;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (ownsOutput) {
+      writer.close();
+    } else {
+      writer.flush();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.Objects;
+
+/**
+ * Identifies a bug instance across reports, independently of where in the file it is.
+ *
+ * <p>Made up of the category, type, class, method and relative source path. Line
+ * numbers are deliberately excluded, so that unrelated edits which move code around do
+ * not cause existing findings to appear new.
+ */
+final class BugFingerprint {
+  private final String category;
+  private final String type;
+  private final String className;
+  private final String methodName;
+  private final String relativeSourcePath;
+
+  // Fingerprints are used as hash keys for every instance in a report, so the hash is
+  // computed once up front.
+  private final int hash;
+
+  BugFingerprint(BugInstance instance) {
+    category = instance.getCategory();
+    type = instance.getType();
+    className = instance.getClassName();
+    methodName = instance.getMethodName();
+    relativeSourcePath = instance.getRelativeSourcePath();
+
+    hash = Objects.hash(category, type, className, methodName, relativeSourcePath);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+
+    if (!(object instanceof BugFingerprint)) {
+      return false;
+    }
+
+    BugFingerprint other = (BugFingerprint) object;
+
+    return hash == other.hash
+        && Objects.equals(category, other.category)
+        && Objects.equals(type, other.type)
+        && Objects.equals(className, other.className)
+        && Objects.equals(methodName, other.methodName)
+        && Objects.equals(relativeSourcePath, other.relativeSourcePath);
+  }
+}
@@ -4,15 +4,34 @@
 
 package com.kiancross.spotbugsxmlreader;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public class BugInstance {
+  private static final String errorTag = "(ERROR) ";
+  private static final String warningTag = "(WARNING) ";
+  private static final String fixedTag = "(FIXED) ";
+
+  // Large enough for a typical entry, so that the builder rarely needs to grow.
+  private static final int initialLogEntryCapacity = 256;
+
   private String message;
   private String sourcePath;
   private String category;
+  private String type;
+  private String className;
+  private String methodName;
+  private String relativeSourcePath;
 
   private int startLine;
   private int startColumn;
   private int priority;
 
+  // Replaced by the detail it loads on first access, so that the report is revisited at
+  // most once. Once loaded, reads only involve a volatile read.
+  private BugInstanceDetail.Loader detailLoader;
+  private volatile BugInstanceDetail detail;
+
   public void setMessage(String message) {
     this.message = message;
   }
@@ -25,6 +44,22 @@ public class BugInstance {
     this.category = category;
   }
   
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public void setClassName(String className) {
+    this.className = className;
+  }
+
+  public void setMethodName(String methodName) {
+    this.methodName = methodName;
+  }
+
+  public void setRelativeSourcePath(String relativeSourcePath) {
+    this.relativeSourcePath = relativeSourcePath;
+  }
+
   public void setStartLine(int startLine) {
     this.startLine = startLine;
   }
@@ -37,6 +72,79 @@ public class BugInstance {
     this.priority = priority;
   }
 
+  public String getMessage() {
+    return message;
+  }
+
+  public String getSourcePath() {
+    return sourcePath;
+  }
+
+  public String getCategory() {
+    return category;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public String getMethodName() {
+    return methodName;
+  }
+
+  public String getRelativeSourcePath() {
+    return relativeSourcePath;
+  }
+
+  public int getStartLine() {
+    return startLine;
+  }
+
+  public int getStartColumn() {
+    return startColumn;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  synchronized void setDetailLoader(BugInstanceDetail.Loader detailLoader) {
+    this.detailLoader = detailLoader;
+  }
+
+  /**
+   * Get everything recorded about the bug instance in the report, reading it from the
+   * report on first access. Safe to call from several threads, in which case the report
+   * is still only read once.
+   *
+   * @return The detail, or `null` if the parser did not capture it.
+   *
+   * @throws ParserException Thrown if the detail could not be read.
+   *
+   * @see Parser.Builder#setCaptureDetail(boolean)
+   */
+  public BugInstanceDetail getDetail() throws ParserException {
+    BugInstanceDetail result = detail;
+
+    if (result == null) {
+      synchronized (this) {
+        result = detail;
+
+        if (result == null && detailLoader != null) {
+          result = detailLoader.load();
+          detail = result;
+          detailLoader = null;
+        }
+      }
+    }
+
+    return result;
+  }
+
   /**
    * Get a log file entry representing the bug instance. 
    *
@@ -45,24 +153,82 @@ public class BugInstance {
    * @return The log file entry.
    */
   public String getLogEntry(int thresholdSeverity) {
-    return String.format(
-      "(%s) %s [%s] %s",
-      getSeverity(thresholdSeverity),
-      getSourceIdentifier(),
-      category,
-      message
-    );
+    StringBuilder entry = new StringBuilder(initialLogEntryCapacity);
+
+    try {
+      appendLogEntry(entry, thresholdSeverity);
+    } catch (IOException e) {
+      // Appending to a `StringBuilder` never throws.
+      throw new UncheckedIOException(e);
+    }
+
+    return entry.toString();
+  }
+
+  /**
+   * Append a log file entry representing the bug instance to `output`.
+   *
+   * <p>This produces the same text as {@link #getLogEntry(int)}, but writes directly
+   * into `output` without building any intermediate strings.
+   *
+   * @param output Where to append the entry.
+   *
+   * @param thresholdSeverity The severity threshold to use for error/warning tags.
+   *
+   * @throws IOException Thrown if `output` cannot be appended to.
+   */
+  public void appendLogEntry(Appendable output, int thresholdSeverity) throws IOException {
+    appendLogEntry(output, isError(thresholdSeverity) ? errorTag : warningTag);
+  }
+
+  /**
+   * Append a log file entry to `output` which marks the bug instance as fixed, for
+   * findings which are no longer present when compared against a baseline.
+   *
+   * @param output Where to append the entry.
+   *
+   * @throws IOException Thrown if `output` cannot be appended to.
+   */
+  public void appendFixedLogEntry(Appendable output) throws IOException {
+    appendLogEntry(output, fixedTag);
   }
 
   public boolean isError(int thresholdSeverity) {
     return priority <= thresholdSeverity;
   }
 
-  private String getSourceIdentifier() {
-    return String.format("%s:%d:%d", sourcePath, startLine, startColumn);
+  private void appendLogEntry(Appendable output, String tag) throws IOException {
+    output.append(tag);
+
+    output.append(sourcePath).append(':');
+    appendInteger(output, startLine);
+    output.append(':');
+    appendInteger(output, startColumn);
+
+    output.append(" [").append(category).append("] ").append(message);
   }
 
-  private String getSeverity(int thresholdSeverity) {
-    return isError(thresholdSeverity) ? "ERROR" : "WARNING";
+  private static void appendInteger(Appendable output, int value) throws IOException {
+    if (output instanceof StringBuilder) {
+      ((StringBuilder) output).append(value);
+      return;
+    }
+
+    if (value < 0) {
+      output.append('-');
+    }
+
+    // Widened so that the magnitude of `Integer.MIN_VALUE` can be represented.
+    long remaining = Math.abs((long) value);
+    long divisor = 1;
+
+    while (divisor * 10 <= remaining) {
+      divisor *= 10;
+    }
+
+    for (; divisor > 0; divisor /= 10) {
+      output.append((char) ('0' + remaining / divisor));
+      remaining %= divisor;
+    }
   }
 }
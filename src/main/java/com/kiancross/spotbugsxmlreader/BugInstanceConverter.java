@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+/**
+ * Converts the raw attribute values of a `BugInstance` element into a {@link BugInstance}.
+ *
+ * <p>This is shared between the parser implementations so that they resolve paths and
+ * report errors identically, regardless of how the values were read from the XML.
+ */
+class BugInstanceConverter {
+  private final SourcePathResolver resolver;
+  private PipelineStats stats = PipelineStats.disabled();
+
+  // Conversion is interleaved with parsing, so each event spans from the first conversion
+  // until `commitEvents` is called, rather than the time spent in the stage itself.
+  private StageEvent convertEvent;
+  private StageEvent resolveEvent;
+
+  BugInstanceConverter(String[] sourceDirectories) {
+    resolver = new SourcePathResolver(sourceDirectories);
+  }
+
+  void setStats(PipelineStats stats) {
+    this.stats = stats;
+  }
+
+  /**
+   * Record the conversions since the first conversion, or the last call, as `convert`
+   * and `resolve` Java Flight Recorder events. Does nothing if nothing was converted.
+   */
+  synchronized void commitEvents() {
+    if (convertEvent == null) {
+      return;
+    }
+
+    convertEvent.commit();
+    resolveEvent.commit();
+
+    convertEvent = null;
+    resolveEvent = null;
+  }
+
+  // Synchronised, as the parser may convert on several threads.
+  private synchronized void countEvents() {
+    if (convertEvent == null) {
+      convertEvent = new StageEvent(PipelineStats.Stage.CONVERT);
+      resolveEvent = new StageEvent(PipelineStats.Stage.RESOLVE);
+
+      convertEvent.begin();
+      resolveEvent.begin();
+    }
+
+    convertEvent.items++;
+    resolveEvent.items++;
+  }
+
+  BugInstance convert(
+      String message,
+      String category,
+      String priority,
+      String type,
+      String className,
+      String methodName,
+      String relativeSourcePath,
+      String startLine,
+      String startColumn
+  ) throws ParserException {
+
+    countEvents();
+
+    long start = stats.start();
+
+    String path = resolver.resolve(relativeSourcePath);
+
+    long resolveNanos = stats.stop(PipelineStats.Stage.RESOLVE, start);
+
+    try {
+      BugInstance instance = new BugInstance();
+
+      instance.setMessage(message);
+      instance.setSourcePath(path);
+      instance.setCategory(category);
+      instance.setType(type);
+      instance.setClassName(className);
+      instance.setMethodName(methodName);
+      instance.setRelativeSourcePath(relativeSourcePath);
+      instance.setStartLine(Integer.parseInt(startLine));
+      instance.setStartColumn(Integer.parseInt(startColumn));
+      instance.setPriority(Integer.parseInt(priority));
+
+      return instance;
+
+    } catch (NumberFormatException e) {
+      throw new ParserException("Error when parsing integer: %s", e.getMessage());
+
+    } finally {
+      stats.stop(PipelineStats.Stage.CONVERT, start, resolveNanos);
+    }
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Everything recorded about a `BugInstance` element beyond what {@link BugInstance}
+ * holds: its remaining attributes, every annotation (`Class`, `Method`, `Field`,
+ * `SourceLine` and so on) and the description of its bug pattern.
+ *
+ * <p>Details are materialised from the report only when {@link BugInstance#getDetail()}
+ * is first called, and only if the parser was asked to capture them.
+ */
+public final class BugInstanceDetail {
+  private final Map<String, String> attributes;
+  private final String shortMessage;
+  private final List<Annotation> annotations;
+  private final String patternShortDescription;
+  private final String patternDetails;
+
+  /**
+   * Reads the detail of a bug instance, for example by revisiting the report.
+   */
+  @FunctionalInterface
+  interface Loader {
+    BugInstanceDetail load() throws ParserException;
+  }
+
+  /**
+   * An element within a `BugInstance`, such as `Class`, `Method`, `Field` or
+   * `SourceLine`, with its attributes.
+   */
+  public static final class Annotation {
+    private final String kind;
+    private final Map<String, String> attributes;
+    private final Annotation sourceLine;
+
+    private Annotation(String kind, Map<String, String> attributes, Annotation sourceLine) {
+      this.kind = kind;
+      this.attributes = attributes;
+      this.sourceLine = sourceLine;
+    }
+
+    /**
+     * Get the name of the element, such as `Method`.
+     *
+     * @return The element name.
+     */
+    public String getKind() {
+      return kind;
+    }
+
+    /**
+     * Get the attributes of the element.
+     *
+     * @return An unmodifiable map of attribute names to values.
+     */
+    public Map<String, String> getAttributes() {
+      return attributes;
+    }
+
+    /**
+     * Get an attribute of the element.
+     *
+     * @param name The attribute name, such as `classname`.
+     *
+     * @return The value, or `null` if the element does not have the attribute.
+     */
+    public String getAttribute(String name) {
+      return attributes.get(name);
+    }
+
+    public boolean isPrimary() {
+      return "true".equals(attributes.get("primary"));
+    }
+
+    /**
+     * Get the role of the element, which describes what it refers to (e.g.
+     * `METHOD_CALLED`).
+     *
+     * @return The role, or `null` if the element has none.
+     */
+    public String getRole() {
+      return attributes.get("role");
+    }
+
+    /**
+     * Get the `SourceLine` nested in this element, as found in `Class`, `Method` and
+     * `Field` elements.
+     *
+     * @return The source line, or `null` if there is none.
+     */
+    public Annotation getSourceLine() {
+      return sourceLine;
+    }
+  }
+
+  private BugInstanceDetail(
+      Map<String, String> attributes,
+      String shortMessage,
+      List<Annotation> annotations,
+      String patternShortDescription,
+      String patternDetails
+  ) {
+    this.attributes = attributes;
+    this.shortMessage = shortMessage;
+    this.annotations = annotations;
+    this.patternShortDescription = patternShortDescription;
+    this.patternDetails = patternDetails;
+  }
+
+  /**
+   * Read the detail of a `BugInstance` element.
+   *
+   * @param bugInstance The `BugInstance` element.
+   *
+   * @param bugPattern The `BugPattern` element for its type, or `null` if there is none.
+   */
+  static BugInstanceDetail fromElements(Element bugInstance, Element bugPattern) {
+    String shortMessage = null;
+    List<Annotation> annotations = new ArrayList<>();
+
+    for (Element child : getChildElements(bugInstance)) {
+      String tagName = child.getTagName();
+
+      if (tagName.equals("ShortMessage")) {
+        shortMessage = child.getTextContent();
+
+      } else if (!tagName.equals("LongMessage")) {
+        annotations.add(readAnnotation(child));
+      }
+    }
+
+    return new BugInstanceDetail(
+        readAttributes(bugInstance),
+        shortMessage,
+        Collections.unmodifiableList(annotations),
+        bugPattern == null ? null : getChildText(bugPattern, "ShortDescription"),
+        bugPattern == null ? null : getChildText(bugPattern, "Details")
+    );
+  }
+
+  /**
+   * Get the attributes of the `BugInstance` element.
+   *
+   * @return An unmodifiable map of attribute names to values.
+   */
+  public Map<String, String> getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * Get the rank of the bug instance, from 1 (scariest) to 20.
+   *
+   * @return The rank, or `-1` if the report does not include it.
+   */
+  public int getRank() {
+    return parseInteger(attributes.get("rank"));
+  }
+
+  /**
+   * Get the CWE identifier of the bug pattern.
+   *
+   * @return The identifier, or `-1` if the report does not include it.
+   */
+  public int getCweId() {
+    return parseInteger(attributes.get("cweid"));
+  }
+
+  /**
+   * Get the abbreviation of the bug pattern (e.g. `NP`).
+   *
+   * @return The abbreviation, or `null` if the report does not include it.
+   */
+  public String getAbbreviation() {
+    return attributes.get("abbrev");
+  }
+
+  /**
+   * Get the hash identifying the bug instance across analyses.
+   *
+   * @return The hash, or `null` if the report does not include it.
+   */
+  public String getInstanceHash() {
+    return attributes.get("instanceHash");
+  }
+
+  /**
+   * Get the short message of the bug instance.
+   *
+   * @return The message, or `null` if the report does not include it.
+   */
+  public String getShortMessage() {
+    return shortMessage;
+  }
+
+  /**
+   * Get every annotation of the bug instance, in document order.
+   *
+   * @return An unmodifiable list of the annotations.
+   */
+  public List<Annotation> getAnnotations() {
+    return annotations;
+  }
+
+  public List<Annotation> getClasses() {
+    return getAnnotations("Class");
+  }
+
+  public List<Annotation> getMethods() {
+    return getAnnotations("Method");
+  }
+
+  public List<Annotation> getFields() {
+    return getAnnotations("Field");
+  }
+
+  /**
+   * Get the `SourceLine` elements which are direct children of the `BugInstance`,
+   * including the primary source line.
+   *
+   * @return The source lines, in document order.
+   */
+  public List<Annotation> getSourceLines() {
+    return getAnnotations("SourceLine");
+  }
+
+  /**
+   * Get the short description of the bug pattern.
+   *
+   * @return The description, or `null` if the report does not include bug patterns.
+   */
+  public String getPatternShortDescription() {
+    return patternShortDescription;
+  }
+
+  /**
+   * Get the detailed description of the bug pattern, which is HTML.
+   *
+   * @return The description, or `null` if the report does not include bug patterns.
+   */
+  public String getPatternDetails() {
+    return patternDetails;
+  }
+
+  private List<Annotation> getAnnotations(String kind) {
+    List<Annotation> matching = new ArrayList<>();
+
+    for (Annotation annotation : annotations) {
+      if (annotation.getKind().equals(kind)) {
+        matching.add(annotation);
+      }
+    }
+
+    return matching;
+  }
+
+  private static Annotation readAnnotation(Element element) {
+    Annotation sourceLine = null;
+
+    for (Element child : getChildElements(element)) {
+      if (child.getTagName().equals("SourceLine")) {
+        sourceLine = readAnnotation(child);
+        break;
+      }
+    }
+
+    return new Annotation(element.getTagName(), readAttributes(element), sourceLine);
+  }
+
+  private static Map<String, String> readAttributes(Element element) {
+    NamedNodeMap nodes = element.getAttributes();
+    Map<String, String> attributes = new LinkedHashMap<>();
+
+    for (int i = 0; i < nodes.getLength(); i++) {
+      Node node = nodes.item(i);
+      attributes.put(node.getNodeName(), node.getNodeValue());
+    }
+
+    return Collections.unmodifiableMap(attributes);
+  }
+
+  private static String getChildText(Element parent, String tagName) {
+    for (Element child : getChildElements(parent)) {
+      if (child.getTagName().equals(tagName)) {
+        return child.getTextContent();
+      }
+    }
+
+    return null;
+  }
+
+  private static List<Element> getChildElements(Element parent) {
+    List<Element> elements = new ArrayList<>();
+
+    for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        elements.add((Element) child);
+      }
+    }
+
+    return elements;
+  }
+
+  private static int parseInteger(String value) {
+    if (value == null) {
+      return -1;
+    }
+
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which bug instances are kept, based on their category, priority, bug type and
+ * source path, and optionally a SpotBugs exclude filter file.
+ *
+ * <p>A bug instance is kept when it matches every include rule that has been given, and
+ * none of the exclude rules. Filters are evaluated by the parsers on the raw attributes
+ * of each `BugInstance`, so rejected bug instances are never converted. As a result,
+ * rejected bug instances are not checked for semantic errors.
+ */
+public final class BugInstanceFilter {
+  private static final BugInstanceFilter acceptAll = new Builder().build();
+
+  private final Set<String> includedCategories;
+  private final Set<String> excludedCategories;
+  private final Set<String> includedTypes;
+  private final Set<String> excludedTypes;
+  private final int maximumPriority;
+  private final List<PathMatcher> includedPaths;
+  private final List<PathMatcher> excludedPaths;
+  private final List<SpotBugsFilter.Clause> excludedMatches;
+
+  /**
+   * Configures and constructs {@link BugInstanceFilter}s.
+   */
+  public static class Builder {
+    private final Set<String> includedCategories = new HashSet<String>();
+    private final Set<String> excludedCategories = new HashSet<String>();
+    private final Set<String> includedTypes = new HashSet<String>();
+    private final Set<String> excludedTypes = new HashSet<String>();
+    private int maximumPriority = Integer.MAX_VALUE;
+    private final List<PathMatcher> includedPaths = new ArrayList<PathMatcher>();
+    private final List<PathMatcher> excludedPaths = new ArrayList<PathMatcher>();
+    private final List<SpotBugsFilter.Clause> excludedMatches =
+        new ArrayList<SpotBugsFilter.Clause>();
+
+    private Builder() {
+    }
+
+    /**
+     * Keep only bug instances in the given category. May be called more than once to
+     * keep several categories.
+     *
+     * @param category The category, such as `CORRECTNESS`.
+     *
+     * @return This builder.
+     */
+    public Builder includeCategory(String category) {
+      includedCategories.add(category);
+      return this;
+    }
+
+    /**
+     * Remove bug instances in the given category.
+     *
+     * @param category The category, such as `STYLE`.
+     *
+     * @return This builder.
+     */
+    public Builder excludeCategory(String category) {
+      excludedCategories.add(category);
+      return this;
+    }
+
+    /**
+     * Keep only bug instances of the given bug type. May be called more than once to keep
+     * several types.
+     *
+     * @param type The bug type, such as `NP_NULL_ON_SOME_PATH`.
+     *
+     * @return This builder.
+     */
+    public Builder includeType(String type) {
+      includedTypes.add(type);
+      return this;
+    }
+
+    /**
+     * Remove bug instances of the given bug type.
+     *
+     * @param type The bug type, such as `DM_DEFAULT_ENCODING`.
+     *
+     * @return This builder.
+     */
+    public Builder excludeType(String type) {
+      excludedTypes.add(type);
+      return this;
+    }
+
+    /**
+     * Remove bug instances with a priority greater than the given value. As with the
+     * error threshold, priority `1` is the most severe.
+     *
+     * @param maximumPriority The largest priority to keep, which must be at least one.
+     *
+     * @return This builder.
+     */
+    public Builder setMaximumPriority(int maximumPriority) {
+      if (maximumPriority < 1) {
+        throw new IllegalArgumentException("Maximum priority must be at least one.");
+      }
+
+      this.maximumPriority = maximumPriority;
+      return this;
+    }
+
+    /**
+     * Keep only bug instances whose relative source path matches the given glob. May be
+     * called more than once, in which case matching any of the globs is sufficient.
+     *
+     * @param glob A glob, such as `com/example/**`, in the syntax of
+     *             {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+     *
+     * @return This builder.
+     *
+     * @throws java.util.regex.PatternSyntaxException Thrown if the glob is invalid.
+     */
+    public Builder includePath(String glob) {
+      includedPaths.add(createPathMatcher(glob));
+      return this;
+    }
+
+    /**
+     * Remove bug instances whose relative source path matches the given glob.
+     *
+     * @param glob A glob, such as `**&#47;generated/**`.
+     *
+     * @return This builder.
+     *
+     * @throws java.util.regex.PatternSyntaxException Thrown if the glob is invalid.
+     */
+    public Builder excludePath(String glob) {
+      excludedPaths.add(createPathMatcher(glob));
+      return this;
+    }
+
+    /**
+     * Remove bug instances matched by a SpotBugs exclude filter file.
+     *
+     * @param input An {@link InputStream} containing the filter XML.
+     *
+     * @return This builder.
+     *
+     * @throws ParserException Thrown if the filter is invalid, or uses features which are
+     *                         not supported.
+     *
+     * @see SpotBugsFilter
+     */
+    public Builder excludeFilter(InputStream input) throws ParserException {
+      excludedMatches.add(SpotBugsFilter.read(input));
+      return this;
+    }
+
+    /**
+     * Remove bug instances matched by a SpotBugs exclude filter file.
+     *
+     * @param path Path to the filter XML file.
+     *
+     * @return This builder.
+     *
+     * @throws FileNotFoundException Thrown if the given file path does not exist.
+     *
+     * @throws ParserException Thrown if the filter is invalid, or uses features which are
+     *                         not supported.
+     */
+    public Builder excludeFilter(String path) throws FileNotFoundException, ParserException {
+      try (InputStream input = ReportInput.open(path)) {
+        return excludeFilter(input);
+
+      } catch (FileNotFoundException e) {
+        throw e;
+
+      } catch (IOException e) {
+        throw new ParserException("Unable to read filter: %s", e.getMessage());
+      }
+    }
+
+    /**
+     * Construct the filter.
+     *
+     * @return The filter instance.
+     */
+    public BugInstanceFilter build() {
+      return new BugInstanceFilter(this);
+    }
+
+    private static PathMatcher createPathMatcher(String glob) {
+      return FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    }
+  }
+
+  private BugInstanceFilter(Builder builder) {
+    includedCategories = new HashSet<String>(builder.includedCategories);
+    excludedCategories = new HashSet<String>(builder.excludedCategories);
+    includedTypes = new HashSet<String>(builder.includedTypes);
+    excludedTypes = new HashSet<String>(builder.excludedTypes);
+    maximumPriority = builder.maximumPriority;
+    includedPaths = new ArrayList<PathMatcher>(builder.includedPaths);
+    excludedPaths = new ArrayList<PathMatcher>(builder.excludedPaths);
+    excludedMatches = new ArrayList<SpotBugsFilter.Clause>(builder.excludedMatches);
+  }
+
+  /**
+   * Get a builder, for constructing filters.
+   *
+   * @return A new builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Get a filter which keeps every bug instance.
+   *
+   * @return The filter instance.
+   */
+  public static BugInstanceFilter acceptAll() {
+    return acceptAll;
+  }
+
+  /**
+   * Check whether every bug instance is kept by this filter.
+   *
+   * @return `true` if no rules have been given.
+   */
+  public boolean isAcceptAll() {
+    return !hasAttributeRules() && !hasLocationRules();
+  }
+
+  /**
+   * Check whether a converted bug instance is kept by this filter.
+   *
+   * @param instance The bug instance.
+   *
+   * @return `true` if the bug instance is kept.
+   */
+  public boolean accepts(BugInstance instance) {
+    return accepts(
+      instance.getCategory(),
+      Integer.toString(instance.getPriority()),
+      instance.getType(),
+      instance.getClassName(),
+      instance.getMethodName(),
+      instance.getRelativeSourcePath()
+    );
+  }
+
+  // Only the rules which can be decided from the attributes of `BugInstance` itself, so
+  // that the children of rejected elements need not be read.
+  boolean acceptsAttributes(String category, String priority, String type) {
+    if (!hasAttributeRules()) {
+      return true;
+    }
+
+    if (!includedCategories.isEmpty() && !includedCategories.contains(category)) {
+      return false;
+    }
+
+    if (excludedCategories.contains(category)) {
+      return false;
+    }
+
+    if (!includedTypes.isEmpty() && !includedTypes.contains(type)) {
+      return false;
+    }
+
+    if (excludedTypes.contains(type)) {
+      return false;
+    }
+
+    // An invalid priority is left for the converter to report.
+    return parsePriority(priority) <= maximumPriority;
+  }
+
+  boolean accepts(
+      String category,
+      String priority,
+      String type,
+      String className,
+      String methodName,
+      String relativeSourcePath
+  ) {
+    if (!acceptsAttributes(category, priority, type)) {
+      return false;
+    }
+
+    if (!hasLocationRules()) {
+      return true;
+    }
+
+    if (!includedPaths.isEmpty() || !excludedPaths.isEmpty()) {
+      Path path = toPath(relativeSourcePath);
+
+      if (!includedPaths.isEmpty() && !matchesAny(includedPaths, path)) {
+        return false;
+      }
+
+      if (matchesAny(excludedPaths, path)) {
+        return false;
+      }
+    }
+
+    int parsedPriority = parsePriority(priority);
+
+    for (SpotBugsFilter.Clause clause: excludedMatches) {
+      if (clause.matches(
+          category, parsedPriority, type, className, methodName, relativeSourcePath
+      )) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean hasAttributeRules() {
+    return !includedCategories.isEmpty()
+        || !excludedCategories.isEmpty()
+        || !includedTypes.isEmpty()
+        || !excludedTypes.isEmpty()
+        || maximumPriority != Integer.MAX_VALUE;
+  }
+
+  private boolean hasLocationRules() {
+    return !includedPaths.isEmpty() || !excludedPaths.isEmpty() || !excludedMatches.isEmpty();
+  }
+
+  private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+    if (path == null) {
+      return false;
+    }
+
+    for (PathMatcher matcher: matchers) {
+      if (matcher.matches(path)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static Path toPath(String path) {
+    try {
+      return Paths.get(path);
+    } catch (InvalidPathException e) {
+      return null;
+    }
+  }
+
+  // Returns `Integer.MIN_VALUE` for invalid priorities, so that they match no rules.
+  private static int parsePriority(String priority) {
+    try {
+      return Integer.parseInt(priority);
+    } catch (NumberFormatException e) {
+      return Integer.MIN_VALUE;
+    }
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Indexes over a {@link CompactBugInstanceStore}, for looking up bug instances by file,
+ * category and priority without scanning the whole store.
+ *
+ * <p>Bug instances are identified by their index in the store. Each index is built on
+ * first use, after which it is never modified, so once built, lookups from any number
+ * of threads need no locking. Lookups by file, category and priority take constant time
+ * plus the size of the result, and lookups by line range within a file take
+ * logarithmic time.
+ */
+public class BugInstanceIndex {
+  private static final int[] empty = new int[0];
+
+  private final CompactBugInstanceStore store;
+
+  private final Lazy<Map<String, int[]>> bySourcePath;
+  private final Lazy<Map<String, int[]>> byFile;
+  private final Lazy<Map<String, int[]>> byCategory;
+  private final Lazy<Map<Integer, int[]>> byPriority;
+
+  // A value which is computed on first use. Once computed, reads only involve a
+  // volatile read.
+  private static final class Lazy<T> {
+    private final Supplier<T> supplier;
+    private volatile T value;
+
+    Lazy(Supplier<T> supplier) {
+      this.supplier = supplier;
+    }
+
+    T get() {
+      T result = value;
+
+      if (result == null) {
+        synchronized (this) {
+          result = value;
+
+          if (result == null) {
+            result = supplier.get();
+            value = result;
+          }
+        }
+      }
+
+      return result;
+    }
+  }
+
+  /**
+   * Construct indexes over a store. No index is built until it is first used.
+   *
+   * @param store The bug instances to index.
+   */
+  public BugInstanceIndex(CompactBugInstanceStore store) {
+    this.store = store;
+
+    bySourcePath = new Lazy<>(() -> group(store::getSourcePath));
+    byFile = new Lazy<>(this::buildFileIndex);
+    byCategory = new Lazy<>(() -> group(store::getCategory));
+    byPriority = new Lazy<>(() -> group(store::getPriority));
+  }
+
+  public CompactBugInstanceStore getStore() {
+    return store;
+  }
+
+  /**
+   * Find the bug instances in a file.
+   *
+   * @param path The source path, or relative source path, of the file.
+   *
+   * @return Indexes of the bug instances, ordered by start line.
+   */
+  public int[] findByFile(String path) {
+    return byFile.get().getOrDefault(path, empty).clone();
+  }
+
+  /**
+   * Find the bug instances in a file which start within a range of lines.
+   *
+   * @param path The source path, or relative source path, of the file.
+   *
+   * @param fromLine The first line, inclusive.
+   *
+   * @param toLine The last line, inclusive.
+   *
+   * @return Indexes of the bug instances, ordered by start line.
+   */
+  public int[] findByFile(String path, int fromLine, int toLine) {
+    int[] instances = byFile.get().getOrDefault(path, empty);
+
+    int start = lowerBound(instances, fromLine);
+    int end = toLine == Integer.MAX_VALUE ? instances.length : lowerBound(instances, toLine + 1);
+
+    return start < end ? Arrays.copyOfRange(instances, start, end) : empty;
+  }
+
+  /**
+   * Find the bug instances in a category.
+   *
+   * @param category The category.
+   *
+   * @return Indexes of the bug instances, in the order of the store.
+   */
+  public int[] findByCategory(String category) {
+    return byCategory.get().getOrDefault(category, empty).clone();
+  }
+
+  /**
+   * Find the bug instances with a priority.
+   *
+   * @param priority The priority.
+   *
+   * @return Indexes of the bug instances, in the order of the store.
+   */
+  public int[] findByPriority(int priority) {
+    return byPriority.get().getOrDefault(priority, empty).clone();
+  }
+
+  /**
+   * Find the bug instances which are errors at a severity threshold.
+   *
+   * @param thresholdSeverity The severity threshold.
+   *
+   * @return Indexes of the bug instances, in the order of the store.
+   */
+  public int[] findErrors(int thresholdSeverity) {
+    int[] errors = empty;
+
+    for (Map.Entry<Integer, int[]> entry : byPriority.get().entrySet()) {
+      if (entry.getKey() <= thresholdSeverity) {
+        int[] instances = entry.getValue();
+        int length = errors.length;
+
+        errors = Arrays.copyOf(errors, length + instances.length);
+        System.arraycopy(instances, 0, errors, length, instances.length);
+      }
+    }
+
+    Arrays.sort(errors);
+
+    return errors;
+  }
+
+  /**
+   * Count the bug instances in each file, keyed by source path.
+   *
+   * @return The number of bug instances in each file.
+   */
+  public Map<String, Integer> countByFile() {
+    return count(bySourcePath.get());
+  }
+
+  public Map<String, Integer> countByCategory() {
+    return count(byCategory.get());
+  }
+
+  public Map<Integer, Integer> countByPriority() {
+    return count(byPriority.get());
+  }
+
+  // Groups bug instances under both their source path and relative source path, with
+  // each group sorted by start line.
+  private Map<String, int[]> buildFileIndex() {
+    Map<String, int[]> byRelativeSourcePath = group(store::getRelativeSourcePath);
+
+    // Copied, as the groups are sorted in place below.
+    Map<String, int[]> index = new HashMap<>();
+
+    for (Map.Entry<String, int[]> entry : bySourcePath.get().entrySet()) {
+      index.put(entry.getKey(), entry.getValue().clone());
+    }
+
+    for (Map.Entry<String, int[]> entry : byRelativeSourcePath.entrySet()) {
+      index.merge(entry.getKey(), entry.getValue(), BugInstanceIndex::union);
+    }
+
+    for (int[] instances : index.values()) {
+      sortByStartLine(instances);
+    }
+
+    return Collections.unmodifiableMap(index);
+  }
+
+  // Groups bug instances by a key, with each group in the order of the store.
+  private <K> Map<K, int[]> group(IntFunction<K> key) {
+    Map<K, int[]> counts = new HashMap<>();
+
+    for (int i = 0; i < store.size(); i++) {
+      counts.computeIfAbsent(key.apply(i), k -> new int[1])[0]++;
+    }
+
+    Map<K, int[]> groups = new HashMap<>(counts.size() * 4 / 3 + 1);
+
+    for (Map.Entry<K, int[]> entry : counts.entrySet()) {
+      groups.put(entry.getKey(), new int[entry.getValue()[0]]);
+      entry.getValue()[0] = 0;
+    }
+
+    for (int i = 0; i < store.size(); i++) {
+      K value = key.apply(i);
+      groups.get(value)[counts.get(value)[0]++] = i;
+    }
+
+    return Collections.unmodifiableMap(groups);
+  }
+
+  // Sorts by start line, then by index, using packed primitive keys to avoid boxing.
+  private void sortByStartLine(int[] instances) {
+    long[] keys = new long[instances.length];
+
+    for (int i = 0; i < instances.length; i++) {
+      keys[i] = ((long) store.getStartLine(instances[i]) << 32) | instances[i];
+    }
+
+    Arrays.sort(keys);
+
+    for (int i = 0; i < instances.length; i++) {
+      instances[i] = (int) keys[i];
+    }
+  }
+
+  // First position in an array sorted by start line whose line is at least `line`.
+  private int lowerBound(int[] instances, int line) {
+    int low = 0;
+    int high = instances.length;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (store.getStartLine(instances[middle]) < line) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  private static int[] union(int[] first, int[] second) {
+    int[] merged = new int[first.length + second.length];
+    int length = 0;
+
+    int i = 0;
+    int j = 0;
+
+    // Both groups are in the order of the store, so they can be merged in one pass,
+    // skipping instances whose source path and relative source path are the same.
+    while (i < first.length || j < second.length) {
+      if (j == second.length || (i < first.length && first[i] < second[j])) {
+        merged[length++] = first[i++];
+      } else if (i == first.length || second[j] < first[i]) {
+        merged[length++] = second[j++];
+      } else {
+        merged[length++] = first[i++];
+        j++;
+      }
+    }
+
+    return Arrays.copyOf(merged, length);
+  }
+
+  private static <K> Map<K, Integer> count(Map<K, int[]> groups) {
+    Map<K, Integer> counts = new HashMap<>(groups.size() * 4 / 3 + 1);
+
+    for (Map.Entry<K, int[]> entry : groups.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().length);
+    }
+
+    return counts;
+  }
+}
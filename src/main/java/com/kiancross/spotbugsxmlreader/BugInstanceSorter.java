@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts bug instances within a memory budget.
+ *
+ * <p>Bug instances are buffered until their estimated size exceeds the budget. The buffer
+ * is then sorted with {@link OutputOrder#sort(List)} and written to a temporary file as a
+ * run, using {@link BinaryReportCodec#writeRecord}. Once every bug instance has been
+ * added, the runs are combined with a k-way merge, which holds only a read buffer and the
+ * current bug instance of each run in memory. If there are more runs than can be merged
+ * at once, neighbouring runs are first merged into longer runs.
+ *
+ * <p>The sort is stable: bug instances which compare equal are returned in the order they
+ * were added.
+ */
+final class BugInstanceSorter implements Closeable {
+  static final long unlimited = Long.MAX_VALUE;
+
+  // Bounds the number of files open, and read buffers held, while merging.
+  static final int maximumMergeWidth = 64;
+
+  private static final int bufferSize = 64 * 1024;
+
+  // Shallow size of a `BugInstance` and the reference to it held by the buffer.
+  private static final long instanceBytes = 64;
+
+  // Shallow size of a `String` and the header of its backing array.
+  private static final long stringBytes = 40;
+
+  private final OutputOrder order;
+  private final long maximumMemory;
+
+  private final List<BugInstance> buffer = new ArrayList<>();
+  private long bufferedBytes;
+
+  private List<Path> runs = new ArrayList<>();
+  private final List<RunReader> readers = new ArrayList<>();
+  private Path directory;
+
+  /**
+   * Construct a sorter.
+   *
+   * @param order The order to sort bug instances in.
+   *
+   * @param maximumMemory The estimated size in bytes of the bug instances which may be held
+   *                      in memory before they are written to disk, or {@link #unlimited}.
+   */
+  BugInstanceSorter(OutputOrder order, long maximumMemory) {
+    this.order = order;
+    this.maximumMemory = maximumMemory;
+  }
+
+  void add(BugInstance instance) throws IOException {
+    buffer.add(instance);
+    bufferedBytes += estimateSize(instance);
+
+    if (bufferedBytes > maximumMemory) {
+      spill();
+    }
+  }
+
+  void addAll(Iterator<BugInstance> instances) throws IOException {
+    while (instances.hasNext()) {
+      add(instances.next());
+    }
+  }
+
+  int getRunCount() {
+    return runs.size();
+  }
+
+  /**
+   * Get the sorted bug instances. No more bug instances may be added afterwards.
+   *
+   * @return The bug instances, which are read from disk as they are iterated if the budget
+   *         was exceeded. The iterator throws {@link UncheckedIOException} if a run cannot
+   *         be read.
+   *
+   * @throws IOException Thrown if the runs could not be written or merged.
+   */
+  Iterator<BugInstance> iterator() throws IOException {
+    if (runs.isEmpty()) {
+      order.sort(buffer);
+      return buffer.iterator();
+    }
+
+    spill();
+
+    while (runs.size() > maximumMergeWidth) {
+      mergePass();
+    }
+
+    return new MergeIterator(openRuns(runs));
+  }
+
+  // A rough estimate of the heap used by a bug instance. Strings shared between bug
+  // instances are counted each time, so the estimate errs on the side of spilling early.
+  static long estimateSize(BugInstance instance) {
+    return instanceBytes
+        + estimateSize(instance.getMessage())
+        + estimateSize(instance.getSourcePath())
+        + estimateSize(instance.getRelativeSourcePath())
+        + estimateSize(instance.getCategory())
+        + estimateSize(instance.getType())
+        + estimateSize(instance.getClassName())
+        + estimateSize(instance.getMethodName());
+  }
+
+  private static long estimateSize(String value) {
+    return value == null ? 0 : stringBytes + 2L * value.length();
+  }
+
+  private void spill() throws IOException {
+    if (buffer.isEmpty()) {
+      return;
+    }
+
+    order.sort(buffer);
+    runs.add(writeRun(buffer.iterator(), buffer.size()));
+
+    buffer.clear();
+    bufferedBytes = 0;
+  }
+
+  // Merges each group of neighbouring runs into one, so that the order of equal bug
+  // instances across runs is kept.
+  private void mergePass() throws IOException {
+    List<Path> merged = new ArrayList<>();
+
+    for (int start = 0; start < runs.size(); start += maximumMergeWidth) {
+      List<Path> group = runs.subList(start, Math.min(start + maximumMergeWidth, runs.size()));
+      List<RunReader> groupReaders = openRuns(group);
+
+      int size = 0;
+
+      for (RunReader reader : groupReaders) {
+        size += reader.size;
+      }
+
+      merged.add(writeRun(new MergeIterator(groupReaders), size));
+
+      for (int i = 0; i < group.size(); i++) {
+        groupReaders.get(i).close();
+        readers.remove(groupReaders.get(i));
+        Files.delete(group.get(i));
+      }
+    }
+
+    runs = merged;
+  }
+
+  private Path writeRun(Iterator<BugInstance> instances, int size) throws IOException {
+    if (directory == null) {
+      directory = Files.createTempDirectory("spotbugs-xml-reader-sort");
+    }
+
+    Path run = Files.createTempFile(directory, "run", ".bin");
+
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(run), bufferSize))) {
+
+      output.writeInt(size);
+
+      while (instances.hasNext()) {
+        BinaryReportCodec.writeRecord(instances.next(), output);
+      }
+
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    return run;
+  }
+
+  private List<RunReader> openRuns(List<Path> paths) throws IOException {
+    List<RunReader> opened = new ArrayList<>(paths.size());
+
+    for (int i = 0; i < paths.size(); i++) {
+      RunReader reader = new RunReader(paths.get(i), i);
+      readers.add(reader);
+      opened.add(reader);
+    }
+
+    return opened;
+  }
+
+  /**
+   * Delete the runs written to disk.
+   *
+   * @throws IOException Thrown if a run could not be closed or deleted.
+   */
+  @Override
+  public void close() throws IOException {
+    for (RunReader reader : readers) {
+      reader.close();
+    }
+
+    readers.clear();
+
+    if (directory == null) {
+      return;
+    }
+
+    // Runs part way through being merged may not be in `runs`, so everything in the
+    // directory is deleted.
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path entry : entries) {
+        Files.deleteIfExists(entry);
+      }
+    }
+
+    Files.deleteIfExists(directory);
+
+    runs.clear();
+    directory = null;
+  }
+
+  private static final class RunReader implements Closeable {
+    private final DataInputStream input;
+    private final int index;
+    private final int size;
+
+    private int remaining;
+    private BugInstance current;
+
+    RunReader(Path path, int index) throws IOException {
+      this.input = new DataInputStream(
+          new BufferedInputStream(Files.newInputStream(path), bufferSize)
+      );
+
+      this.index = index;
+
+      try {
+        this.size = input.readInt();
+      } catch (IOException e) {
+        input.close();
+        throw e;
+      }
+
+      this.remaining = size;
+    }
+
+    // Read the next bug instance into `current`, returning `false` at the end of the run.
+    boolean advance() throws IOException {
+      if (remaining == 0) {
+        current = null;
+        return false;
+      }
+
+      current = BinaryReportCodec.readRecord(input);
+      remaining--;
+
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+  }
+
+  private final class MergeIterator implements Iterator<BugInstance> {
+    private final PriorityQueue<RunReader> heap;
+
+    MergeIterator(List<RunReader> runReaders) throws IOException {
+      // Equal bug instances are taken from the earliest run.
+      Comparator<BugInstance> comparator = order.getComparator();
+      Comparator<RunReader> byCurrent = (a, b) -> comparator.compare(a.current, b.current);
+      heap = new PriorityQueue<>(
+          Math.max(1, runReaders.size()),
+          byCurrent.thenComparingInt(reader -> reader.index)
+      );
+
+      for (RunReader reader : runReaders) {
+        if (reader.advance()) {
+          heap.add(reader);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heap.isEmpty();
+    }
+
+    @Override
+    public BugInstance next() {
+      RunReader reader = heap.poll();
+
+      if (reader == null) {
+        throw new NoSuchElementException();
+      }
+
+      BugInstance instance = reader.current;
+
+      try {
+        if (reader.advance()) {
+          heap.add(reader);
+        }
+
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      return instance;
+    }
+  }
+}
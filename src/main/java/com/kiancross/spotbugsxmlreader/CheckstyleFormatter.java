@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Writes a Checkstyle XML report, with an `error` element per bug instance.
+ *
+ * <p>Consecutive bug instances in the same file share a `file` element. Bug instances
+ * in a file which has already been closed open a second `file` element with the same
+ * name, which is accepted by tools reading this format. The format has no way to
+ * represent fixed findings, so they are left out.
+ */
+final class CheckstyleFormatter implements ReportFormatter {
+  private static final String sourcePrefix = "spotbugs.";
+
+  private final OutputSink output;
+  private final int severityThreshold;
+
+  private String currentFile;
+  private boolean inFile;
+
+  CheckstyleFormatter(OutputSink output, int severityThreshold) {
+    this.output = output;
+    this.severityThreshold = severityThreshold;
+  }
+
+  @Override
+  public void begin() throws IOException {
+    output.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").newLine();
+    output.append("<checkstyle version=\"4.3\">").newLine();
+  }
+
+  @Override
+  public void write(BugInstance instance) throws IOException {
+    String file = instance.getSourcePath();
+
+    if (!inFile || !Objects.equals(file, currentFile)) {
+      closeFile();
+
+      output.append("<file name=\"");
+      appendEscaped(file);
+      output.append("\">").newLine();
+
+      currentFile = file;
+      inFile = true;
+    }
+
+    output.append("<error line=\"");
+    output.append(Integer.toString(instance.getStartLine()));
+    output.append("\" severity=\"");
+    output.append(instance.isError(severityThreshold) ? "error" : "warning");
+    output.append("\" message=\"");
+    appendEscaped(instance.getMessage());
+    output.append("\" source=\"").append(sourcePrefix);
+    appendEscaped(instance.getType());
+    output.append("\"/>").newLine();
+  }
+
+  @Override
+  public void writeFixed(BugInstance instance) {
+  }
+
+  @Override
+  public void end() throws IOException {
+    closeFile();
+    output.append("</checkstyle>").newLine();
+  }
+
+  private void closeFile() throws IOException {
+    if (inFile) {
+      output.append("</file>").newLine();
+      inFile = false;
+    }
+  }
+
+  // Escapes text for use in an attribute value. Characters which XML 1.0 cannot
+  // represent are replaced.
+  private void appendEscaped(String text) throws IOException {
+    if (text == null) {
+      return;
+    }
+
+    int start = 0;
+
+    for (int i = 0; i < text.length(); i++) {
+      char character = text.charAt(i);
+      String replacement;
+
+      switch (character) {
+        case '&':
+          replacement = "&amp;";
+          break;
+
+        case '<':
+          replacement = "&lt;";
+          break;
+
+        case '>':
+          replacement = "&gt;";
+          break;
+
+        case '"':
+          replacement = "&quot;";
+          break;
+
+        case '\t':
+          replacement = "&#9;";
+          break;
+
+        case '\n':
+          replacement = "&#10;";
+          break;
+
+        case '\r':
+          replacement = "&#13;";
+          break;
+
+        default:
+          if (character >= 0x20 && character != 0xfffe && character != 0xffff) {
+            continue;
+          }
+
+          replacement = "\ufffd";
+      }
+
+      output.append(text, start, i).append(replacement);
+      start = i + 1;
+    }
+
+    output.append(text, start, text.length());
+  }
+}
@@ -4,6 +4,15 @@
 
 package com.kiancross.spotbugsxmlreader;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -15,7 +24,27 @@ import org.apache.commons.cli.ParseException;
 public class CommandLineInterface {
     
   private static final int defaultErrorThreshold = 2;
+  private static final int defaultParallelism = 1;
+  private static final long bytesPerMegabyte = 1024 * 1024;
+  private static final int defaultPort = 8765;
+  private static final int maximumPort = 65535;
+  private static final String serveCommand = "serve";
+
+  // Options which only affect parsing reports in full, so have no effect when watching.
+  private static final List<String> fullParseOnlyOptions = Arrays.asList(
+      "streaming", "parallelism", "cache-dir", "cache-size", "stats"
+  );
+
+  // Options which only affect printing the report, so have no effect when serving.
+  private static final List<String> printOnlyOptions = Arrays.asList(
+      "output", "baseline", "format", "sort-by", "group-by", "summary", "watch"
+  );
+
+  private static final int maximumPriority = 3;
+  private static final int defaultTopFiles = 10;
   private CommandLine commandLine;
+  private List<String> arguments;
+  private List<String> reportPatterns;
   private Options primaryOptions;
   private Options secondaryOptions;
 
@@ -45,15 +74,37 @@ public class CommandLineInterface {
     try {
       commandLine = parser.parse(primaryOptions, args, true);
 
-      if (commandLine.getOptions().length > 0) {
-        return;
+      if (commandLine.getOptions().length == 0) {
+        commandLine = parser.parse(secondaryOptions, args);
       }
 
-      commandLine = parser.parse(secondaryOptions, args);
-
     } catch (ParseException e) {
       throw new CommandLineInterfaceException(e.getMessage());
     }
+
+    splitCommand();
+  }
+
+  // `file` takes any number of values, so a command given after it, as in
+  // `-f report.xml serve`, is read as one of its values. A value which is exactly the
+  // command is taken to be the command rather than a report path.
+  private void splitCommand() {
+    arguments = new ArrayList<>(commandLine.getArgList());
+    reportPatterns = new ArrayList<>();
+
+    String[] values = commandLine.getOptionValues("f");
+
+    if (values == null) {
+      return;
+    }
+
+    for (String value : values) {
+      if (value.equals(serveCommand)) {
+        arguments.add(value);
+      } else {
+        reportPatterns.add(value);
+      }
+    }
   }
 
   /**
@@ -62,12 +113,13 @@ public class CommandLineInterface {
   public void printHelp() {
     HelpFormatter formatter = new HelpFormatter();
 
-    String header = "Display a SpotBugs XML report on the command line.\n\n";
+    String header = "Display a SpotBugs XML report on the command line. Use the `serve` "
+                    + "command to answer queries about the report over HTTP instead.\n\n";
 
     String footer = "\n\nPlease report issues at "
                     + "https://github.com/kiancross/spotbugs-xml-reader/issues";
 
-    formatter.printHelp("spotbugs-xml-reader", header, secondaryOptions, footer, true);
+    formatter.printHelp("spotbugs-xml-reader [serve]", header, secondaryOptions, footer, true);
   }
 
   public boolean shouldDisplayHelp() {
@@ -105,7 +157,488 @@ public class CommandLineInterface {
   }
   
   public String getReportPath() {
-    return commandLine.getOptionValue("f");
+    return reportPatterns.isEmpty() ? null : reportPatterns.get(0);
+  }
+
+  /**
+   * Gets the paths of all reports, with any glob patterns expanded. Paths are returned in
+   * the order given, with the matches of each pattern sorted, and duplicates removed.
+   *
+   * @return The report paths.
+   *
+   * @throws CommandLineInterfaceException Thrown if no patterns were given, or a pattern
+   *                                       does not match any files.
+   */
+  public List<String> getReportPaths() throws CommandLineInterfaceException {
+    if (reportPatterns.isEmpty()) {
+      throw new CommandLineInterfaceException("Missing argument for option: %s", "f");
+    }
+
+    Set<String> paths = new LinkedHashSet<>();
+
+    for (String pattern : reportPatterns) {
+      try {
+        List<String> matches = GlobExpander.expand(pattern);
+
+        if (matches.isEmpty()) {
+          throw new CommandLineInterfaceException("No reports match `%s`", pattern);
+        }
+
+        paths.addAll(matches);
+
+      } catch (IOException e) {
+        throw new CommandLineInterfaceException("Unable to expand `%s`: %s", pattern,
+            e.getMessage());
+      }
+    }
+
+    return new ArrayList<>(paths);
+  }
+
+  public String getOutputPath() {
+    return commandLine.getOptionValue("o");
+  }
+
+  public String getBaselinePath() {
+    return commandLine.getOptionValue("b");
+  }
+
+  public String getCacheDirectory() {
+    return commandLine.getOptionValue("c");
+  }
+
+  /**
+   * Gets the maximum size of the report cache in bytes (using the default if none is
+   * set).
+   *
+   * @return The maximum cache size.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given value is invalid (e.g. not a
+   *                                       non-negative integer).
+   */
+  public long getCacheSize() throws CommandLineInterfaceException {
+    return getMegabytesOption("cache-size", ReportCache.defaultMaximumSize, 0);
+  }
+
+  /**
+   * Gets the order to sort findings in, if sorting was requested.
+   *
+   * @return The order, or `null` to output findings in document order.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given order is unknown, or
+   *                                       combined with `summary`.
+   */
+  public SortOrder getSortOrder() throws CommandLineInterfaceException {
+    String order = commandLine.getOptionValue("sort-by");
+
+    if (order == null) {
+      return null;
+    }
+
+    if (commandLine.hasOption("summary")) {
+      throw new CommandLineInterfaceException("`sort-by` cannot be used with `summary`");
+    }
+
+    try {
+      return SortOrder.valueOf(order.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `sort-by`");
+    }
+  }
+
+  /**
+   * Gets what to group findings by, if grouping was requested.
+   *
+   * @return The attribute, or `null` not to group findings.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given attribute is unknown, or
+   *                                       combined with `summary`.
+   */
+  public GroupBy getGroupBy() throws CommandLineInterfaceException {
+    String group = commandLine.getOptionValue("group-by");
+
+    if (group == null) {
+      return null;
+    }
+
+    if (commandLine.hasOption("summary")) {
+      throw new CommandLineInterfaceException("`group-by` cannot be used with `summary`");
+    }
+
+    try {
+      return GroupBy.valueOf(group.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `group-by`");
+    }
+  }
+
+  /**
+   * Gets the memory budget in bytes for findings held while sorting (using no limit if
+   * none is set).
+   *
+   * @return The memory budget.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given value is invalid (e.g. not a
+   *                                       positive integer), or given without `sort-by`
+   *                                       or `group-by`.
+   */
+  public long getMaxMemory() throws CommandLineInterfaceException {
+    if (commandLine.hasOption("max-memory")
+        && !commandLine.hasOption("sort-by")
+        && !commandLine.hasOption("group-by")) {
+
+      throw new CommandLineInterfaceException("`max-memory` requires `sort-by` or `group-by`");
+    }
+
+    // Smaller budgets would write a temporary file for every few findings.
+    return getMegabytesOption("max-memory", BugInstanceSorter.unlimited, 1);
+  }
+
+  private long getMegabytesOption(String name, long defaultBytes, long minimumMegabytes)
+      throws CommandLineInterfaceException {
+
+    String value = commandLine.getOptionValue(name);
+
+    if (value == null) {
+      return defaultBytes;
+    }
+
+    try {
+      long megabytes = Long.parseLong(value);
+
+      if (megabytes < minimumMegabytes || megabytes > Long.MAX_VALUE / bytesPerMegabyte) {
+        throw new NumberFormatException();
+      }
+
+      return megabytes * bytesPerMegabyte;
+
+    } catch (NumberFormatException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `%s`", name);
+    }
+  }
+
+  /**
+   * Determines whether the `serve` command was given.
+   *
+   * @return Whether to serve queries rather than print the report.
+   *
+   * @throws CommandLineInterfaceException Thrown if an unknown command was given, or
+   *                                       `serve` was combined with an option which
+   *                                       only affects printing the report, or with
+   *                                       `stats`.
+   */
+  public boolean shouldServe() throws CommandLineInterfaceException {
+    if (arguments.isEmpty()) {
+      return false;
+    }
+
+    if (arguments.size() == 1 && arguments.get(0).equals(serveCommand)) {
+      for (String option : printOnlyOptions) {
+        if (commandLine.hasOption(option)) {
+          throw new CommandLineInterfaceException(
+              "`%s` cannot be used with `%s`", option, serveCommand
+          );
+        }
+      }
+
+      // Statistics are written once the report has been printed, which never happens.
+      if (commandLine.hasOption("stats")) {
+        throw new CommandLineInterfaceException(
+            "`%s` cannot be used with `%s`", "stats", serveCommand
+        );
+      }
+
+      return true;
+    }
+
+    throw new CommandLineInterfaceException("Unknown command `%s`", String.join(" ", arguments));
+  }
+
+  /**
+   * Gets the port to serve queries on (using the default if none is set).
+   *
+   * @return The port.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given port is invalid.
+   */
+  public int getPort() throws CommandLineInterfaceException {
+    String port = commandLine.getOptionValue("port");
+
+    if (port == null) {
+      return defaultPort;
+    }
+
+    try {
+      int value = Integer.parseInt(port);
+
+      if (value < 0 || value > maximumPort) {
+        throw new NumberFormatException();
+      }
+
+      return value;
+
+    } catch (NumberFormatException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `port`");
+    }
+  }
+
+  /**
+   * Gets the filter deciding which findings are output, built from the `include-*`,
+   * `exclude-*` and `max-priority` options.
+   *
+   * @return The filter, which accepts all findings if none of the options are set.
+   *
+   * @throws CommandLineInterfaceException Thrown if the maximum priority is invalid, or
+   *                                       the exclude filter file does not exist.
+   *
+   * @throws ParserException Thrown if the exclude filter file is invalid.
+   */
+  public BugInstanceFilter getFilter() throws CommandLineInterfaceException, ParserException {
+    BugInstanceFilter.Builder builder = BugInstanceFilter.builder();
+
+    for (String category : getListOptionValues("include-category")) {
+      builder.includeCategory(category);
+    }
+
+    for (String category : getListOptionValues("exclude-category")) {
+      builder.excludeCategory(category);
+    }
+
+    for (String type : getListOptionValues("include-type")) {
+      builder.includeType(type);
+    }
+
+    for (String type : getListOptionValues("exclude-type")) {
+      builder.excludeType(type);
+    }
+
+    for (String glob : getOptionValues("include-path")) {
+      try {
+        builder.includePath(glob);
+      } catch (PatternSyntaxException e) {
+        throw new CommandLineInterfaceException("Invalid argument for `include-path`");
+      }
+    }
+
+    for (String glob : getOptionValues("exclude-path")) {
+      try {
+        builder.excludePath(glob);
+      } catch (PatternSyntaxException e) {
+        throw new CommandLineInterfaceException("Invalid argument for `exclude-path`");
+      }
+    }
+
+    String priority = commandLine.getOptionValue("max-priority");
+
+    if (priority != null) {
+      try {
+        int value = Integer.parseInt(priority);
+
+        if (value < 1 || value > maximumPriority) {
+          throw new NumberFormatException();
+        }
+
+        builder.setMaximumPriority(value);
+
+      } catch (NumberFormatException e) {
+        throw new CommandLineInterfaceException("Invalid argument for `max-priority`");
+      }
+    }
+
+    for (String path : getOptionValues("exclude-filter")) {
+      try {
+        builder.excludeFilter(path);
+      } catch (FileNotFoundException e) {
+        throw new CommandLineInterfaceException(e.getMessage());
+      }
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Gets the format to summarise the report in, if a summary was requested.
+   *
+   * @return The format, or `null` if every finding should be output instead.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given format is unknown.
+   */
+  public ReportSummary.Format getSummaryFormat() throws CommandLineInterfaceException {
+    if (!commandLine.hasOption("summary")) {
+      return null;
+    }
+
+    String format = commandLine.getOptionValue("summary");
+
+    if (format == null) {
+      return ReportSummary.Format.TABLE;
+    }
+
+    try {
+      return ReportSummary.Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `summary`");
+    }
+  }
+
+  /**
+   * Gets the format to write pipeline statistics in, if statistics were requested.
+   *
+   * @return The format, or `null` if no statistics should be written.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given format is unknown.
+   */
+  public ReportSummary.Format getStatsFormat() throws CommandLineInterfaceException {
+    if (!commandLine.hasOption("stats")) {
+      return null;
+    }
+
+    String format = commandLine.getOptionValue("stats");
+
+    if (format == null) {
+      return ReportSummary.Format.TABLE;
+    }
+
+    try {
+      return ReportSummary.Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `stats`");
+    }
+  }
+
+  /**
+   * Gets the format to output findings in (using the default if none is set).
+   *
+   * @return The format.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given format is unknown, or
+   *                                       combined with `summary`.
+   */
+  public OutputFormat getOutputFormat() throws CommandLineInterfaceException {
+    String format = commandLine.getOptionValue("format");
+
+    if (format == null) {
+      return OutputFormat.TEXT;
+    }
+
+    if (commandLine.hasOption("summary")) {
+      throw new CommandLineInterfaceException("`format` cannot be used with `summary`");
+    }
+
+    try {
+      return OutputFormat.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `format`");
+    }
+  }
+
+  /**
+   * Gets the number of files to list in a summary (using the default if none is set).
+   *
+   * @return The number of files.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given value is invalid (e.g. not a
+   *                                       non-negative integer).
+   */
+  public int getTopFiles() throws CommandLineInterfaceException {
+    String topFiles = commandLine.getOptionValue("top");
+
+    if (topFiles == null) {
+      return defaultTopFiles;
+    }
+
+    try {
+      int value = Integer.parseInt(topFiles);
+
+      if (value < 0) {
+        throw new NumberFormatException();
+      }
+
+      return value;
+
+    } catch (NumberFormatException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `top`");
+    }
+  }
+
+  /**
+   * Determines whether to watch the reports, printing them again whenever they change.
+   *
+   * @return Whether to watch the reports.
+   *
+   * @throws CommandLineInterfaceException Thrown if watching was combined with an option
+   *                                       which has no effect when watching.
+   */
+  public boolean shouldWatch() throws CommandLineInterfaceException {
+    if (!commandLine.hasOption("w")) {
+      return false;
+    }
+
+    for (String option : fullParseOnlyOptions) {
+      if (commandLine.hasOption(option)) {
+        throw new CommandLineInterfaceException("`%s` cannot be used with `watch`", option);
+      }
+    }
+
+    return true;
+  }
+
+  public boolean shouldUseStreamingParser() {
+    return commandLine.hasOption("s");
+  }
+
+  /**
+   * Gets the number of threads to convert bug instances with (using the default if
+   * none is set).
+   *
+   * @return The parallelism.
+   *
+   * @throws CommandLineInterfaceException Thrown if the given value is invalid (e.g. not a
+   *                                       positive integer, or combined with streaming).
+   */
+  public int getParallelism() throws CommandLineInterfaceException {
+    String parallelism = commandLine.getOptionValue("p");
+
+    if (parallelism == null) {
+      return defaultParallelism;
+    }
+
+    if (shouldUseStreamingParser()) {
+      throw new CommandLineInterfaceException("`parallelism` cannot be used with `streaming`");
+    }
+
+    try {
+      int threads = Integer.parseInt(parallelism);
+
+      if (threads < 1) {
+        throw new NumberFormatException();
+      }
+
+      return threads;
+
+    } catch (NumberFormatException e) {
+      throw new CommandLineInterfaceException("Invalid argument for `parallelism`");
+    }
+  }
+
+  private List<String> getOptionValues(String option) {
+    String[] values = commandLine.getOptionValues(option);
+    return values == null ? new ArrayList<>() : Arrays.asList(values);
+  }
+
+  // Values may be given as a comma separated list, as well as by repeating the option.
+  private List<String> getListOptionValues(String option) {
+    List<String> values = new ArrayList<>();
+
+    for (String value : getOptionValues(option)) {
+      for (String item : value.split(",")) {
+        if (!item.trim().isEmpty()) {
+          values.add(item.trim());
+        }
+      }
+    }
+
+    return values;
   }
 
   private Options getPrimaryOptions() {
@@ -129,12 +662,49 @@ public class CommandLineInterface {
 
     options.addOption(Option.builder("f")
         .longOpt("file")
-        .hasArg(true)
+        .hasArgs()
         .argName("path")
-        .desc("Path to XML report generated by SpotBugs.")
+        .desc("Path to XML report generated by SpotBugs, which may be compressed with gzip. "
+              + "Use `-` to read from standard input. Several paths or glob patterns may be "
+              + "given, in which case the reports are read concurrently and their entries "
+              + "output in the order given.")
         .required()
         .build());
     
+    options.addOption(Option.builder("o")
+        .longOpt("output")
+        .hasArg(true)
+        .argName("path")
+        .desc("Write the report to this file instead of standard output.")
+        .build());
+
+    options.addOption(Option.builder("b")
+        .longOpt("baseline")
+        .hasArg(true)
+        .argName("path")
+        .desc("Compare against a previous report. Only findings which are not in the "
+              + "baseline are output as warnings or errors, and findings which are only in "
+              + "the baseline are output as fixed.")
+        .build());
+
+    options.addOption(Option.builder("c")
+        .longOpt("cache-dir")
+        .hasArg(true)
+        .argName("path")
+        .desc("Cache the findings of each report in this directory, so that unchanged "
+              + "reports are not parsed again.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("cache-size")
+        .hasArg(true)
+        .argName("megabytes")
+        .desc(String.format(
+                "Maximum size of the cache, after which the least recently used reports "
+                + "are evicted. Default: %d.",
+                ReportCache.defaultMaximumSize / bytesPerMegabyte
+        )).build());
+
     options.addOption(Option.builder("t")
         .longOpt("error-threshold")
         .hasArg(true)
@@ -146,6 +716,166 @@ public class CommandLineInterface {
                 defaultErrorThreshold
         )).build());
 
+    options.addOption(Option.builder()
+        .longOpt("include-category")
+        .hasArg(true)
+        .argName("categories")
+        .desc("Only output findings in these categories, separated by commas "
+              + "(e.g. `CORRECTNESS,SECURITY`).")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("exclude-category")
+        .hasArg(true)
+        .argName("categories")
+        .desc("Do not output findings in these categories, separated by commas.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("include-type")
+        .hasArg(true)
+        .argName("types")
+        .desc("Only output findings of these bug types, separated by commas "
+              + "(e.g. `NP_NULL_ON_SOME_PATH`).")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("exclude-type")
+        .hasArg(true)
+        .argName("types")
+        .desc("Do not output findings of these bug types, separated by commas.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("include-path")
+        .hasArg(true)
+        .argName("glob")
+        .desc("Only output findings whose source path, relative to the source directory, "
+              + "matches this glob (e.g. `com/example/**`). May be given more than once.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("exclude-path")
+        .hasArg(true)
+        .argName("glob")
+        .desc("Do not output findings whose relative source path matches this glob. May be "
+              + "given more than once.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("max-priority")
+        .hasArg(true)
+        .argName("priority")
+        .desc("Do not output findings with a priority greater than this value. Possible "
+              + "values are: 1, 2 or 3.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("exclude-filter")
+        .hasArg(true)
+        .argName("path")
+        .desc("Do not output findings matched by this SpotBugs exclude filter file.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("format")
+        .hasArg(true)
+        .argName("format")
+        .desc("Format to output findings in. Possible values are: text, jsonl (one JSON "
+              + "object per line), sarif (SARIF 2.1.0) or checkstyle (Checkstyle XML). "
+              + "Default: text.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("sort-by")
+        .hasArg(true)
+        .argName("order")
+        .desc("Output findings sorted rather than in the order of the report. Possible "
+              + "values are: file (by source path and line), priority (most severe "
+              + "first, then by file) or category (then by file).")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("group-by")
+        .hasArg(true)
+        .argName("attribute")
+        .desc("Output findings grouped by file or category, under a heading for each "
+              + "group in the text format. Findings within a group are ordered by "
+              + "`--sort-by`, or by file.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("max-memory")
+        .hasArg(true)
+        .argName("megabytes")
+        .desc("Maximum memory used to hold findings while sorting or grouping, beyond "
+              + "which they are sorted in runs on disk and merged. Use with `--streaming` to "
+              + "sort reports larger than memory. At least 1. Default: no limit.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("summary")
+        .hasArg(true)
+        .optionalArg(true)
+        .argName("format")
+        .desc("Output counts of findings per category, priority and source directory, and "
+              + "the files with the most findings, instead of every finding. Possible "
+              + "formats are: table or json. Default: table.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("top")
+        .hasArg(true)
+        .argName("count")
+        .desc(String.format(
+                "Number of files listed in the summary. Default: %d.",
+                defaultTopFiles
+        )).build());
+
+    options.addOption(Option.builder()
+        .longOpt("stats")
+        .hasArg(true)
+        .optionalArg(true)
+        .argName("format")
+        .desc("Write the time spent in each stage, bytes read, findings output and "
+              + "filtered, peak heap usage and allocation rate to standard error. Possible "
+              + "formats are: table or json. Default: table. Cannot be used with `serve` "
+              + "or `watch`, which do not finish a run.")
+        .build());
+
+    options.addOption(Option.builder("w")
+        .longOpt("watch")
+        .desc("Keep running, and output the report again whenever it changes. Only the "
+              + "findings which have changed are parsed again, so options which only "
+              + "affect parsing reports in full, such as `streaming`, cannot be used.")
+        .build());
+
+    options.addOption(Option.builder()
+        .longOpt("port")
+        .hasArg(true)
+        .argName("port")
+        .desc(String.format(
+                "Port to serve queries on, on the loopback address only, when using the "
+                + "`serve` command. Use 0 for any free port. Default: %d.",
+                defaultPort
+        )).build());
+
+    options.addOption(Option.builder("s")
+        .longOpt("streaming")
+        .desc("Read the report incrementally rather than loading it into memory in full. "
+              + "Recommended for very large reports.")
+        .build());
+
+    options.addOption(Option.builder("p")
+        .longOpt("parallelism")
+        .hasArg(true)
+        .argName("threads")
+        .desc(String.format(
+                "Number of threads used to convert entries. Cannot be used with "
+                + "`--streaming`. Default: %d.",
+                defaultParallelism
+        )).build());
+
     return options;
   }
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only, memory efficient collection of bug instances.
+ *
+ * <p>Rather than one object per bug instance, values are held in columns. Strings which
+ * repeat, such as categories and source paths, are dictionary encoded, so each distinct
+ * value is stored only once, and line, column and priority are held in primitive arrays.
+ * Messages are nearly all distinct, so instead are encoded as UTF-8 into one shared
+ * buffer, avoiding the object and array headers of a `String` per message. This allows
+ * several large reports to be held in memory at once.
+ *
+ * <p>Values are accessed by index, using the same accessors as {@link BugInstance}.
+ * Individual {@link BugInstance}s can still be retrieved, but are created on demand.
+ */
+public class CompactBugInstanceStore implements Iterable<BugInstance> {
+  private static final int initialCapacity = 1024;
+
+  // Used while adding bug instances, after which each is replaced by its values.
+  private StringDictionary categoryDictionary = new StringDictionary();
+  private StringDictionary sourcePathDictionary = new StringDictionary();
+  private StringDictionary typeDictionary = new StringDictionary();
+  private StringDictionary classNameDictionary = new StringDictionary();
+  private StringDictionary methodNameDictionary = new StringDictionary();
+  private StringDictionary relativeSourcePathDictionary = new StringDictionary();
+
+  private String[] categories;
+  private String[] sourcePaths;
+  private String[] types;
+  private String[] classNames;
+  private String[] methodNames;
+  private String[] relativeSourcePaths;
+
+  // The message of bug instance `i` is held in `messageBytes` from the end of the message
+  // before it (or zero) to `messageEnds[i]`.
+  private byte[] messageBytes = new byte[initialCapacity * 64];
+  private int messageBytesLength;
+  private int[] messageEnds = new int[initialCapacity];
+  private final BitSet nullMessages = new BitSet();
+
+  private int[] categoryIds = new int[initialCapacity];
+  private int[] sourcePathIds = new int[initialCapacity];
+  private int[] typeIds = new int[initialCapacity];
+  private int[] classNameIds = new int[initialCapacity];
+  private int[] methodNameIds = new int[initialCapacity];
+  private int[] relativeSourcePathIds = new int[initialCapacity];
+  private int[] startLines = new int[initialCapacity];
+  private int[] startColumns = new int[initialCapacity];
+  private int[] priorities = new int[initialCapacity];
+
+  private int size;
+
+  private CompactBugInstanceStore() {
+  }
+
+  /**
+   * Construct a store containing every remaining bug instance from an iterator, such as
+   * {@link ReportParser#iterator()}.
+   *
+   * @param instances Bug instances to store, in order.
+   *
+   * @return The store.
+   */
+  public static CompactBugInstanceStore from(Iterator<BugInstance> instances) {
+    CompactBugInstanceStore store = new CompactBugInstanceStore();
+
+    while (instances.hasNext()) {
+      store.add(instances.next());
+    }
+
+    store.trimToSize();
+    store.freezeDictionaries();
+
+    return store;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public String getMessage(int index) {
+    checkIndex(index);
+
+    if (nullMessages.get(index)) {
+      return null;
+    }
+
+    int start = index == 0 ? 0 : messageEnds[index - 1];
+    return new String(messageBytes, start, messageEnds[index] - start, StandardCharsets.UTF_8);
+  }
+
+  public String getSourcePath(int index) {
+    return sourcePaths[sourcePathIds[checkIndex(index)]];
+  }
+
+  public String getCategory(int index) {
+    return categories[categoryIds[checkIndex(index)]];
+  }
+
+  public String getType(int index) {
+    return types[typeIds[checkIndex(index)]];
+  }
+
+  public String getClassName(int index) {
+    return classNames[classNameIds[checkIndex(index)]];
+  }
+
+  public String getMethodName(int index) {
+    return methodNames[methodNameIds[checkIndex(index)]];
+  }
+
+  public String getRelativeSourcePath(int index) {
+    return relativeSourcePaths[relativeSourcePathIds[checkIndex(index)]];
+  }
+
+  public int getStartLine(int index) {
+    return startLines[checkIndex(index)];
+  }
+
+  public int getStartColumn(int index) {
+    return startColumns[checkIndex(index)];
+  }
+
+  public int getPriority(int index) {
+    return priorities[checkIndex(index)];
+  }
+
+  public boolean isError(int index, int thresholdSeverity) {
+    return getPriority(index) <= thresholdSeverity;
+  }
+
+  /**
+   * Create a {@link BugInstance} holding the values at the given index.
+   *
+   * @param index Index of the bug instance.
+   *
+   * @return A new {@link BugInstance}.
+   */
+  public BugInstance get(int index) {
+    BugInstance instance = new BugInstance();
+
+    instance.setMessage(getMessage(index));
+    instance.setSourcePath(getSourcePath(index));
+    instance.setCategory(getCategory(index));
+    instance.setType(getType(index));
+    instance.setClassName(getClassName(index));
+    instance.setMethodName(getMethodName(index));
+    instance.setRelativeSourcePath(getRelativeSourcePath(index));
+    instance.setStartLine(getStartLine(index));
+    instance.setStartColumn(getStartColumn(index));
+    instance.setPriority(getPriority(index));
+
+    return instance;
+  }
+
+  /**
+   * Get an iterator which creates each {@link BugInstance} as it is requested.
+   *
+   * @return Iterator over the stored bug instances, in the order they were added.
+   */
+  @Override
+  public Iterator<BugInstance> iterator() {
+    return new Iterator<BugInstance>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public BugInstance next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        return get(index++);
+      }
+    };
+  }
+
+  private void add(BugInstance instance) {
+    if (size == priorities.length) {
+      resize(Math.max(initialCapacity, size * 2));
+    }
+
+    addMessage(instance.getMessage());
+    categoryIds[size] = categoryDictionary.add(instance.getCategory());
+    sourcePathIds[size] = sourcePathDictionary.add(instance.getSourcePath());
+    typeIds[size] = typeDictionary.add(instance.getType());
+    classNameIds[size] = classNameDictionary.add(instance.getClassName());
+    methodNameIds[size] = methodNameDictionary.add(instance.getMethodName());
+    relativeSourcePathIds[size] =
+        relativeSourcePathDictionary.add(instance.getRelativeSourcePath());
+    startLines[size] = instance.getStartLine();
+    startColumns[size] = instance.getStartColumn();
+    priorities[size] = instance.getPriority();
+
+    size++;
+  }
+
+  private void addMessage(String message) {
+    if (message == null) {
+      nullMessages.set(size);
+
+    } else {
+      byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+      int length = Math.addExact(messageBytesLength, bytes.length);
+
+      if (length > messageBytes.length) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(length,
+            2L * messageBytes.length));
+        messageBytes = Arrays.copyOf(messageBytes, capacity);
+      }
+
+      System.arraycopy(bytes, 0, messageBytes, messageBytesLength, bytes.length);
+      messageBytesLength = length;
+    }
+
+    messageEnds[size] = messageBytesLength;
+  }
+
+  private void trimToSize() {
+    resize(size);
+    messageBytes = Arrays.copyOf(messageBytes, messageBytesLength);
+  }
+
+  // Keeps only the values of each dictionary, so that their maps can be collected.
+  private void freezeDictionaries() {
+    categories = categoryDictionary.toArray();
+    sourcePaths = sourcePathDictionary.toArray();
+    types = typeDictionary.toArray();
+    classNames = classNameDictionary.toArray();
+    methodNames = methodNameDictionary.toArray();
+    relativeSourcePaths = relativeSourcePathDictionary.toArray();
+
+    categoryDictionary = null;
+    sourcePathDictionary = null;
+    typeDictionary = null;
+    classNameDictionary = null;
+    methodNameDictionary = null;
+    relativeSourcePathDictionary = null;
+  }
+
+  private void resize(int capacity) {
+    messageEnds = Arrays.copyOf(messageEnds, capacity);
+    categoryIds = Arrays.copyOf(categoryIds, capacity);
+    sourcePathIds = Arrays.copyOf(sourcePathIds, capacity);
+    typeIds = Arrays.copyOf(typeIds, capacity);
+    classNameIds = Arrays.copyOf(classNameIds, capacity);
+    methodNameIds = Arrays.copyOf(methodNameIds, capacity);
+    relativeSourcePathIds = Arrays.copyOf(relativeSourcePathIds, capacity);
+    startLines = Arrays.copyOf(startLines, capacity);
+    startColumns = Arrays.copyOf(startColumns, capacity);
+    priorities = Arrays.copyOf(priorities, capacity);
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          String.format("Index %d out of bounds for length %d", index, size)
+      );
+    }
+
+    return index;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Expands glob patterns, such as `build/**&#47;spotbugsMain.xml`, into the files they
+ * match.
+ *
+ * <p>Only the directory tree below the part of the pattern without wildcards is
+ * searched, and no deeper than the pattern could match.
+ */
+final class GlobExpander {
+  private static final String wildcards = "*?[{";
+
+  private GlobExpander() {
+  }
+
+  static boolean isGlob(String pattern) {
+    for (int i = 0; i < pattern.length(); i++) {
+      if (wildcards.indexOf(pattern.charAt(i)) >= 0) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Get the regular files matching a pattern, in lexicographic order. A pattern without
+   * any wildcards is returned as is, whether or not it exists.
+   */
+  static List<String> expand(String pattern) throws IOException {
+    if (!isGlob(pattern)) {
+      return Collections.singletonList(pattern);
+    }
+
+    int baseLength = getBaseLength(pattern);
+
+    Path base = Paths.get(pattern.substring(0, baseLength));
+    String remainder = pattern.substring(baseLength);
+
+    if (!Files.isDirectory(base)) {
+      return Collections.emptyList();
+    }
+
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+
+    try (Stream<Path> paths = Files.walk(base, getMaximumDepth(remainder))) {
+      return paths
+          .filter(path -> matcher.matches(path) && Files.isRegularFile(path))
+          .map(Path::toString)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  // Length of the leading directories which contain no wildcards.
+  private static int getBaseLength(String pattern) {
+    int baseLength = 0;
+
+    for (int i = 0; i < pattern.length(); i++) {
+      char character = pattern.charAt(i);
+
+      if (wildcards.indexOf(character) >= 0) {
+        break;
+
+      } else if (character == '/' || character == File.separatorChar) {
+        baseLength = i + 1;
+      }
+    }
+
+    return baseLength;
+  }
+
+  private static int getMaximumDepth(String remainder) {
+    if (remainder.contains("**")) {
+      return Integer.MAX_VALUE;
+    }
+
+    int depth = 1;
+
+    for (int i = 0; i < remainder.length(); i++) {
+      char character = remainder.charAt(i);
+
+      if (character == '/' || character == File.separatorChar) {
+        depth++;
+      }
+    }
+
+    return depth;
+  }
+}
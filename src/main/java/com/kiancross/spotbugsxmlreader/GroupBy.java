@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * The attributes bug instances can be grouped by in the output.
+ */
+public enum GroupBy {
+  /**
+   * By source path.
+   */
+  FILE(BugInstance::getSourcePath),
+
+  /**
+   * By category.
+   */
+  CATEGORY(BugInstance::getCategory);
+
+  private final Function<BugInstance, String> key;
+
+  GroupBy(Function<BugInstance, String> key) {
+    this.key = key;
+  }
+
+  /**
+   * Get the value a bug instance is grouped on.
+   *
+   * @param instance The bug instance.
+   *
+   * @return The value, or `null` if the bug instance does not have one.
+   */
+  public String getKey(BugInstance instance) {
+    return key.apply(instance);
+  }
+
+  public Comparator<BugInstance> getComparator() {
+    return Comparator.comparing(key, SortOrder.nullsFirst());
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Writes a heading before the first bug instance of each group, for bug instances which
+ * have already been sorted into groups. Groups are separated by an empty line.
+ */
+final class GroupHeadingFormatter implements ReportFormatter {
+  private static final String missingKey = "(none)";
+
+  private final ReportFormatter formatter;
+  private final GroupBy group;
+  private final OutputSink output;
+
+  private boolean started;
+  private String currentKey;
+
+  GroupHeadingFormatter(ReportFormatter formatter, GroupBy group, OutputSink output) {
+    this.formatter = formatter;
+    this.group = group;
+    this.output = output;
+  }
+
+  @Override
+  public void begin() throws IOException {
+    formatter.begin();
+  }
+
+  @Override
+  public void write(BugInstance instance) throws IOException {
+    writeHeading(instance);
+    formatter.write(instance);
+  }
+
+  @Override
+  public void writeFixed(BugInstance instance) throws IOException {
+    writeHeading(instance);
+    formatter.writeFixed(instance);
+  }
+
+  @Override
+  public void end() throws IOException {
+    formatter.end();
+  }
+
+  private void writeHeading(BugInstance instance) throws IOException {
+    String key = group.getKey(instance);
+
+    if (started && Objects.equals(key, currentKey)) {
+      return;
+    }
+
+    if (started) {
+      output.newLine();
+    }
+
+    output.append(key == null ? missingKey : key).newLine();
+
+    started = true;
+    currentKey = key;
+  }
+}
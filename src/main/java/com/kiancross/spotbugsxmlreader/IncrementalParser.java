@@ -0,0 +1,645 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * A parser which re-parses a report that changes over time, converting only the
+ * `BugInstance` elements which have changed since the previous parse.
+ *
+ * <p>Each parse locates the byte range of every `BugInstance` element and computes a
+ * digest of its bytes. Elements whose digest matches an element from the previous
+ * parse reuse the previous {@link BugInstance}. The remaining elements are parsed
+ * together, as a single document made up of the report header, the changed elements and
+ * the closing tag, using a {@link StreamingParser}.
+ *
+ * <p>If the `Project` element changes, every element is converted again, as source
+ * paths may now resolve differently, and so every bug instance is reported as removed
+ * and added again. Other changes to the report header do not affect conversion, and are
+ * ignored. Unchanged parts of the report are not checked for syntax errors.
+ *
+ * <p>Comments, CDATA sections and processing instructions are skipped when locating
+ * elements. Reports which are not encoded in UTF-8 or ASCII, or in which an element
+ * located this way does not parse as exactly one `BugInstance`, are instead parsed in
+ * full, and every bug instance is reported as removed and added again.
+ *
+ * <p>If detail is captured, each converted bug instance keeps the report it was parsed
+ * from, and its detail is read by parsing its element again when first requested.
+ *
+ * <p>Instances are not thread safe.
+ */
+public class IncrementalParser {
+  private static final byte[] bugInstanceStartTag = ascii("<BugInstance");
+  private static final byte[] bugInstanceEndTag = ascii("</BugInstance>");
+  private static final byte[] projectStartTag = ascii("<Project");
+  private static final byte[] projectEndTag = ascii("</Project>");
+  private static final byte[] closingTagStart = ascii("</");
+  private static final byte[] commentStart = ascii("<!--");
+  private static final byte[] commentEnd = ascii("-->");
+  private static final byte[] cdataStart = ascii("<![CDATA[");
+  private static final byte[] cdataEnd = ascii("]]>");
+  private static final byte[] processingInstructionStart = ascii("<?");
+  private static final byte[] processingInstructionEnd = ascii("?>");
+  private static final byte[] utf8ByteOrderMark = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+  private static final byte[] xmlDeclarationStart = ascii("<?xml");
+
+  private static final Pattern encodingPattern = Pattern.compile(
+      "\\sencoding\\s*=\\s*[\"']([^\"']*)[\"']"
+  );
+  private static final Set<String> scannableEncodings = Set.of("UTF-8", "US-ASCII", "ASCII");
+
+  /**
+   * The bug instances of a report, and how they differ from the previous parse.
+   */
+  public static class Update {
+    private final List<BugInstance> bugInstances;
+    private final List<BugInstance> addedBugInstances;
+    private final List<BugInstance> removedBugInstances;
+
+    private Update(
+        List<BugInstance> bugInstances,
+        List<BugInstance> addedBugInstances,
+        List<BugInstance> removedBugInstances
+    ) {
+      this.bugInstances = bugInstances;
+      this.addedBugInstances = addedBugInstances;
+      this.removedBugInstances = removedBugInstances;
+    }
+
+    /**
+     * Get every bug instance in the report, in document order.
+     *
+     * @return The bug instances.
+     */
+    public List<BugInstance> getBugInstances() {
+      return bugInstances;
+    }
+
+    /**
+     * Get the bug instances which were not in the report when it was last parsed.
+     *
+     * @return The added bug instances, in document order.
+     */
+    public List<BugInstance> getAddedBugInstances() {
+      return addedBugInstances;
+    }
+
+    /**
+     * Get the bug instances which were in the report when it was last parsed, but no
+     * longer are.
+     *
+     * @return The removed bug instances, in their previous document order.
+     */
+    public List<BugInstance> getRemovedBugInstances() {
+      return removedBugInstances;
+    }
+
+    public boolean hasChanges() {
+      return !addedBugInstances.isEmpty() || !removedBugInstances.isEmpty();
+    }
+  }
+
+  // A `BugInstance` element, identified by the digest of its bytes.
+  static final class Fragment {
+    final int start;
+    final int end;
+    final ByteBuffer digest;
+    BugInstance instance;
+
+    Fragment(int start, int end, ByteBuffer digest) {
+      this.start = start;
+      this.end = end;
+      this.digest = digest;
+    }
+  }
+
+  private final MessageDigest messageDigest;
+
+  private ByteBuffer projectDigest;
+  private List<Fragment> fragments = Collections.emptyList();
+  private boolean captureDetail;
+
+  /**
+   * Construct a parser which has not yet parsed any report.
+   */
+  public IncrementalParser() {
+    try {
+      messageDigest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Set whether the detail of each bug instance can be read later, with
+   * {@link BugInstance#getDetail()}. Only affects bug instances converted from then on.
+   * Disabled by default.
+   *
+   * @param captureDetail Whether to capture detail.
+   */
+  public void setCaptureDetail(boolean captureDetail) {
+    this.captureDetail = captureDetail;
+  }
+
+  /**
+   * Parse the current contents of a report file. The file may be compressed with gzip.
+   *
+   * @param path Path to XML file, or `-` to read from standard input.
+   *
+   * @return The bug instances, and how they differ from the previous parse.
+   *
+   * @throws FileNotFoundException Thrown if the given file path does not exist.
+   *
+   * @throws ParserException Thrown if there are any syntax or semantic errors in the
+   *                         changed parts of the report.
+   */
+  public Update parse(String path) throws FileNotFoundException, ParserException {
+    byte[] report;
+
+    try (InputStream input = ReportInput.open(path)) {
+      report = input.readAllBytes();
+
+    } catch (FileNotFoundException e) {
+      throw e;
+
+    } catch (IOException e) {
+      throw new ParserException("Unable to read report: %s", e.getMessage());
+    }
+
+    return parse(report);
+  }
+
+  /**
+   * Parse the current contents of a report.
+   *
+   * <p>If the report is invalid, the state of the parser is left unchanged, so the next
+   * parse is compared against the last valid report.
+   *
+   * @param report The XML report.
+   *
+   * @return The bug instances, and how they differ from the previous parse.
+   *
+   * @throws ParserException Thrown if there are any syntax or semantic errors in the
+   *                         changed parts of the report.
+   */
+  public Update parse(byte[] report) throws ParserException {
+    if (!hasScannableEncoding(report)) {
+      return parseFully(report);
+    }
+
+    List<Fragment> current = findFragments(report);
+    ByteBuffer currentProjectDigest = findProjectDigest(report, current);
+
+    boolean projectChanged = projectDigest == null || !projectDigest.equals(currentProjectDigest);
+
+    Map<ByteBuffer, ArrayDeque<Fragment>> previous = new HashMap<>();
+
+    if (!projectChanged) {
+      for (Fragment fragment : fragments) {
+        previous.computeIfAbsent(fragment.digest, digest -> new ArrayDeque<>()).add(fragment);
+      }
+    }
+
+    List<Fragment> changed = new ArrayList<>();
+
+    for (Fragment fragment : current) {
+      ArrayDeque<Fragment> matches = previous.get(fragment.digest);
+
+      if (matches == null || matches.isEmpty()) {
+        changed.add(fragment);
+      } else {
+        fragment.instance = matches.poll().instance;
+      }
+    }
+
+    if ((!changed.isEmpty() || projectChanged) && !convert(report, current, changed)) {
+      return parseFully(report);
+    }
+
+    List<BugInstance> bugInstances = new ArrayList<>(current.size());
+    List<BugInstance> added = new ArrayList<>(changed.size());
+    List<BugInstance> removed = new ArrayList<>();
+
+    for (Fragment fragment : current) {
+      bugInstances.add(fragment.instance);
+    }
+
+    for (Fragment fragment : changed) {
+      added.add(fragment.instance);
+    }
+
+    // Iterate the previous fragments in order, so that removals are in document order.
+    for (Fragment fragment : fragments) {
+      ArrayDeque<Fragment> unmatched = previous.get(fragment.digest);
+
+      if (unmatched == null || unmatched.remove(fragment)) {
+        removed.add(fragment.instance);
+      }
+    }
+
+    fragments = current;
+    projectDigest = currentProjectDigest;
+
+    return new Update(bugInstances, added, removed);
+  }
+
+  /**
+   * Get every bug instance from the last successful parse.
+   *
+   * @return The bug instances, in document order.
+   */
+  public List<BugInstance> getBugInstances() {
+    List<BugInstance> bugInstances = new ArrayList<>(fragments.size());
+
+    for (Fragment fragment : fragments) {
+      bugInstances.add(fragment.instance);
+    }
+
+    return bugInstances;
+  }
+
+  // Parses the whole report, as a fallback when its `BugInstance` elements cannot be
+  // located reliably. Nothing is reused, and the next parse converts everything again.
+  private Update parseFully(byte[] report) throws ParserException {
+    List<BugInstance> bugInstances;
+
+    if (captureDetail) {
+      try (Parser parser = Parser.builder()
+          .setCaptureDetail(true)
+          .build(new ByteArrayInputStream(report))) {
+
+        bugInstances = parser.getBugInstances();
+      }
+
+    } else {
+      try (StreamingParser parser = new StreamingParser(new ByteArrayInputStream(report))) {
+        bugInstances = parser.getBugInstances();
+
+      } catch (IOException e) {
+        // The report is held in memory, so closing it cannot fail.
+        throw new IllegalStateException(e);
+      }
+    }
+
+    List<BugInstance> removed = getBugInstances();
+    List<Fragment> current = new ArrayList<>(bugInstances.size());
+
+    for (BugInstance instance : bugInstances) {
+      Fragment fragment = new Fragment(0, 0, null);
+      fragment.instance = instance;
+      current.add(fragment);
+    }
+
+    fragments = current;
+    projectDigest = null;
+
+    return new Update(bugInstances, new ArrayList<>(bugInstances), removed);
+  }
+
+  // Parses the changed fragments as one document, consisting of everything before the
+  // first `BugInstance`, the changed fragments, and the closing root tag. Returns false,
+  // leaving the fragments unchanged, if they do not each parse as one `BugInstance`.
+  private boolean convert(byte[] report, List<Fragment> all, List<Fragment> changed) throws
+      ParserException {
+
+    ByteArrayOutputStream document = new ByteArrayOutputStream();
+    int trailerStart = -1;
+
+    if (all.isEmpty()) {
+      document.write(report, 0, report.length);
+
+    } else {
+      int headerEnd = all.get(0).start;
+      trailerStart = lastIndexOfMarkup(report, closingTagStart, all.get(all.size() - 1).end);
+
+      if (trailerStart == -1) {
+        throw new ParserException("Syntax error in XML: %s", "Premature end of file.");
+      }
+
+      document.write(report, 0, headerEnd);
+
+      for (Fragment fragment : changed) {
+        document.write(report, fragment.start, fragment.end - fragment.start);
+      }
+
+      document.write(report, trailerStart, report.length - trailerStart);
+    }
+
+    List<BugInstance> bugInstances;
+
+    try (StreamingParser parser = new StreamingParser(
+        new ByteArrayInputStream(document.toByteArray()))) {
+
+      bugInstances = parser.getBugInstances();
+
+    } catch (IOException e) {
+      // The document is held in memory, so closing it cannot fail.
+      throw new IllegalStateException(e);
+    }
+
+    if (bugInstances.size() != changed.size()) {
+      return false;
+    }
+
+    for (int i = 0; i < changed.size(); i++) {
+      changed.get(i).instance = bugInstances.get(i);
+    }
+
+    if (captureDetail && !all.isEmpty()) {
+      DetailSource source = new DetailSource(
+          report,
+          all.get(0).start,
+          all.get(all.size() - 1).end,
+          trailerStart
+      );
+
+      for (Fragment fragment : changed) {
+        int start = fragment.start;
+        int end = fragment.end;
+
+        fragment.instance.setDetailLoader(() -> source.load(start, end));
+      }
+    }
+
+    return true;
+  }
+
+  // Reads detail from the report bug instances were converted from. Like conversion, each
+  // `BugInstance` element is parsed as a document made up of the report header, the
+  // element and the closing root tag. `BugPattern` elements follow the last `BugInstance`,
+  // and are parsed the same way the first time detail is loaded.
+  private static final class DetailSource {
+    private final byte[] report;
+    private final int headerEnd;
+    private final int patternsStart;
+    private final int trailerStart;
+
+    private Map<String, Element> bugPatterns;
+
+    DetailSource(byte[] report, int headerEnd, int patternsStart, int trailerStart) {
+      this.report = report;
+      this.headerEnd = headerEnd;
+      this.patternsStart = patternsStart;
+      this.trailerStart = trailerStart;
+    }
+
+    synchronized BugInstanceDetail load(int start, int end) throws ParserException {
+      List<Element> bugInstances = getChildElements(parse(start, end), "BugInstance");
+
+      if (bugInstances.size() != 1) {
+        throw new ParserException("Unable to locate `%s` elements in report.", "BugInstance");
+      }
+
+      if (bugPatterns == null) {
+        bugPatterns = new HashMap<>();
+        Element trailer = parse(patternsStart, trailerStart);
+
+        for (Element pattern : getChildElements(trailer, "BugPattern")) {
+          bugPatterns.putIfAbsent(pattern.getAttribute("type"), pattern);
+        }
+      }
+
+      Element bugInstance = bugInstances.get(0);
+
+      return BugInstanceDetail.fromElements(
+          bugInstance,
+          bugPatterns.get(bugInstance.getAttribute("type"))
+      );
+    }
+
+    private Element parse(int start, int end) throws ParserException {
+      ByteArrayOutputStream document = new ByteArrayOutputStream();
+
+      document.write(report, 0, headerEnd);
+      document.write(report, start, end - start);
+      document.write(report, trailerStart, report.length - trailerStart);
+
+      return XmlParserPool.getDefault()
+          .parseDocument(new ByteArrayInputStream(document.toByteArray()))
+          .getDocumentElement();
+    }
+
+    private static List<Element> getChildElements(Element parent, String tagName) {
+      List<Element> elements = new ArrayList<>();
+
+      for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+        if (child.getNodeType() == Node.ELEMENT_NODE
+            && ((Element) child).getTagName().equals(tagName)) {
+          elements.add((Element) child);
+        }
+      }
+
+      return elements;
+    }
+  }
+
+  private List<Fragment> findFragments(byte[] report) throws ParserException {
+    List<Fragment> found = new ArrayList<>();
+
+    int position = 0;
+
+    while ((position = indexOfStartTag(report, bugInstanceStartTag, position)) != -1) {
+      int end = indexOfMarkup(report, bugInstanceEndTag, position);
+
+      if (end == -1) {
+        throw new ParserException("Syntax error in XML: %s", "Premature end of file.");
+      }
+
+      end += bugInstanceEndTag.length;
+      found.add(new Fragment(position, end, digest(report, position, end)));
+      position = end;
+    }
+
+    return found;
+  }
+
+  private ByteBuffer findProjectDigest(byte[] report, List<Fragment> found) {
+    int limit = found.isEmpty() ? report.length : found.get(0).start;
+    int start = indexOfStartTag(report, projectStartTag, 0);
+
+    if (start == -1 || start >= limit) {
+      return null;
+    }
+
+    int end = indexOfMarkup(report, projectEndTag, start);
+
+    if (end == -1 || end >= limit) {
+      return null;
+    }
+
+    return digest(report, start, end + projectEndTag.length);
+  }
+
+  private ByteBuffer digest(byte[] report, int start, int end) {
+    messageDigest.update(report, start, end - start);
+    return ByteBuffer.wrap(messageDigest.digest());
+  }
+
+  // Whether the report is encoded in UTF-8 or ASCII, so that markup can be found by
+  // searching for its bytes. A report without an encoding declaration is UTF-8, unless it
+  // starts with a UTF-16 byte order mark or a zero byte.
+  private static boolean hasScannableEncoding(byte[] report) {
+    int start = startsWith(report, utf8ByteOrderMark, 0) ? utf8ByteOrderMark.length : 0;
+
+    if (!startsWith(report, xmlDeclarationStart, start)) {
+      return start > 0 || report.length < 2 || (report[0] != 0 && report[1] != 0
+          && (report[0] & 0xFF) != 0xFE && (report[0] & 0xFF) != 0xFF);
+    }
+
+    int end = indexOf(report, processingInstructionEnd, start);
+
+    if (end == -1) {
+      return false;
+    }
+
+    Matcher encoding = encodingPattern.matcher(
+        new String(report, start, end - start, StandardCharsets.US_ASCII)
+    );
+
+    return !encoding.find()
+        || scannableEncodings.contains(encoding.group(1).toUpperCase(Locale.ROOT));
+  }
+
+  // Finds a start tag, which must be followed by whitespace or the end of the tag so
+  // that, for example, `<ProjectInformation` is not mistaken for `<Project`.
+  private static int indexOfStartTag(byte[] report, byte[] tag, int from) {
+    int position = from;
+
+    while ((position = indexOfMarkup(report, tag, position)) != -1) {
+      int next = position + tag.length;
+
+      if (next < report.length) {
+        byte character = report[next];
+
+        if (character == '>' || character == '/' || character == ' ' || character == '\t'
+            || character == '\n' || character == '\r') {
+          return position;
+        }
+      }
+
+      position = next;
+    }
+
+    return -1;
+  }
+
+  // Finds markup outside of comments, CDATA sections and processing instructions, whose
+  // content may look like markup. Returns -1 if one of these is not terminated.
+  private static int indexOfMarkup(byte[] report, byte[] pattern, int from) {
+    int position = from;
+
+    while ((position = indexOf(report, (byte) '<', position)) != -1) {
+      byte[] skipEnd = null;
+
+      if (startsWith(report, commentStart, position)) {
+        skipEnd = commentEnd;
+      } else if (startsWith(report, cdataStart, position)) {
+        skipEnd = cdataEnd;
+      } else if (startsWith(report, processingInstructionStart, position)) {
+        skipEnd = processingInstructionEnd;
+      } else if (startsWith(report, pattern, position)) {
+        return position;
+      }
+
+      if (skipEnd == null) {
+        position++;
+
+      } else {
+        position = indexOf(report, skipEnd, position + 2);
+
+        if (position == -1) {
+          return -1;
+        }
+
+        position += skipEnd.length;
+      }
+    }
+
+    return -1;
+  }
+
+  private static int lastIndexOfMarkup(byte[] report, byte[] pattern, int from) {
+    int last = -1;
+    int position = from;
+
+    while ((position = indexOfMarkup(report, pattern, position)) != -1) {
+      last = position;
+      position += pattern.length;
+    }
+
+    return last;
+  }
+
+  private static boolean startsWith(byte[] report, byte[] pattern, int from) {
+    if (from + pattern.length > report.length) {
+      return false;
+    }
+
+    for (int i = 0; i < pattern.length; i++) {
+      if (report[from + i] != pattern[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static int indexOf(byte[] report, byte value, int from) {
+    for (int i = from; i < report.length; i++) {
+      if (report[i] == value) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private static int indexOf(byte[] report, byte[] pattern, int from) {
+    int last = report.length - pattern.length;
+
+    outer:
+    for (int i = from; i <= last; i++) {
+      if (report[i] != pattern[0]) {
+        continue;
+      }
+
+      for (int j = 1; j < pattern.length; j++) {
+        if (report[i + j] != pattern[j]) {
+          continue outer;
+        }
+      }
+
+      return i;
+    }
+
+    return -1;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+
+/**
+ * Writes each bug instance as a JSON object on a line of its own, as described at
+ * https://jsonlines.org.
+ *
+ * <p>`severity` is `error` or `warning` according to the threshold, or `fixed` for bug
+ * instances which are only in the baseline.
+ */
+final class JsonLinesFormatter implements ReportFormatter {
+  private final OutputSink output;
+  private final JsonWriter json;
+  private final int severityThreshold;
+
+  JsonLinesFormatter(OutputSink output, int severityThreshold) {
+    this.output = output;
+    this.json = new JsonWriter(output);
+    this.severityThreshold = severityThreshold;
+  }
+
+  @Override
+  public void write(BugInstance instance) throws IOException {
+    write(instance, instance.isError(severityThreshold) ? "error" : "warning");
+  }
+
+  @Override
+  public void writeFixed(BugInstance instance) throws IOException {
+    write(instance, "fixed");
+  }
+
+  private void write(BugInstance instance, String severity) throws IOException {
+    json.beginObject()
+        .name("severity").value(severity)
+        .name("category").value(instance.getCategory())
+        .name("priority").value(instance.getPriority())
+        .name("type").value(instance.getType())
+        .name("className").value(instance.getClassName())
+        .name("methodName").value(instance.getMethodName())
+        .name("sourcePath").value(instance.getSourcePath())
+        .name("relativeSourcePath").value(instance.getRelativeSourcePath())
+        .name("startLine").value(instance.getStartLine())
+        .name("startColumn").value(instance.getStartColumn())
+        .name("message").value(instance.getMessage())
+        .endObject();
+
+    output.newLine();
+  }
+}
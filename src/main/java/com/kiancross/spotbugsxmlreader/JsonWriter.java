@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Writes JSON directly to an {@link Appendable}, without building a tree of values.
+ *
+ * <p>Separators are inserted automatically, but the caller is responsible for nesting
+ * objects and arrays correctly, and for naming every member of an object.
+ */
+final class JsonWriter {
+  private final Appendable output;
+
+  // Whether each open object or array already has an element, and so needs a comma
+  // before the next one.
+  private boolean[] hasElements = new boolean[8];
+  private int depth;
+  private boolean afterName;
+
+  JsonWriter(Appendable output) {
+    this.output = output;
+  }
+
+  JsonWriter beginObject() throws IOException {
+    return open('{');
+  }
+
+  JsonWriter endObject() throws IOException {
+    return close('}');
+  }
+
+  JsonWriter beginArray() throws IOException {
+    return open('[');
+  }
+
+  JsonWriter endArray() throws IOException {
+    return close(']');
+  }
+
+  JsonWriter name(String name) throws IOException {
+    separate();
+    appendString(name);
+    output.append(':');
+    afterName = true;
+    return this;
+  }
+
+  JsonWriter value(String value) throws IOException {
+    separate();
+
+    if (value == null) {
+      output.append("null");
+    } else {
+      appendString(value);
+    }
+
+    return this;
+  }
+
+  JsonWriter value(long value) throws IOException {
+    separate();
+    output.append(Long.toString(value));
+    return this;
+  }
+
+  JsonWriter value(boolean value) throws IOException {
+    separate();
+    output.append(value ? "true" : "false");
+    return this;
+  }
+
+  private JsonWriter open(char bracket) throws IOException {
+    separate();
+    output.append(bracket);
+
+    if (++depth == hasElements.length) {
+      hasElements = Arrays.copyOf(hasElements, depth * 2);
+    }
+
+    hasElements[depth] = false;
+    return this;
+  }
+
+  private JsonWriter close(char bracket) throws IOException {
+    depth--;
+    output.append(bracket);
+    return this;
+  }
+
+  private void separate() throws IOException {
+    if (afterName) {
+      afterName = false;
+      return;
+    }
+
+    if (depth > 0 && hasElements[depth]) {
+      output.append(',');
+    }
+
+    hasElements[depth] = true;
+  }
+
+  private void appendString(String value) throws IOException {
+    output.append('"');
+
+    int start = 0;
+
+    for (int i = 0; i < value.length(); i++) {
+      char character = value.charAt(i);
+
+      if (character >= 0x20 && character != '"' && character != '\\') {
+        continue;
+      }
+
+      output.append(value, start, i);
+      start = i + 1;
+
+      switch (character) {
+        case '"':
+          output.append("\\\"");
+          break;
+
+        case '\\':
+          output.append("\\\\");
+          break;
+
+        case '\n':
+          output.append("\\n");
+          break;
+
+        case '\r':
+          output.append("\\r");
+          break;
+
+        case '\t':
+          output.append("\\t");
+          break;
+
+        default:
+          output.append(String.format("\\u%04x", (int) character));
+          break;
+      }
+    }
+
+    output.append(value, start, value.length());
+    output.append('"');
+  }
+}
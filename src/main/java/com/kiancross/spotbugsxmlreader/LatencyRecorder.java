@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.Arrays;
+
+/**
+ * Records the latency of operations, and reports percentiles over the most recent
+ * samples. Instances are thread safe.
+ */
+final class LatencyRecorder {
+  private final long[] samples;
+  private long count;
+  private long maximum;
+
+  /**
+   * Construct a recorder which computes percentiles over the given number of most
+   * recent samples, so that memory use is bounded however long the server runs.
+   */
+  LatencyRecorder(int window) {
+    samples = new long[window];
+  }
+
+  synchronized void record(long nanos) {
+    samples[(int) (count % samples.length)] = nanos;
+    count++;
+    maximum = Math.max(maximum, nanos);
+  }
+
+  synchronized long getCount() {
+    return count;
+  }
+
+  synchronized long getMaximum() {
+    return maximum;
+  }
+
+  /**
+   * Get a percentile of the recent samples, using the nearest-rank method.
+   *
+   * @return The percentile in nanoseconds, or zero if nothing has been recorded.
+   */
+  long getPercentile(double percentile) {
+    long[] recent;
+
+    synchronized (this) {
+      recent = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+    }
+
+    if (recent.length == 0) {
+      return 0;
+    }
+
+    Arrays.sort(recent);
+
+    int rank = (int) Math.ceil(percentile / 100 * recent.length);
+    return recent[Math.max(0, rank - 1)];
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@link ReportParser} over bug instances which have already been extracted, such as
+ * those loaded from a {@link ReportCache}.
+ */
+class ListReportParser implements ReportParser {
+  private final List<BugInstance> bugInstances;
+
+  ListReportParser(List<BugInstance> bugInstances) {
+    this.bugInstances = bugInstances;
+  }
+
+  @Override
+  public List<BugInstance> getBugInstances() {
+    return bugInstances;
+  }
+
+  @Override
+  public Iterator<BugInstance> iterator() {
+    return bugInstances.iterator();
+  }
+
+  @Override
+  public void close() {
+  }
+}
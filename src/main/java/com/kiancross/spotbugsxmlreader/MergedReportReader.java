@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads several reports concurrently and presents their bug instances as one sequence.
+ *
+ * <p>Each report is read by its own {@link ReportParser} on a bounded thread pool. Bug
+ * instances are returned grouped by report, in the order the reports were given, and in
+ * document order within each report, so output is deterministic regardless of which
+ * report finishes first.
+ */
+public class MergedReportReader implements Closeable {
+  /**
+   * Opens a parser for the report at a given path.
+   */
+  @FunctionalInterface
+  public interface ParserFactory {
+    ReportParser open(String path) throws FileNotFoundException, ParserException;
+  }
+
+  private final ExecutorService executor;
+  private final List<Future<List<BugInstance>>> reports;
+
+  /**
+   * Start reading the given reports.
+   *
+   * @param paths Paths of the reports to read.
+   *
+   * @param factory Used to open a parser for each report.
+   *
+   * @param threads Maximum number of reports to read at once.
+   */
+  public MergedReportReader(List<String> paths, ParserFactory factory, int threads) {
+    executor = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(threads, paths.size())),
+        MergedReportReader::newThread
+    );
+
+    reports = new ArrayList<>(paths.size());
+
+    for (String path : paths) {
+      reports.add(executor.submit(() -> read(path, factory)));
+    }
+
+    executor.shutdown();
+  }
+
+  /**
+   * Get an iterator over the bug instances of every report, waiting for each report to
+   * be read as it is reached.
+   *
+   * <p>Errors in a report are thrown as an {@link UncheckedParserException}, and reports
+   * which could not be opened as an {@link UncheckedIOException} wrapping a
+   * {@link FileNotFoundException}.
+   *
+   * @return Iterator over the merged {@link BugInstance}s.
+   */
+  public Iterator<BugInstance> iterator() {
+    return new Iterator<BugInstance>() {
+      private int report;
+      private Iterator<BugInstance> current = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext() && report < reports.size()) {
+          current = getReport(report++).iterator();
+        }
+
+        return current.hasNext();
+      }
+
+      @Override
+      public BugInstance next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        return current.next();
+      }
+    };
+  }
+
+  /**
+   * Stop reading any reports which have not yet been read.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  // Daemon threads, so that a report which is still being read when the application
+  // exits (e.g. after an error in an earlier report) does not keep it alive.
+  private static Thread newThread(Runnable runnable) {
+    Thread thread = new Thread(runnable, "report-reader");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private static List<BugInstance> read(String path, ParserFactory factory) throws
+      FileNotFoundException, IOException, ParserException {
+
+    try (ReportParser parser = factory.open(path)) {
+      return parser.getBugInstances();
+
+    } catch (ParserException e) {
+      throw new ParserException("%s: %s", path, e.getMessage());
+    }
+  }
+
+  private List<BugInstance> getReport(int index) {
+    try {
+      List<BugInstance> bugInstances = reports.get(index).get();
+
+      // Release the report once it has been handed out, so that memory is only held
+      // for reports which have been read but not yet consumed.
+      reports.set(index, null);
+
+      return bugInstances;
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UncheckedIOException(new InterruptedIOException(e.getMessage()));
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+
+      if (cause instanceof ParserException) {
+        throw new UncheckedParserException((ParserException) cause);
+
+      } else if (cause instanceof IOException) {
+        throw new UncheckedIOException((IOException) cause);
+
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw new IllegalStateException(cause);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+/**
+ * The formats a report can be output in.
+ */
+public enum OutputFormat {
+  /**
+   * One line per finding, as produced by {@link BugInstance#getLogEntry(int)}.
+   */
+  TEXT,
+
+  /**
+   * One JSON object per line, per finding.
+   */
+  JSONL,
+
+  /**
+   * A SARIF 2.1.0 log, as read by code scanning tools.
+   */
+  SARIF,
+
+  /**
+   * A Checkstyle XML report, as read by many CI servers.
+   */
+  CHECKSTYLE;
+
+  /**
+   * Create a formatter which writes in this format.
+   *
+   * @param output Where to write the report.
+   *
+   * @param severityThreshold The error severity threshold, used to tell errors from
+   *                          warnings.
+   *
+   * @return The formatter.
+   */
+  public ReportFormatter create(OutputSink output, int severityThreshold) {
+    switch (this) {
+      case JSONL:
+        return new JsonLinesFormatter(output, severityThreshold);
+
+      case SARIF:
+        return new SarifFormatter(output, severityThreshold);
+
+      case CHECKSTYLE:
+        return new CheckstyleFormatter(output, severityThreshold);
+
+      default:
+        return new TextFormatter(output, severityThreshold);
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The order bug instances are output in: optionally grouped, then sorted within each
+ * group.
+ *
+ * <p>Comparing bug instances directly compares their full source paths on every step of
+ * the sort. Instead, {@link #sort(List)} first ranks the distinct paths and categories,
+ * which compares each distinct value only a few times, and then packs the path rank,
+ * line and column of each bug instance into a single `long`. The sort itself compares
+ * only primitives. Bug instances whose lines or columns do not fit in the packed key are
+ * sorted with {@link #getComparator()} instead, which gives the same order.
+ */
+final class OutputOrder {
+  // Bits of the packed location key. The path rank takes the remaining 23 bits, leaving
+  // the sign bit clear so that keys compare correctly as signed values.
+  private static final int columnBits = 16;
+  private static final int lineBits = 24;
+  private static final int pathBits = 63 - lineBits - columnBits;
+
+  private final GroupBy group;
+  private final SortOrder sort;
+  private final Comparator<BugInstance> comparator;
+
+  /**
+   * Construct an order.
+   *
+   * @param group What to group bug instances by, or `null` not to group them.
+   *
+   * @param sort How to sort bug instances within each group, or `null` to sort them by
+   *             location.
+   */
+  OutputOrder(GroupBy group, SortOrder sort) {
+    this.group = group;
+    this.sort = sort == null ? SortOrder.FILE : sort;
+
+    comparator = group == null
+        ? this.sort.getComparator()
+        : group.getComparator().thenComparing(this.sort.getComparator());
+  }
+
+  GroupBy getGroup() {
+    return group;
+  }
+
+  Comparator<BugInstance> getComparator() {
+    return comparator;
+  }
+
+  /**
+   * Stably sort bug instances into this order.
+   *
+   * @param instances The bug instances, which are sorted in place.
+   */
+  void sort(List<BugInstance> instances) {
+    int size = instances.size();
+
+    int[] pathRanks = rank(instances, BugInstance::getSourcePath);
+    long[] locations = new long[size];
+
+    for (int i = 0; i < size; i++) {
+      BugInstance instance = instances.get(i);
+
+      locations[i] = packLocation(pathRanks[i], instance.getStartLine(),
+          instance.getStartColumn());
+
+      if (locations[i] < 0) {
+        instances.sort(comparator);
+        return;
+      }
+    }
+
+    int[] groups = group == GroupBy.FILE
+        ? pathRanks
+        : group == GroupBy.CATEGORY ? rank(instances, BugInstance::getCategory) : null;
+
+    int[] primaries = null;
+
+    if (sort == SortOrder.PRIORITY) {
+      primaries = new int[size];
+
+      for (int i = 0; i < size; i++) {
+        primaries[i] = instances.get(i).getPriority();
+      }
+
+    } else if (sort == SortOrder.CATEGORY) {
+      primaries = group == GroupBy.CATEGORY ? groups : rank(instances, BugInstance::getCategory);
+    }
+
+    int[] order = sortIndices(size, compareKeys(groups, primaries, locations));
+
+    BugInstance[] sorted = new BugInstance[size];
+
+    for (int i = 0; i < size; i++) {
+      sorted[i] = instances.get(order[i]);
+    }
+
+    for (int i = 0; i < size; i++) {
+      instances.set(i, sorted[i]);
+    }
+  }
+
+  // The location as a single key ordered by path rank, line and column, or `-1` if any of
+  // them do not fit. Lines and columns are offset by one so that `-1` (unknown) fits.
+  static long packLocation(int pathRank, int line, int column) {
+    long packedLine = line + 1L;
+    long packedColumn = column + 1L;
+
+    if (pathRank >= 1 << pathBits
+        || packedLine < 0 || packedLine >= 1 << lineBits
+        || packedColumn < 0 || packedColumn >= 1 << columnBits) {
+      return -1;
+    }
+
+    return (long) pathRank << (lineBits + columnBits) | packedLine << columnBits | packedColumn;
+  }
+
+  // The rank of each bug instance's value among the distinct values, with `null` first.
+  private static int[] rank(List<BugInstance> instances, Function<BugInstance, String> key) {
+    Map<String, Integer> ranks = new HashMap<>();
+
+    for (BugInstance instance : instances) {
+      String value = key.apply(instance);
+
+      if (value != null) {
+        ranks.put(value, 0);
+      }
+    }
+
+    List<String> distinct = new ArrayList<>(ranks.keySet());
+    distinct.sort(null);
+
+    for (int i = 0; i < distinct.size(); i++) {
+      ranks.put(distinct.get(i), i + 1);
+    }
+
+    int[] result = new int[instances.size()];
+
+    for (int i = 0; i < result.length; i++) {
+      String value = key.apply(instances.get(i));
+      result[i] = value == null ? 0 : ranks.get(value);
+    }
+
+    return result;
+  }
+
+  private static IndexComparator compareKeys(int[] groups, int[] primaries, long[] locations) {
+    return (a, b) -> {
+      if (groups != null && groups[a] != groups[b]) {
+        return Integer.compare(groups[a], groups[b]);
+      }
+
+      if (primaries != null && primaries[a] != primaries[b]) {
+        return Integer.compare(primaries[a], primaries[b]);
+      }
+
+      return Long.compare(locations[a], locations[b]);
+    };
+  }
+
+  @FunctionalInterface
+  interface IndexComparator {
+    int compare(int a, int b);
+  }
+
+  // A stable merge sort of the indices `0` to `size - 1`, so that indices which compare
+  // equal keep their original order without the boxing of `Integer[]`.
+  static int[] sortIndices(int size, IndexComparator comparator) {
+    int[] indices = new int[size];
+    int[] scratch = new int[size];
+
+    for (int i = 0; i < size; i++) {
+      indices[i] = i;
+    }
+
+    for (int width = 1; width < size; width *= 2) {
+      for (int start = 0; start < size; start += 2 * width) {
+        int middle = Math.min(start + width, size);
+        int end = Math.min(start + 2 * width, size);
+
+        int left = start;
+        int right = middle;
+
+        for (int i = start; i < end; i++) {
+          if (left < middle
+              && (right >= end || comparator.compare(indices[left], indices[right]) <= 0)) {
+            scratch[i] = indices[left++];
+          } else {
+            scratch[i] = indices[right++];
+          }
+        }
+      }
+
+      int[] swap = indices;
+      indices = scratch;
+      scratch = swap;
+    }
+
+    return indices;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * A destination for the text of a report.
+ *
+ * <p>Output may be buffered until the sink is flushed or closed.
+ */
+public interface OutputSink extends Appendable, Flushable, Closeable {
+  @Override
+  OutputSink append(CharSequence text) throws IOException;
+
+  @Override
+  OutputSink append(CharSequence text, int start, int end) throws IOException;
+
+  @Override
+  OutputSink append(char character) throws IOException;
+
+  /**
+   * Terminate the current line.
+   *
+   * @return This sink.
+   *
+   * @throws IOException Thrown if the line separator cannot be written.
+   */
+  OutputSink newLine() throws IOException;
+}
@@ -4,28 +4,159 @@
 
 package com.kiancross.spotbugsxmlreader;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.io.InputStream;
 import java.lang.module.ModuleDescriptor.Version;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Pattern;
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import org.xml.sax.SAXException;
 
-public class Parser {
+public class Parser implements ReportParser {
+  // Smallest number of elements converted by a single task in parallel mode. Below this
+  // the cost of scheduling outweighs any gain.
+  private static final int minimumChunkSize = 256;
+
   private Element root;
-  private String[] sourceDirectories;
+  private BugInstanceConverter converter;
+  private int parallelism = 1;
+  private BugInstanceFilter filter = BugInstanceFilter.acceptAll();
+  private PipelineStats stats = PipelineStats.disabled();
+  private boolean captureDetail;
+
+  // `BugPattern` elements by type, read the first time detail is loaded.
+  private Map<String, Element> bugPatterns;
+
+  /**
+   * Configures and constructs {@link Parser}s.
+   */
+  public static class Builder {
+    private XmlParserPool pool = XmlParserPool.getDefault();
+    private int parallelism = 1;
+    private BugInstanceFilter filter = BugInstanceFilter.acceptAll();
+    private PipelineStats stats = PipelineStats.disabled();
+    private boolean captureDetail;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the pool to create XML parsers from, instead of the default pool.
+     *
+     * @param pool The pool.
+     *
+     * @return This builder.
+     */
+    public Builder setPool(XmlParserPool pool) {
+      this.pool = pool;
+      return this;
+    }
+
+    /**
+     * Set the number of threads used to convert bug instances.
+     *
+     * @param parallelism Number of threads, which must be at least one.
+     *
+     * @return This builder.
+     *
+     * @see Parser#setParallelism(int)
+     */
+    public Builder setParallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException("Parallelism must be at least one.");
+      }
+
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Set the filter deciding which bug instances are converted.
+     *
+     * @param filter The filter.
+     *
+     * @return This builder.
+     *
+     * @see Parser#setFilter(BugInstanceFilter)
+     */
+    public Builder setFilter(BugInstanceFilter filter) {
+      this.filter = filter;
+      return this;
+    }
+
+    /**
+     * Set where to record timings and counters. Unlike {@link Parser#setStats}, this
+     * includes the time taken to parse the document.
+     *
+     * @param stats The statistics.
+     *
+     * @return This builder.
+     */
+    public Builder setStats(PipelineStats stats) {
+      this.stats = stats;
+      return this;
+    }
+
+    /**
+     * Set whether the detail of each bug instance can be read later.
+     *
+     * @param captureDetail Whether to capture detail.
+     *
+     * @return This builder.
+     *
+     * @see Parser#setCaptureDetail(boolean)
+     */
+    public Builder setCaptureDetail(boolean captureDetail) {
+      this.captureDetail = captureDetail;
+      return this;
+    }
+
+    /**
+     * Construct a parser from an {@link InputStream}.
+     *
+     * @param input An {@link InputStream} containing XML.
+     *
+     * @return The parser instance.
+     *
+     * @throws ParserException Thrown if there is a syntax error in the XML.
+     */
+    public Parser build(InputStream input) throws ParserException {
+      long start = stats.start();
+
+      Parser parser = new Parser(input, pool);
+
+      stats.stop(PipelineStats.Stage.PARSE, start);
+
+      parser.setParallelism(parallelism);
+      parser.setFilter(filter);
+      parser.setStats(stats);
+      parser.setCaptureDetail(captureDetail);
+      return parser;
+    }
+
+    /**
+     * Construct a parser from a file path. The file may be compressed with gzip.
+     *
+     * @param path Path to XML file, or `-` to read from standard input.
+     *
+     * @return The parser instance.
+     *
+     * @throws FileNotFoundException Thrown if the given file path does not exist.
+     *
+     * @throws ParserException Thrown if there is a syntax error in the given XML file.
+     */
+    public Parser build(String path) throws FileNotFoundException, ParserException {
+      return build(ReportInput.open(path));
+    }
+  }
 
   /**
    * Construct a parser from an {@link InputStream}.
@@ -35,19 +166,28 @@ public class Parser {
    * @throws ParserException Thrown if there is a syntax error in the XML.
    */
   public Parser(InputStream input) throws ParserException {
-    Document document = getDocument(input);
+    this(input, XmlParserPool.getDefault());
+  }
+
+  private Parser(InputStream input, XmlParserPool pool) throws ParserException {
+    StageEvent event = new StageEvent(PipelineStats.Stage.PARSE);
+    event.begin();
+
+    Document document = pool.parseDocument(input);
+
+    event.commit();
     root = document.getDocumentElement();
 
-    checkVersion(root);
+    checkVersion(root.hasAttribute("version") ? root.getAttribute("version") : null);
 
     Element project = getElementByTagName(root, "Project");
-    sourceDirectories = getSourceDirectories(project);
+    converter = new BugInstanceConverter(getSourceDirectories(project));
   }
 
   /**
-   * Construct a parser from a file path.
+   * Construct a parser from a file path. The file may be compressed with gzip.
    *
-   * @param path Path to XML file.
+   * @param path Path to XML file, or `-` to read from standard input.
    *
    * @return The parser instance.
    *
@@ -56,9 +196,71 @@ public class Parser {
    * @throws ParserException Thrown if there is a syntax error in the given XML file.
    */
   public static Parser fromFilePath(String path) throws FileNotFoundException, ParserException {
-    File file = new File(path);
-    InputStream stream = new FileInputStream(file);
-    return new Parser(stream);
+    return new Parser(ReportInput.open(path));
+  }
+
+  /**
+   * Get a builder, for constructing parsers with non-default settings.
+   *
+   * @return A new builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Set the number of threads used to convert bug instances.
+   *
+   * <p>When greater than one, conversion is split across a {@link ForkJoinPool}. Output
+   * remains in document order, and the error reported is that of the first invalid
+   * `BugInstance` in the document.
+   *
+   * @param parallelism Number of threads, which must be at least one.
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least one.");
+    }
+
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Set the filter deciding which bug instances are converted.
+   *
+   * <p>Bug instances rejected by the filter are skipped before their `LongMessage` is
+   * read or their source path resolved, and are not returned.
+   *
+   * @param filter The filter.
+   */
+  public void setFilter(BugInstanceFilter filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * Set where to record timings and counters for converting bug instances.
+   *
+   * @param stats The statistics.
+   */
+  public void setStats(PipelineStats stats) {
+    this.stats = stats;
+    converter.setStats(stats);
+  }
+
+  /**
+   * Set whether the detail of each bug instance can be read later, with
+   * {@link BugInstance#getDetail()}.
+   *
+   * <p>Only a reference to the `BugInstance` element is kept, and the detail is read from
+   * it when first requested, so capturing detail costs little unless it is used. However,
+   * each bug instance then keeps the whole document in memory for as long as it is
+   * reachable, which is typically several times the size of the report file. Disabled by
+   * default.
+   *
+   * @param captureDetail Whether to capture detail.
+   */
+  public void setCaptureDetail(boolean captureDetail) {
+    this.captureDetail = captureDetail;
   }
 
   /**
@@ -68,27 +270,106 @@ public class Parser {
    *
    * @throws ParserException Thrown if there are any semantic erorrs in the XML file.
    */
+  @Override
   public List<BugInstance> getBugInstances() throws ParserException {
     List<Element> elements = getElementsByTagName(root, "BugInstance");
 
     int numberOfBugInstances = elements.size();
 
-    List<BugInstance> bugInstances = new ArrayList<BugInstance>(numberOfBugInstances);
+    List<BugInstance> bugInstances;
+
+    if (parallelism > 1 && numberOfBugInstances > minimumChunkSize) {
+      bugInstances = getBugInstancesInParallel(elements);
 
-    for (int i = 0; i < numberOfBugInstances; i++) {
-      BugInstance instance = getBugInstance(elements.get(i));
-      bugInstances.add(instance);
+    } else {
+      bugInstances = new ArrayList<BugInstance>(numberOfBugInstances);
+
+      for (int i = 0; i < numberOfBugInstances; i++) {
+        BugInstance instance = getBugInstance(elements.get(i));
+
+        if (instance != null) {
+          bugInstances.add(instance);
+        }
+      }
     }
 
+    converter.commitEvents();
+
     return bugInstances;
   }
 
-  private void checkVersion(Element bugCollection) throws ParserException {
-    if (!bugCollection.hasAttribute("version")) {
+  /**
+   * Get an iterator which converts each bug instance as it is requested.
+   *
+   * <p>If parallelism is enabled, all bug instances are converted up front instead.
+   *
+   * @return Iterator over the {@link BugInstance}s in the XML file.
+   */
+  @Override
+  public Iterator<BugInstance> iterator() {
+    if (parallelism > 1) {
+      try {
+        return getBugInstances().iterator();
+      } catch (ParserException e) {
+        throw new UncheckedParserException(e);
+      }
+    }
+
+    Iterator<Element> elements = getElementsByTagName(root, "BugInstance").iterator();
+
+    return new Iterator<BugInstance>() {
+      private BugInstance next;
+
+      @Override
+      public boolean hasNext() {
+        try {
+          while (next == null && elements.hasNext()) {
+            next = getBugInstance(elements.next());
+          }
+
+          if (next == null) {
+            converter.commitEvents();
+          }
+        } catch (ParserException e) {
+          throw new UncheckedParserException(e);
+        }
+
+        return next != null;
+      }
+
+      @Override
+      public BugInstance next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        BugInstance instance = next;
+        next = null;
+        return instance;
+      }
+    };
+  }
+
+  /**
+   * The document is read in full on construction, so there is nothing to release.
+   */
+  @Override
+  public void close() {
+  }
+
+  /**
+   * Check that the `version` attribute of `BugCollection` is one we can read.
+   *
+   * @param versionAttribute Value of the attribute, or `null` if it is absent.
+   *
+   * @throws ParserException Thrown if the version is missing or unsupported.
+   */
+  static void checkVersion(String versionAttribute) throws ParserException {
+    if (versionAttribute == null) {
       throw new ParserException("Missing `version` attribute on `BugCollection`.");
     }
 
-    final Version version = Version.parse(bugCollection.getAttribute("version"));
+    final Version version = Version.parse(versionAttribute);
 
     if (
         version.compareTo(Version.parse("4.0.0")) < 0
@@ -101,62 +382,206 @@ public class Parser {
     }
   }
 
-  private BugInstance getBugInstance(Element parent) throws ParserException {
-    String message = getElementByTagName(parent, "LongMessage").getTextContent();
+  private List<BugInstance> getBugInstancesInParallel(List<Element> elements) throws
+      ParserException {
 
-    Element sourceElement = getSourceElement(parent);
+    BugInstance[] bugInstances = new BugInstance[elements.size()];
+    int chunkSize = Math.max(minimumChunkSize, elements.size() / (parallelism * 4));
 
-    String relativeSourcePath = sourceElement.getAttribute("relSourcepath");
-    String category = parent.getAttribute("category");
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
 
-    String path = relativeToAbsolutePath(relativeSourcePath);
+    try {
+      pool.invoke(new ConversionTask(elements, bugInstances, 0, elements.size(), chunkSize));
+    } catch (UncheckedParserException e) {
+      throw e.getCause();
+    } finally {
+      pool.shutdown();
+    }
+
+    if (filter.isAcceptAll()) {
+      return Arrays.asList(bugInstances);
+    }
+
+    List<BugInstance> accepted = new ArrayList<BugInstance>(bugInstances.length);
+
+    for (BugInstance instance: bugInstances) {
+      if (instance != null) {
+        accepted.add(instance);
+      }
+    }
+
+    return accepted;
+  }
+
+  /**
+   * Converts a range of `BugInstance` elements, splitting it in half until it is no
+   * larger than the chunk size.
+   *
+   * <p>The lower half is always converted on the current thread before joining the
+   * upper half, so an error in the lower half is thrown in preference to one in the
+   * upper half. This keeps the reported error the same as in sequential mode.
+   *
+   * <p>Elements are read from several threads without locking. This is safe as deferred
+   * node expansion is disabled, so the document is fully built before the tasks start, and
+   * only siblings, attributes and the text of single text nodes are read, none of which
+   * update the internal caches of the DOM implementation.
+   */
+  private class ConversionTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Element> elements;
+    private final BugInstance[] bugInstances;
+    private final int start;
+    private final int end;
+    private final int chunkSize;
+
+    ConversionTask(
+        List<Element> elements,
+        BugInstance[] bugInstances,
+        int start,
+        int end,
+        int chunkSize
+    ) {
+      this.elements = elements;
+      this.bugInstances = bugInstances;
+      this.start = start;
+      this.end = end;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= chunkSize) {
+        convert();
+        return;
+      }
+
+      int middle = (start + end) >>> 1;
+
+      ConversionTask upper = new ConversionTask(elements, bugInstances, middle, end, chunkSize);
+      upper.fork();
+
+      try {
+        new ConversionTask(elements, bugInstances, start, middle, chunkSize).compute();
+      } catch (UncheckedParserException e) {
+        upper.cancel(false);
+        throw e;
+      }
+
+      upper.join();
+    }
+
+    private void convert() {
+      try {
+        for (int i = start; i < end; i++) {
+          bugInstances[i] = getBugInstance(elements.get(i));
+        }
+      } catch (ParserException e) {
+        throw new UncheckedParserException(e);
+      }
+    }
+  }
+
+  // Returns `null` if the bug instance is rejected by the filter. Time spent reading the
+  // element is recorded as parsing.
+  private BugInstance getBugInstance(Element parent) throws ParserException {
+    long start = stats.start();
+    long convertNanos = 0;
 
     try {
-      int startLine = Integer.parseInt(sourceElement.getAttribute("start"));
-      int startColumn = Integer.parseInt(sourceElement.getAttribute("startBytecode"));
-      int priority = Integer.parseInt(parent.getAttribute("priority"));
-    
-      BugInstance instance = new BugInstance();
-    
-      instance.setMessage(message);
-      instance.setSourcePath(path);
-      instance.setCategory(category);
-      instance.setStartLine(startLine);
-      instance.setStartColumn(startColumn);
-      instance.setPriority(priority);
+      String category = parent.getAttribute("category");
+      String priority = parent.getAttribute("priority");
+      String type = parent.getAttribute("type");
+
+      stats.addElementsVisited(1);
+
+      if (!filter.acceptsAttributes(category, priority, type)) {
+        stats.addFindingsFiltered(1);
+        return null;
+      }
+
+      Element sourceElement = getSourceElement(parent);
+
+      String className = getPrimaryAttribute(parent, "Class", "classname");
+      String methodName = getPrimaryAttribute(parent, "Method", "name");
+      String relativeSourcePath = sourceElement.getAttribute("relSourcepath");
+
+      if (!filter.accepts(category, priority, type, className, methodName, relativeSourcePath)) {
+        stats.addFindingsFiltered(1);
+        return null;
+      }
+
+      String message = getElementByTagName(parent, "LongMessage").getTextContent();
+
+      long convertStart = stats.start();
+
+      BugInstance instance = converter.convert(
+        message,
+        category,
+        priority,
+        type,
+        className,
+        methodName,
+        relativeSourcePath,
+        sourceElement.getAttribute("start"),
+        sourceElement.getAttribute("startBytecode")
+      );
+
+      convertNanos = stats.elapsed(convertStart);
+      stats.addFindingsEmitted(1);
+
+      if (captureDetail) {
+        instance.setDetailLoader(() -> loadDetail(parent));
+      }
 
       return instance;
 
-    } catch (NumberFormatException e) {
-      throw new ParserException("Error when parsing integer: %s", e.getMessage());
+    } finally {
+      stats.stop(PipelineStats.Stage.PARSE, start, convertNanos);
     }
   }
 
-  private Element getSourceElement(Element bugInstance) throws ParserException {
-    List<Element> elements = getElementsByTagName(bugInstance, "SourceLine");
+  // As in `ConversionTask`, reading the DOM from several threads is safe. The lock only
+  // guards the map of bug patterns, which is built on first use.
+  private BugInstanceDetail loadDetail(Element bugInstance) {
+    synchronized (root) {
+      if (bugPatterns == null) {
+        bugPatterns = new HashMap<>();
+
+        for (Element pattern : getElementsByTagName(root, "BugPattern")) {
+          bugPatterns.putIfAbsent(pattern.getAttribute("type"), pattern);
+        }
+      }
+
+      Element pattern = bugPatterns.get(bugInstance.getAttribute("type"));
+      return BugInstanceDetail.fromElements(bugInstance, pattern);
+    }
+  }
+
+  // The attribute of the first child with the `primary` attribute, falling back to the
+  // first child, or an empty string if there are no children with the given tag name.
+  private String getPrimaryAttribute(Element bugInstance, String tagName, String attribute) {
+    List<Element> elements = getElementsByTagName(bugInstance, tagName);
 
     for (Element element: elements) {
       if (element.hasAttribute("primary")) {
-        return element;
+        return element.getAttribute(attribute);
       }
     }
 
-    throw new ParserException("At least one `SourceLine` must have `primary` attribute.");
+    return elements.isEmpty() ? "" : elements.get(0).getAttribute(attribute);
   }
 
-  private String relativeToAbsolutePath(String relative) throws ParserException {
-    String[] parts = relative.split(Pattern.quote(File.separator));
-
-    String start = parts[0];
+  private Element getSourceElement(Element bugInstance) throws ParserException {
+    List<Element> elements = getElementsByTagName(bugInstance, "SourceLine");
 
-    for (int i = 0; i < sourceDirectories.length; i++) {
-      if (sourceDirectories[i].endsWith(start)) {
-        parts[0] = "";
-        return Paths.get(sourceDirectories[i], parts).toString();
+    for (Element element: elements) {
+      if (element.hasAttribute("primary")) {
+        return element;
       }
     }
 
-    throw new ParserException("Source path not included in source paths");
+    throw new ParserException("At least one `SourceLine` must have `primary` attribute.");
   }
 
   private String[] getSourceDirectories(Element project) throws ParserException {
@@ -196,8 +621,7 @@ public class Parser {
     return elements.get(0);
   }
   
-  private List<Element> getElementsByTagName(Element parent, String tagName) throws
-      ParserException {
+  private List<Element> getElementsByTagName(Element parent, String tagName) {
 
     Node child = parent.getFirstChild();
     List<Element> elements = new ArrayList<Element>();
@@ -216,21 +640,4 @@ public class Parser {
       
     return elements;
   }
-
-  private Document getDocument(InputStream input) throws ParserException {
-    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-    try {
-      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-
-      DocumentBuilder builder = factory.newDocumentBuilder();
-      Document document = builder.parse(input);
-      document.getDocumentElement().normalize();
-
-      return document;
-
-    } catch (ParserConfigurationException | SAXException | IOException e) {
-      throw new ParserException("Syntax error in XML: %s", e.getMessage());
-    }
-  }
 }
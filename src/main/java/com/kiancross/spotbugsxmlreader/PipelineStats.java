@@ -0,0 +1,390 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and counters for each stage of reading and outputting a report.
+ *
+ * <p>Stage times are exclusive: the time spent resolving source paths is not included
+ * in the time spent converting bug instances, which in turn is not included in the time
+ * spent parsing. When bug instances are converted by several threads, the time of each
+ * thread is added, so stage times may exceed the elapsed time.
+ *
+ * <p>Collecting statistics costs a call to {@link System#nanoTime()} per stage per bug
+ * instance. The instance returned by {@link #disabled()} collects nothing, and is used by
+ * default.
+ */
+public final class PipelineStats {
+  private static final PipelineStats disabled = new PipelineStats(false);
+  private static final double nanosPerMillisecond = 1_000_000.0;
+  private static final long bytesPerMebibyte = 1024 * 1024;
+
+  /**
+   * The stages of the pipeline.
+   */
+  public enum Stage {
+    PARSE,
+    CONVERT,
+    RESOLVE,
+    OUTPUT
+  }
+
+  private final boolean enabled;
+  private final AtomicLongArray stageNanos = new AtomicLongArray(Stage.values().length);
+  private final LongAdder bytesRead = new LongAdder();
+  private final LongAdder elementsVisited = new LongAdder();
+  private final LongAdder findingsEmitted = new LongAdder();
+  private final LongAdder findingsFiltered = new LongAdder();
+
+  private long startNanos;
+  private long elapsedNanos;
+  private long startAllocatedBytes;
+  private long allocatedBytes = -1;
+  private long peakHeapBytes = -1;
+
+  /**
+   * Construct an instance which collects statistics.
+   */
+  public PipelineStats() {
+    this(true);
+  }
+
+  private PipelineStats(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Get an instance which collects nothing.
+   *
+   * @return The instance.
+   */
+  public static PipelineStats disabled() {
+    return disabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Start measuring the whole run. Resets the peak heap usage, and records the bytes
+   * allocated so far.
+   */
+  public void begin() {
+    if (!enabled) {
+      return;
+    }
+
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+
+    startAllocatedBytes = readAllocatedBytes();
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Finish measuring the whole run, recording the elapsed time, peak heap usage and the
+   * bytes allocated since {@link #begin()}.
+   */
+  public void finish() {
+    if (!enabled) {
+      return;
+    }
+
+    elapsedNanos = System.nanoTime() - startNanos;
+
+    long allocated = readAllocatedBytes();
+
+    allocatedBytes = allocated < 0 || startAllocatedBytes < 0
+        ? -1
+        : allocated - startAllocatedBytes;
+
+    long peak = 0;
+
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+
+    peakHeapBytes = peak;
+  }
+
+  /**
+   * Get the current time, for passing to {@link #stop(Stage, long)}.
+   *
+   * @return The current time in nanoseconds, or zero if disabled.
+   */
+  public long start() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Add the time since `start` to a stage.
+   *
+   * @param stage The stage.
+   *
+   * @param start The value returned by {@link #start()}.
+   *
+   * @return The time added, in nanoseconds.
+   */
+  public long stop(Stage stage, long start) {
+    return stop(stage, start, 0);
+  }
+
+  /**
+   * Add the time since `start` to a stage, less time already added to a nested stage.
+   *
+   * @param stage The stage.
+   *
+   * @param start The value returned by {@link #start()}.
+   *
+   * @param nestedNanos Time within this period already added to another stage.
+   *
+   * @return The total time since `start`, including `nestedNanos`.
+   */
+  public long stop(Stage stage, long start, long nestedNanos) {
+    if (!enabled) {
+      return 0;
+    }
+
+    long nanos = System.nanoTime() - start;
+    stageNanos.addAndGet(stage.ordinal(), nanos - nestedNanos);
+    return nanos;
+  }
+
+  // The time since `start`, without adding it to any stage.
+  long elapsed(long start) {
+    return enabled ? System.nanoTime() - start : 0;
+  }
+
+  void addElementsVisited(long count) {
+    if (enabled) {
+      elementsVisited.add(count);
+    }
+  }
+
+  void addFindingsEmitted(long count) {
+    if (enabled) {
+      findingsEmitted.add(count);
+    }
+  }
+
+  void addFindingsFiltered(long count) {
+    if (enabled) {
+      findingsFiltered.add(count);
+    }
+  }
+
+  /**
+   * Wrap an input so that the bytes read from it are counted.
+   *
+   * @param input The input.
+   *
+   * @return The wrapped input, or `input` itself if disabled.
+   */
+  public InputStream countBytes(InputStream input) {
+    if (!enabled) {
+      return input;
+    }
+
+    return new FilterInputStream(input) {
+      @Override
+      public int read() throws IOException {
+        int value = super.read();
+
+        if (value >= 0) {
+          bytesRead.increment();
+        }
+
+        return value;
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+
+        if (count > 0) {
+          bytesRead.add(count);
+        }
+
+        return count;
+      }
+    };
+  }
+
+  public long getStageNanos(Stage stage) {
+    return stageNanos.get(stage.ordinal());
+  }
+
+  public long getBytesRead() {
+    return bytesRead.sum();
+  }
+
+  public long getElementsVisited() {
+    return elementsVisited.sum();
+  }
+
+  public long getFindingsEmitted() {
+    return findingsEmitted.sum();
+  }
+
+  public long getFindingsFiltered() {
+    return findingsFiltered.sum();
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Get the bytes allocated between {@link #begin()} and {@link #finish()}, by threads
+   * which were still running at the end. Threads which finished earlier, such as those
+   * converting bug instances in parallel, are not counted.
+   *
+   * @return The bytes allocated, or `-1` if the JVM cannot measure allocation.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Get the peak heap usage between {@link #begin()} and {@link #finish()}.
+   *
+   * @return The peak heap usage in bytes, or `-1` if not measured.
+   */
+  public long getPeakHeapBytes() {
+    return peakHeapBytes;
+  }
+
+  // The bytes allocated by all live threads since they started, or `-1` if the JVM
+  // cannot measure allocation.
+  private static long readAllocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+
+    com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+
+    if (!allocation.isThreadAllocatedMemorySupported()
+        || !allocation.isThreadAllocatedMemoryEnabled()) {
+      return -1;
+    }
+
+    long total = 0;
+
+    for (long bytes : allocation.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+      if (bytes > 0) {
+        total += bytes;
+      }
+    }
+
+    return total;
+  }
+
+  /**
+   * Write the statistics.
+   *
+   * @param output Where to write the statistics.
+   *
+   * @param format The format to write the statistics in.
+   *
+   * @throws IOException Thrown if the statistics could not be written.
+   */
+  public void write(OutputSink output, ReportSummary.Format format) throws IOException {
+    if (format == ReportSummary.Format.JSON) {
+      writeJson(output);
+    } else {
+      writeTable(output);
+    }
+  }
+
+  private void writeTable(OutputSink output) throws IOException {
+    output.append(String.format(Locale.ROOT, "%-10s  %12s", "Stage", "Time (ms)")).newLine();
+
+    for (Stage stage : Stage.values()) {
+      output.append(String.format(
+          Locale.ROOT,
+          "%-10s  %12.3f",
+          stage.name().toLowerCase(Locale.ROOT),
+          getStageNanos(stage) / nanosPerMillisecond
+      )).newLine();
+    }
+
+    output.append(String.format(
+        Locale.ROOT, "%-10s  %12.3f", "total", elapsedNanos / nanosPerMillisecond
+    )).newLine();
+
+    output.newLine();
+    appendRow(output, "Bytes read", Long.toString(getBytesRead()));
+    appendRow(output, "Elements visited", Long.toString(getElementsVisited()));
+    appendRow(output, "Findings emitted", Long.toString(getFindingsEmitted()));
+    appendRow(output, "Findings filtered", Long.toString(getFindingsFiltered()));
+    appendRow(output, "Peak heap (MiB)", formatMebibytes(peakHeapBytes));
+    appendRow(output, "Allocated (MiB)", formatMebibytes(allocatedBytes));
+    appendRow(output, "Allocation rate (MiB/s)", formatMebibytes(getAllocationRate()));
+  }
+
+  private static void appendRow(OutputSink output, String name, String value)
+      throws IOException {
+
+    output.append(String.format(Locale.ROOT, "%-24s %s", name + ":", value)).newLine();
+  }
+
+  private void writeJson(OutputSink output) throws IOException {
+    JsonWriter json = new JsonWriter(output);
+
+    json.beginObject().name("stageNanos").beginObject();
+
+    for (Stage stage : Stage.values()) {
+      json.name(stage.name().toLowerCase(Locale.ROOT)).value(getStageNanos(stage));
+    }
+
+    json.endObject()
+        .name("elapsedNanos").value(elapsedNanos)
+        .name("bytesRead").value(getBytesRead())
+        .name("elementsVisited").value(getElementsVisited())
+        .name("findingsEmitted").value(getFindingsEmitted())
+        .name("findingsFiltered").value(getFindingsFiltered())
+        .name("peakHeapBytes").value(peakHeapBytes)
+        .name("allocatedBytes").value(allocatedBytes)
+        .name("allocationBytesPerSecond").value(getAllocationRate())
+        .endObject();
+
+    output.newLine();
+  }
+
+  private long getAllocationRate() {
+    if (allocatedBytes < 0 || elapsedNanos <= 0) {
+      return -1;
+    }
+
+    return (long) (allocatedBytes / (elapsedNanos / 1e9));
+  }
+
+  private static String formatMebibytes(long bytes) {
+    if (bytes < 0) {
+      return "unavailable";
+    }
+
+    return String.format(Locale.ROOT, "%.1f", bytes / (double) bytesPerMebibyte);
+  }
+}
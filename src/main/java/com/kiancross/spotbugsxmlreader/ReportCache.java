@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An on-disk cache of the bug instances extracted from reports.
+ *
+ * <p>Entries are keyed by the SHA-256 hash of the report file, so a report which has
+ * not changed is never parsed twice, wherever it is read from. Entries are stored using
+ * {@link BinaryReportCodec} and are memory mapped when loaded.
+ *
+ * <p>The total size of the cache is bounded. When it is exceeded, the least recently
+ * used entries are evicted, using the last modified time of each entry, which is
+ * updated whenever the entry is read.
+ *
+ * <p>The cache is best effort: an entry which cannot be read or written is ignored, and
+ * the report is parsed as if there were no cache.
+ */
+public class ReportCache {
+  /**
+   * The default maximum total size of the cache, in bytes.
+   */
+  public static final long defaultMaximumSize = 256L * 1024 * 1024;
+
+  private static final String extension = ".bin";
+  private static final int hashBufferSize = 64 * 1024;
+
+  private final Path directory;
+  private final long maximumSize;
+
+  /**
+   * Construct a cache. The directory is created when the first entry is stored.
+   *
+   * @param directory The directory to hold the cache entries.
+   *
+   * @param maximumSize The maximum total size of the entries, in bytes.
+   */
+  public ReportCache(Path directory, long maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Maximum size must not be negative.");
+    }
+
+    this.directory = directory;
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * Open a parser for a report, using the cached bug instances if the report has been
+   * seen before, and otherwise parsing the report with `factory` and caching the result.
+   *
+   * <p>Reports read from standard input are never cached.
+   *
+   * @param path Path to the report.
+   *
+   * @param factory Used to open a parser on a cache miss.
+   *
+   * @return A parser over the bug instances of the report.
+   *
+   * @throws FileNotFoundException Thrown if the given file path does not exist.
+   *
+   * @throws ParserException Thrown if there are any syntax or semantic errors in the report.
+   */
+  public ReportParser open(String path, MergedReportReader.ParserFactory factory) throws
+      FileNotFoundException, ParserException {
+
+    if (path.equals(ReportInput.standardInputPath)) {
+      return factory.open(path);
+    }
+
+    String key;
+
+    try {
+      key = hash(Paths.get(path));
+    } catch (IOException e) {
+      // Let the parser report the problem with the file in the usual way.
+      return factory.open(path);
+    }
+
+    List<BugInstance> bugInstances = load(key);
+
+    if (bugInstances == null) {
+      bugInstances = parse(path, factory);
+      store(key, bugInstances);
+    }
+
+    return new ListReportParser(bugInstances);
+  }
+
+  /**
+   * Load the bug instances cached under a key.
+   *
+   * @return The bug instances, or `null` if there is no usable entry.
+   */
+  List<BugInstance> load(String key) {
+    Path entry = directory.resolve(key + extension);
+
+    if (!Files.isRegularFile(entry)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      List<BugInstance> bugInstances = BinaryReportCodec.decode(buffer);
+
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+
+      return bugInstances;
+
+    } catch (IOException e) {
+      delete(entry);
+      return null;
+    }
+  }
+
+  /**
+   * Cache bug instances under a key, then evict entries until the cache is within its
+   * maximum size.
+   */
+  synchronized void store(String key, List<BugInstance> bugInstances) {
+    Path temporary = null;
+
+    try {
+      Files.createDirectories(directory);
+
+      // Written to a temporary file first, so that a concurrent reader never sees a
+      // partially written entry.
+      temporary = Files.createTempFile(directory, key, ".tmp");
+
+      try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+        BinaryReportCodec.encode(bugInstances, output);
+      }
+
+      Files.move(
+          temporary,
+          directory.resolve(key + extension),
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING
+      );
+
+      evict();
+
+    } catch (IOException e) {
+      if (temporary != null) {
+        delete(temporary);
+      }
+    }
+  }
+
+  static String hash(Path path) throws IOException {
+    MessageDigest digest;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(hashBufferSize);
+
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+
+    StringBuilder key = new StringBuilder();
+
+    for (byte value : digest.digest()) {
+      key.append(Character.forDigit((value >> 4) & 0xf, 16));
+      key.append(Character.forDigit(value & 0xf, 16));
+    }
+
+    return key.toString();
+  }
+
+  private static List<BugInstance> parse(String path, MergedReportReader.ParserFactory factory)
+      throws FileNotFoundException, ParserException {
+
+    ReportParser parser = factory.open(path);
+
+    try {
+      return parser.getBugInstances();
+
+    } finally {
+      try {
+        parser.close();
+      } catch (IOException e) {
+        // The report has been read in full, so there is nothing left to lose.
+      }
+    }
+  }
+
+  private void evict() throws IOException {
+    Map<Path, FileTime> times = new HashMap<>();
+
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + extension)) {
+      for (Path entry : stream) {
+        times.put(entry, Files.getLastModifiedTime(entry));
+      }
+    }
+
+    List<Path> entries = new ArrayList<>(times.keySet());
+
+    // Most recently used first.
+    entries.sort(Comparator.comparing((Path entry) -> times.get(entry)).reversed());
+
+    long size = 0;
+
+    for (Path entry : entries) {
+      size += Files.size(entry);
+
+      if (size > maximumSize) {
+        delete(entry);
+      }
+    }
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      // Removed by another process, or not ours to remove; either way it is not in use.
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+
+/**
+ * Writes bug instances to an {@link OutputSink} in a particular format.
+ *
+ * <p>Each bug instance is serialised as soon as it is written, so a report of any size
+ * can be formatted without holding it in memory. {@link #begin()} must be called before
+ * any bug instance is written, and {@link #end()} after the last.
+ */
+public interface ReportFormatter {
+  /**
+   * Write anything which must precede the first bug instance.
+   *
+   * @throws IOException Thrown if the output could not be written.
+   */
+  default void begin() throws IOException {
+  }
+
+  /**
+   * Write a bug instance.
+   *
+   * @param instance The bug instance.
+   *
+   * @throws IOException Thrown if the output could not be written.
+   */
+  void write(BugInstance instance) throws IOException;
+
+  /**
+   * Write a bug instance which is in the baseline but no longer in the report.
+   *
+   * @param instance The bug instance.
+   *
+   * @throws IOException Thrown if the output could not be written.
+   */
+  void writeFixed(BugInstance instance) throws IOException;
+
+  /**
+   * Write anything which must follow the last bug instance.
+   *
+   * @throws IOException Thrown if the output could not be written.
+   */
+  default void end() throws IOException {
+  }
+}
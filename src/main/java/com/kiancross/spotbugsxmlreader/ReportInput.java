@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.BufferedInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens the input for a report, given the path passed on the command line.
+ *
+ * <p>Files are read through a {@link FileChannel} with a large buffer, to avoid the
+ * overhead of many small reads. Reports compressed with gzip are detected by their
+ * magic number and decompressed as they are read. The path `-` reads from standard
+ * input.
+ */
+final class ReportInput {
+  static final String standardInputPath = "-";
+
+  private static final int bufferSize = 1 << 16;
+
+  private ReportInput() {
+  }
+
+  /**
+   * Open the report at the given path.
+   *
+   * @param path Path to the report, or `-` for standard input.
+   *
+   * @return A buffered stream of the (decompressed) report.
+   *
+   * @throws FileNotFoundException Thrown if the file cannot be opened.
+   *
+   * @throws ParserException Thrown if the start of the report cannot be read.
+   */
+  static InputStream open(String path) throws FileNotFoundException, ParserException {
+    InputStream input = path.equals(standardInputPath)
+        ? new UnclosableInputStream(System.in)
+        : openFile(path);
+
+    try {
+      return decompress(new BufferedInputStream(input, bufferSize));
+
+    } catch (IOException e) {
+      try {
+        input.close();
+      } catch (IOException closeException) {
+        e.addSuppressed(closeException);
+      }
+
+      throw new ParserException("Unable to read report: %s", e.getMessage());
+    }
+  }
+
+  // Failures are reported in the same way as `FileInputStream`, which throws a
+  // `FileNotFoundException` whenever a file cannot be opened.
+  private static InputStream openFile(String path) throws FileNotFoundException {
+    String reason;
+
+    try {
+      Path file = Paths.get(path);
+
+      // A channel can be opened on a directory on some platforms, only failing on the
+      // first read.
+      if (Files.isDirectory(file)) {
+        reason = "Is a directory";
+
+      } else {
+        return Channels.newInputStream(FileChannel.open(file));
+      }
+
+    } catch (NoSuchFileException e) {
+      reason = "No such file or directory";
+
+    } catch (AccessDeniedException e) {
+      reason = "Permission denied";
+
+    } catch (IOException | InvalidPathException e) {
+      reason = e.getMessage();
+    }
+
+    throw new FileNotFoundException(String.format("%s (%s)", path, reason));
+  }
+
+  private static InputStream decompress(BufferedInputStream input) throws IOException {
+    input.mark(2);
+
+    boolean isGzip = input.read() == (GZIPInputStream.GZIP_MAGIC & 0xff)
+        && input.read() == (GZIPInputStream.GZIP_MAGIC >>> 8);
+
+    input.reset();
+
+    return isGzip ? new GZIPInputStream(input, bufferSize) : input;
+  }
+
+  // Standard input belongs to the process, so it is left open when the report is closed.
+  private static class UnclosableInputStream extends FilterInputStream {
+    UnclosableInputStream(InputStream input) {
+      super(input);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
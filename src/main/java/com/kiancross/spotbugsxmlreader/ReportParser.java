@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A parser capable of extracting {@link BugInstance}s from a SpotBugs XML report.
+ *
+ * <p>Parsers may hold on to the underlying input until they are closed.
+ */
+public interface ReportParser extends Closeable {
+  /**
+   * Get all bug instances from the parsed XML file.
+   *
+   * @return List of {@link BugInstance} from the XML file.
+   *
+   * @throws ParserException Thrown if there are any semantic errors in the XML file.
+   */
+  List<BugInstance> getBugInstances() throws ParserException;
+
+  /**
+   * Get an iterator which converts bug instances lazily, as they are requested.
+   *
+   * <p>Errors in the XML file are thrown from the iterator as an
+   * {@link UncheckedParserException}.
+   *
+   * @return Iterator over the {@link BugInstance}s in the XML file.
+   */
+  Iterator<BugInstance> iterator();
+
+  /**
+   * Get a sequential stream which converts bug instances lazily, as they are consumed.
+   *
+   * <p>Closing the stream closes the parser. Errors in the XML file are thrown from
+   * the stream as an {@link UncheckedParserException}.
+   *
+   * @return Stream of the {@link BugInstance}s in the XML file.
+   */
+  default Stream<BugInstance> stream() {
+    Spliterator<BugInstance> spliterator = Spliterators.spliteratorUnknownSize(
+        iterator(),
+        Spliterator.ORDERED | Spliterator.NONNULL
+    );
+
+    return StreamSupport.stream(spliterator, false).onClose(() -> {
+      try {
+        close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An HTTP server which answers queries about reports held in memory, so that tools can
+ * query a report repeatedly without parsing it each time.
+ *
+ * <p>The server only listens on the loopback address. All responses are JSON. Queries
+ * are answered from a {@link BugInstanceIndex}, so their cost depends on the size of
+ * the response rather than of the report. The
+ * following endpoints are available, all of which only accept `GET` requests:
+ *
+ * <ul>
+ *   <li>`/findings?file=path` lists findings, optionally only those whose source path
+ *       or relative source path is `path`, ordered by line.</li>
+ *   <li>`/errors?threshold=n` lists findings which are errors at the given threshold,
+ *       or at the threshold the server was started with.</li>
+ *   <li>`/counts?by=key` counts findings by `category` (the default), `priority` or
+ *       `file`.</li>
+ *   <li>`/metrics` reports the number of requests to each endpoint and their latency
+ *       percentiles.</li>
+ * </ul>
+ */
+public class ReportServer implements Closeable {
+  private static final int latencyWindow = 10000;
+  private static final int maximumThreshold = 3;
+
+  @FunctionalInterface
+  private interface QueryHandler {
+    void handle(Map<String, String> query, JsonWriter json) throws IOException;
+  }
+
+  private final CompactBugInstanceStore store;
+  private final BugInstanceIndex index;
+  private final int defaultThreshold;
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  /**
+   * Start serving queries.
+   *
+   * @param store The findings to serve.
+   *
+   * @param port The port to listen on, or zero to use any free port.
+   *
+   * @param threads The number of requests to handle at once.
+   *
+   * @param defaultThreshold The threshold used by `/errors` when none is given.
+   *
+   * @throws IOException Thrown if the server could not be started.
+   */
+  public ReportServer(CompactBugInstanceStore store, int port, int threads,
+      int defaultThreshold) throws IOException {
+
+    this.store = store;
+    this.index = new BugInstanceIndex(store);
+    this.defaultThreshold = defaultThreshold;
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+
+    addEndpoint("/findings", this::findings);
+    addEndpoint("/errors", this::errors);
+    addEndpoint("/counts", this::counts);
+    addEndpoint("/metrics", this::metrics);
+
+    server.createContext("/", exchange -> {
+      try {
+        respondWithError(exchange, 404, "Not found.");
+      } finally {
+        exchange.close();
+      }
+    });
+
+    executor = Executors.newFixedThreadPool(threads);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Wait until the server has been closed.
+   *
+   * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+   */
+  public void await() throws InterruptedException {
+    stopped.await();
+  }
+
+  /**
+   * Stop the server, waiting briefly for requests in progress to complete.
+   */
+  @Override
+  public void close() {
+    server.stop(1);
+    executor.shutdownNow();
+    stopped.countDown();
+  }
+
+  private void addEndpoint(String path, QueryHandler handler) {
+    // Every endpoint is registered up front, so the map is never modified afterwards
+    // and can safely be read from any thread.
+    LatencyRecorder latency = new LatencyRecorder(latencyWindow);
+    latencies.put(path.substring(1), latency);
+
+    server.createContext(path, exchange -> {
+      long start = System.nanoTime();
+
+      try {
+        handle(exchange, path, handler);
+      } finally {
+        exchange.close();
+        latency.record(System.nanoTime() - start);
+      }
+    });
+  }
+
+  private void handle(HttpExchange exchange, String path, QueryHandler handler) throws
+      IOException {
+
+    if (!exchange.getRequestURI().getPath().equals(path)) {
+      respondWithError(exchange, 404, "Not found.");
+      return;
+    }
+
+    if (!exchange.getRequestMethod().equals("GET")) {
+      exchange.getResponseHeaders().set("Allow", "GET");
+      respondWithError(exchange, 405, "Method not allowed.");
+      return;
+    }
+
+    StringBuilder body = new StringBuilder();
+
+    try {
+      handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()), new JsonWriter(body));
+    } catch (IllegalArgumentException e) {
+      respondWithError(exchange, 400, e.getMessage());
+      return;
+    }
+
+    respond(exchange, 200, body);
+  }
+
+  private void findings(Map<String, String> query, JsonWriter json) throws IOException {
+    String file = query.get("file");
+
+    json.beginObject().name("findings").beginArray();
+
+    if (file == null) {
+      for (int i = 0; i < store.size(); i++) {
+        writeFinding(json, i);
+      }
+
+    } else {
+      for (int i : index.findByFile(file)) {
+        writeFinding(json, i);
+      }
+    }
+
+    json.endArray().endObject();
+  }
+
+  private void errors(Map<String, String> query, JsonWriter json) throws IOException {
+    int threshold = getThreshold(query);
+
+    json.beginObject().name("threshold").value(threshold).name("findings").beginArray();
+
+    for (int i : index.findErrors(threshold)) {
+      writeFinding(json, i);
+    }
+
+    json.endArray().endObject();
+  }
+
+  private void counts(Map<String, String> query, JsonWriter json) throws IOException {
+    String key = query.getOrDefault("by", "category");
+
+    // Sorted, so that responses are deterministic.
+    Map<String, Integer> counts = new TreeMap<>();
+
+    if (key.equals("category")) {
+      counts.putAll(index.countByCategory());
+
+    } else if (key.equals("priority")) {
+      for (Map.Entry<Integer, Integer> count : index.countByPriority().entrySet()) {
+        counts.put(Integer.toString(count.getKey()), count.getValue());
+      }
+
+    } else if (key.equals("file")) {
+      counts.putAll(index.countByFile());
+
+    } else {
+      throw new IllegalArgumentException("Invalid argument for `by`.");
+    }
+
+    json.beginObject().name("by").value(key).name("counts").beginObject();
+
+    for (Map.Entry<String, Integer> count : counts.entrySet()) {
+      json.name(count.getKey()).value(count.getValue());
+    }
+
+    json.endObject().endObject();
+  }
+
+  private void metrics(Map<String, String> query, JsonWriter json) throws IOException {
+    json.beginObject().name("endpoints").beginObject();
+
+    for (Map.Entry<String, LatencyRecorder> entry : latencies.entrySet()) {
+      LatencyRecorder latency = entry.getValue();
+
+      json.name(entry.getKey()).beginObject()
+          .name("requests").value(latency.getCount())
+          .name("p50Micros").value(latency.getPercentile(50) / 1000)
+          .name("p99Micros").value(latency.getPercentile(99) / 1000)
+          .name("maxMicros").value(latency.getMaximum() / 1000)
+          .endObject();
+    }
+
+    json.endObject().endObject();
+  }
+
+  private void writeFinding(JsonWriter json, int index) throws IOException {
+    json.beginObject()
+        .name("sourcePath").value(store.getSourcePath(index))
+        .name("relativeSourcePath").value(store.getRelativeSourcePath(index))
+        .name("startLine").value(store.getStartLine(index))
+        .name("startColumn").value(store.getStartColumn(index))
+        .name("category").value(store.getCategory(index))
+        .name("type").value(store.getType(index))
+        .name("className").value(store.getClassName(index))
+        .name("methodName").value(store.getMethodName(index))
+        .name("priority").value(store.getPriority(index))
+        .name("message").value(store.getMessage(index))
+        .endObject();
+  }
+
+  private int getThreshold(Map<String, String> query) {
+    String threshold = query.get("threshold");
+
+    if (threshold == null) {
+      return defaultThreshold;
+    }
+
+    try {
+      int value = Integer.parseInt(threshold);
+
+      if (value < 0 || value > maximumThreshold) {
+        throw new NumberFormatException();
+      }
+
+      return value;
+
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid argument for `threshold`.");
+    }
+  }
+
+  private static Map<String, String> parseQuery(String rawQuery) {
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, String> query = new HashMap<>();
+
+    for (String parameter : rawQuery.split("&")) {
+      int separator = parameter.indexOf('=');
+
+      String name = separator == -1 ? parameter : parameter.substring(0, separator);
+      String value = separator == -1 ? "" : parameter.substring(separator + 1);
+
+      query.put(
+          URLDecoder.decode(name, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8)
+      );
+    }
+
+    return query;
+  }
+
+  private static void respondWithError(HttpExchange exchange, int status, String message)
+      throws IOException {
+
+    StringBuilder body = new StringBuilder();
+    new JsonWriter(body).beginObject().name("error").value(message).endObject();
+
+    respond(exchange, status, body);
+  }
+
+  private static void respond(HttpExchange exchange, int status, CharSequence body) throws
+      IOException {
+
+    byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+}
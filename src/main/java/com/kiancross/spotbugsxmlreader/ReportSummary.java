@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Aggregate counts of the bug instances in a report: in total, per category, per
+ * priority, per source directory and for the files with the most findings.
+ *
+ * <p>Bug instances are counted as they are added and are not retained, so a summary of
+ * a report can be computed in a single pass over a stream of any length. Memory use
+ * grows only with the number of distinct categories, priorities and files.
+ */
+public class ReportSummary {
+  /**
+   * The formats a summary can be written in.
+   */
+  public enum Format {
+    TABLE,
+    JSON
+  }
+
+  private static final Comparator<Map.Entry<String, Integer>> byCountDescending =
+      Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue).reversed()
+          .thenComparing(Map.Entry::getKey);
+
+  private final int severityThreshold;
+
+  private int total;
+  private int errors;
+
+  private final Map<String, Counter> categories = new HashMap<>();
+  private final Map<Integer, Counter> priorities = new HashMap<>();
+  private final Map<String, Counter> sourceDirectories = new HashMap<>();
+  private final Map<String, Counter> files = new HashMap<>();
+
+  /**
+   * Construct an empty summary.
+   *
+   * @param severityThreshold The error severity threshold, used to count errors.
+   */
+  public ReportSummary(int severityThreshold) {
+    this.severityThreshold = severityThreshold;
+  }
+
+  /**
+   * Compute the summary of every bug instance in a stream.
+   *
+   * @param instances The bug instances, which are consumed in a single pass.
+   *
+   * @param severityThreshold The error severity threshold, used to count errors.
+   *
+   * @return The summary.
+   */
+  public static ReportSummary of(Iterator<BugInstance> instances, int severityThreshold) {
+    ReportSummary summary = new ReportSummary(severityThreshold);
+
+    while (instances.hasNext()) {
+      summary.add(instances.next());
+    }
+
+    return summary;
+  }
+
+  /**
+   * Count a bug instance.
+   *
+   * @param instance The bug instance.
+   */
+  public void add(BugInstance instance) {
+    total++;
+
+    if (instance.isError(severityThreshold)) {
+      errors++;
+    }
+
+    increment(categories, orEmpty(instance.getCategory()));
+    increment(priorities, instance.getPriority());
+    increment(sourceDirectories, getSourceDirectory(instance));
+    increment(files, orEmpty(instance.getSourcePath()));
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public int getErrors() {
+    return errors;
+  }
+
+  public int getWarnings() {
+    return total - errors;
+  }
+
+  /**
+   * Get the number of bug instances in each category.
+   *
+   * @return Categories and their counts, from the most to the least findings.
+   */
+  public List<Map.Entry<String, Integer>> getCategoryCounts() {
+    return sortByCount(categories);
+  }
+
+  /**
+   * Get the number of bug instances with each priority.
+   *
+   * @return Priorities and their counts, from the most to the least severe priority.
+   */
+  public List<Map.Entry<Integer, Integer>> getPriorityCounts() {
+    List<Map.Entry<Integer, Integer>> counts = new ArrayList<>(priorities.size());
+
+    for (Map.Entry<Integer, Counter> entry : priorities.entrySet()) {
+      counts.add(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().count));
+    }
+
+    counts.sort(Map.Entry.comparingByKey());
+
+    return counts;
+  }
+
+  /**
+   * Get the number of bug instances in each source directory, that is, the `SrcDir` each
+   * source file was found in.
+   *
+   * @return Source directories and their counts, from the most to the least findings.
+   */
+  public List<Map.Entry<String, Integer>> getSourceDirectoryCounts() {
+    return sortByCount(sourceDirectories);
+  }
+
+  /**
+   * Get the files with the most bug instances.
+   *
+   * <p>Only a heap of `limit` entries is kept while selecting, rather than sorting every
+   * file.
+   *
+   * @param limit The maximum number of files to return.
+   *
+   * @return Source paths and their counts, from the most to the least findings. Ties are
+   *         ordered by path.
+   */
+  public List<Map.Entry<String, Integer>> getTopFiles(int limit) {
+    if (limit <= 0) {
+      return new ArrayList<>();
+    }
+
+    // The heap holds the best entries so far, with the worst of them at its head.
+    PriorityQueue<Map.Entry<String, Integer>> heap =
+        new PriorityQueue<>(limit + 1, byCountDescending.reversed());
+
+    for (Map.Entry<String, Counter> entry : files.entrySet()) {
+      heap.add(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().count));
+
+      if (heap.size() > limit) {
+        heap.poll();
+      }
+    }
+
+    List<Map.Entry<String, Integer>> top = new ArrayList<>(heap.size());
+
+    while (!heap.isEmpty()) {
+      top.add(heap.poll());
+    }
+
+    Collections.reverse(top);
+
+    return top;
+  }
+
+  /**
+   * Write the summary.
+   *
+   * @param output Where to write the summary.
+   *
+   * @param format The format to write the summary in.
+   *
+   * @param topFiles The number of files to include in the list of files with the most
+   *                 findings.
+   *
+   * @throws IOException Thrown if the summary could not be written.
+   */
+  public void write(OutputSink output, Format format, int topFiles) throws IOException {
+    if (format == Format.JSON) {
+      writeJson(output, topFiles);
+    } else {
+      writeTable(output, topFiles);
+    }
+  }
+
+  private void writeTable(OutputSink output, int topFiles) throws IOException {
+    output.append(String.format(
+        "Findings: %d (%d errors, %d warnings)", total, errors, getWarnings()
+    )).newLine();
+
+    List<Map.Entry<String, Integer>> priorityCounts = new ArrayList<>();
+
+    for (Map.Entry<Integer, Integer> entry : getPriorityCounts()) {
+      String priority = entry.getKey().toString();
+      priorityCounts.add(new SimpleImmutableEntry<>(priority, entry.getValue()));
+    }
+
+    appendTable(output, "Category", getCategoryCounts());
+    appendTable(output, "Priority", priorityCounts);
+    appendTable(output, "Source directory", getSourceDirectoryCounts());
+    appendTable(output, "File", getTopFiles(topFiles));
+  }
+
+  private static void appendTable(
+      OutputSink output,
+      String heading,
+      List<Map.Entry<String, Integer>> rows
+  ) throws IOException {
+
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    int nameWidth = heading.length();
+    int countWidth = "Count".length();
+
+    for (Map.Entry<String, Integer> row : rows) {
+      nameWidth = Math.max(nameWidth, row.getKey().length());
+      countWidth = Math.max(countWidth, row.getValue().toString().length());
+    }
+
+    String format = "%-" + nameWidth + "s  %" + countWidth + "s";
+
+    output.newLine();
+    output.append(String.format(format, heading, "Count")).newLine();
+
+    for (Map.Entry<String, Integer> row : rows) {
+      output.append(String.format(format, row.getKey(), row.getValue())).newLine();
+    }
+  }
+
+  private void writeJson(OutputSink output, int topFiles) throws IOException {
+    JsonWriter json = new JsonWriter(output);
+
+    json.beginObject()
+        .name("total").value(total)
+        .name("errors").value(errors)
+        .name("warnings").value(getWarnings());
+
+    json.name("categories").beginObject();
+
+    for (Map.Entry<String, Integer> entry : getCategoryCounts()) {
+      json.name(entry.getKey()).value(entry.getValue());
+    }
+
+    json.endObject().name("priorities").beginObject();
+
+    for (Map.Entry<Integer, Integer> entry : getPriorityCounts()) {
+      json.name(entry.getKey().toString()).value(entry.getValue());
+    }
+
+    json.endObject().name("sourceDirectories").beginObject();
+
+    for (Map.Entry<String, Integer> entry : getSourceDirectoryCounts()) {
+      json.name(entry.getKey()).value(entry.getValue());
+    }
+
+    json.endObject().name("topFiles").beginArray();
+
+    for (Map.Entry<String, Integer> entry : getTopFiles(topFiles)) {
+      json.beginObject()
+          .name("path").value(entry.getKey())
+          .name("count").value(entry.getValue())
+          .endObject();
+    }
+
+    json.endArray().endObject();
+    output.newLine();
+  }
+
+  // The source path is the source directory joined with the relative path, less its
+  // first segment, which is the last segment of the source directory.
+  static String getSourceDirectory(BugInstance instance) {
+    String sourcePath = instance.getSourcePath();
+    String relativePath = instance.getRelativeSourcePath();
+
+    if (sourcePath == null) {
+      return "";
+    }
+
+    if (relativePath != null) {
+      int separator = relativePath.indexOf('/');
+      String suffix = File.separator
+          + relativePath.substring(separator + 1).replace('/', File.separatorChar);
+
+      if (separator >= 0 && sourcePath.endsWith(suffix)) {
+        return sourcePath.substring(0, sourcePath.length() - suffix.length());
+      }
+    }
+
+    try {
+      Path parent = Paths.get(sourcePath).getParent();
+      return parent == null ? "" : parent.toString();
+
+    } catch (InvalidPathException e) {
+      return "";
+    }
+  }
+
+  private static String orEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  private static <K> void increment(Map<K, Counter> counters, K key) {
+    Counter counter = counters.get(key);
+
+    if (counter == null) {
+      counter = new Counter();
+      counters.put(key, counter);
+    }
+
+    counter.count++;
+  }
+
+  private static List<Map.Entry<String, Integer>> sortByCount(Map<String, Counter> counters) {
+    List<Map.Entry<String, Integer>> counts = new ArrayList<>(counters.size());
+
+    for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+      counts.add(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().count));
+    }
+
+    counts.sort(byCountDescending);
+
+    return counts;
+  }
+
+  // A mutable count, so that each finding costs a map lookup rather than a boxed update.
+  private static final class Counter {
+    private int count;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for report files to change.
+ *
+ * <p>The directory containing each report is watched, so that reports which are
+ * replaced, rather than written in place, are still noticed. Tools often write a report
+ * in several steps, so a change is only signalled once the reports have been quiet for
+ * the debounce period.
+ */
+public class ReportWatcher implements Closeable {
+  /**
+   * The default time to wait for further changes before signalling a change, in
+   * milliseconds.
+   */
+  public static final long defaultDebounceMillis = 100;
+
+  private final WatchService watchService;
+  private final Set<Path> reports = new HashSet<>();
+  private final long debounceMillis;
+
+  /**
+   * Start watching reports.
+   *
+   * @param paths Paths of the reports to watch.
+   *
+   * @param debounceMillis Time to wait for further changes before signalling a change.
+   *
+   * @throws IOException Thrown if the directory of a report cannot be watched.
+   */
+  public ReportWatcher(List<Path> paths, long debounceMillis) throws IOException {
+    this.debounceMillis = debounceMillis;
+
+    watchService = FileSystems.getDefault().newWatchService();
+
+    try {
+      Set<Path> directories = new HashSet<>();
+
+      for (Path path : paths) {
+        Path report = path.toAbsolutePath().normalize();
+        reports.add(report);
+
+        if (directories.add(report.getParent())) {
+          report.getParent().register(
+              watchService,
+              StandardWatchEventKinds.ENTRY_CREATE,
+              StandardWatchEventKinds.ENTRY_MODIFY
+          );
+        }
+      }
+
+    } catch (IOException e) {
+      watchService.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Wait until a report changes, and then until no report has changed for the debounce
+   * period.
+   *
+   * @return `true` once a report has changed, or `false` if the watcher has been closed.
+   *
+   * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+   */
+  public boolean awaitChange() throws InterruptedException {
+    try {
+      WatchKey key = watchService.take();
+
+      while (!isRelevant(key)) {
+        key = watchService.take();
+      }
+
+      while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+        isRelevant(key);
+      }
+
+      return true;
+
+    } catch (ClosedWatchServiceException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Stop watching. Any thread waiting in {@link #awaitChange()} returns `false`.
+   *
+   * @throws IOException Thrown if the underlying watch service could not be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+  }
+
+  // Consumes the events of a key, and re-arms it for further events.
+  private boolean isRelevant(WatchKey key) {
+    Path directory = (Path) key.watchable();
+    boolean relevant = false;
+
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        relevant = true;
+
+      } else if (reports.contains(directory.resolve((Path) event.context()))) {
+        relevant = true;
+      }
+    }
+
+    key.reset();
+
+    return relevant;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
+/**
+ * Writes a SARIF 2.1.0 log with a single run, containing a result per bug instance.
+ *
+ * <p>The rule of each result is the bug type, and its location is the absolute source
+ * path as a `file` URI. Bug instances which are only in the baseline are written with
+ * a `baselineState` of `absent`.
+ */
+final class SarifFormatter implements ReportFormatter {
+  private static final String schema = "https://json.schemastore.org/sarif-2.1.0.json";
+  private static final String toolName = "SpotBugs";
+  private static final String toolUri = "https://spotbugs.github.io";
+
+  private final OutputSink output;
+  private final JsonWriter json;
+  private final int severityThreshold;
+
+  SarifFormatter(OutputSink output, int severityThreshold) {
+    this.output = output;
+    this.json = new JsonWriter(output);
+    this.severityThreshold = severityThreshold;
+  }
+
+  @Override
+  public void begin() throws IOException {
+    json.beginObject()
+        .name("$schema").value(schema)
+        .name("version").value("2.1.0")
+        .name("runs").beginArray()
+        .beginObject()
+        .name("tool").beginObject()
+        .name("driver").beginObject()
+        .name("name").value(toolName)
+        .name("informationUri").value(toolUri)
+        .endObject()
+        .endObject()
+        .name("results").beginArray();
+  }
+
+  @Override
+  public void write(BugInstance instance) throws IOException {
+    write(instance, instance.isError(severityThreshold) ? "error" : "warning", null);
+  }
+
+  @Override
+  public void writeFixed(BugInstance instance) throws IOException {
+    write(instance, "none", "absent");
+  }
+
+  @Override
+  public void end() throws IOException {
+    json.endArray().endObject().endArray().endObject();
+    output.newLine();
+  }
+
+  private void write(BugInstance instance, String level, String baselineState)
+      throws IOException {
+
+    json.beginObject()
+        .name("ruleId").value(instance.getType())
+        .name("level").value(level);
+
+    if (baselineState != null) {
+      json.name("baselineState").value(baselineState);
+    }
+
+    json.name("message").beginObject()
+        .name("text").value(instance.getMessage())
+        .endObject();
+
+    json.name("locations").beginArray().beginObject()
+        .name("physicalLocation").beginObject()
+        .name("artifactLocation").beginObject()
+        .name("uri").value(toUri(instance.getSourcePath()))
+        .endObject();
+
+    if (instance.getStartLine() > 0) {
+      json.name("region").beginObject()
+          .name("startLine").value(instance.getStartLine())
+          .endObject();
+    }
+
+    json.endObject();
+
+    String className = instance.getClassName();
+
+    if (className != null && !className.isEmpty()) {
+      String methodName = instance.getMethodName();
+      boolean hasMethod = methodName != null && !methodName.isEmpty();
+
+      json.name("logicalLocations").beginArray().beginObject()
+          .name("fullyQualifiedName").value(hasMethod ? className + "." + methodName : className)
+          .name("kind").value(hasMethod ? "function" : "type")
+          .endObject().endArray();
+    }
+
+    json.endObject().endArray();
+
+    json.name("properties").beginObject()
+        .name("category").value(instance.getCategory())
+        .name("priority").value(instance.getPriority())
+        .endObject();
+
+    json.endObject();
+  }
+
+  private static String toUri(String path) {
+    if (path == null) {
+      return null;
+    }
+
+    try {
+      return Paths.get(path).toUri().toString();
+    } catch (InvalidPathException e) {
+      return path;
+    }
+  }
+}
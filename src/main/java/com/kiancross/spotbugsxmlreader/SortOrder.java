@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.Comparator;
+
+/**
+ * The orders bug instances can be output in, other than document order.
+ */
+public enum SortOrder {
+  /**
+   * By source path, then line and column.
+   */
+  FILE(byLocation()),
+
+  /**
+   * By priority, from the most to the least severe, then by location.
+   */
+  PRIORITY(Comparator.comparingInt(BugInstance::getPriority).thenComparing(byLocation())),
+
+  /**
+   * By category, then by location.
+   */
+  CATEGORY(Comparator.comparing(BugInstance::getCategory, nullsFirst())
+      .thenComparing(byLocation()));
+
+  private final Comparator<BugInstance> comparator;
+
+  SortOrder(Comparator<BugInstance> comparator) {
+    this.comparator = comparator;
+  }
+
+  public Comparator<BugInstance> getComparator() {
+    return comparator;
+  }
+
+  // Methods rather than constants, since the constants of an enum are initialised before
+  // its other static fields.
+  static Comparator<BugInstance> byLocation() {
+    return Comparator.comparing(BugInstance::getSourcePath, nullsFirst())
+        .thenComparingInt(BugInstance::getStartLine)
+        .thenComparingInt(BugInstance::getStartColumn);
+  }
+
+  static Comparator<String> nullsFirst() {
+    return Comparator.nullsFirst(Comparator.naturalOrder());
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the `relSourcepath` of a `SourceLine` against the `SrcDir`s of a report.
+ *
+ * <p>The first segment of a relative path is matched against the end of each source
+ * directory, and the first directory that matches is used. Matches are memoised by
+ * segment, so each distinct segment only scans the source directories once, and
+ * resolved paths are memoised in full, so repeated files are resolved without any
+ * allocation. Both caches are safe to use from several threads.
+ */
+class SourcePathResolver {
+  private static final Pattern separator = Pattern.compile(Pattern.quote(File.separator));
+
+  // Used in place of an index when no source directory matches a segment.
+  private static final int notFound = -1;
+
+  private final String[] sourceDirectories;
+  private final Map<String, Integer> directoryIndexes = new ConcurrentHashMap<>();
+  private final Map<String, String> resolvedPaths = new ConcurrentHashMap<>();
+
+  SourcePathResolver(String[] sourceDirectories) {
+    this.sourceDirectories = sourceDirectories.clone();
+  }
+
+  String resolve(String relativePath) throws ParserException {
+    String path = resolvedPaths.get(relativePath);
+
+    if (path == null) {
+      path = toAbsolutePath(relativePath);
+      resolvedPaths.putIfAbsent(relativePath, path);
+    }
+
+    return path;
+  }
+
+  private String toAbsolutePath(String relativePath) throws ParserException {
+    String[] parts = separator.split(relativePath);
+
+    int index = getDirectoryIndex(parts[0]);
+
+    if (index == notFound) {
+      throw new ParserException("Source path not included in source paths");
+    }
+
+    parts[0] = "";
+    return Paths.get(sourceDirectories[index], parts).toString();
+  }
+
+  private int getDirectoryIndex(String segment) {
+    Integer index = directoryIndexes.get(segment);
+
+    if (index == null) {
+      index = findDirectoryIndex(segment);
+      directoryIndexes.putIfAbsent(segment, index);
+    }
+
+    return index;
+  }
+
+  private int findDirectoryIndex(String segment) {
+    for (int i = 0; i < sourceDirectories.length; i++) {
+      if (sourceDirectories[i].endsWith(segment)) {
+        return i;
+      }
+    }
+
+    return notFound;
+  }
+}
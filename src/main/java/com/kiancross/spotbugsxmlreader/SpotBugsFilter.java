@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Reads SpotBugs filter files, as passed to SpotBugs with `-exclude`.
+ *
+ * <p>The following elements are supported: `Match`, `Bug` (with `pattern` and
+ * `category`), `Class`, `Package`, `Method` and `Source` (with `name`), `Priority` and
+ * `Confidence` (with `value`), `And`, `Or` and `Not`. As with SpotBugs, names starting
+ * with `~` are regular expressions. Anything else is rejected, rather than ignored, since
+ * ignoring part of a `Match` would exclude more than intended.
+ */
+final class SpotBugsFilter {
+  private SpotBugsFilter() {
+  }
+
+  /**
+   * A condition on the raw attributes of a `BugInstance`.
+   */
+  @FunctionalInterface
+  interface Clause {
+    boolean matches(
+        String category,
+        int priority,
+        String type,
+        String className,
+        String methodName,
+        String relativeSourcePath
+    );
+  }
+
+  /**
+   * Read a filter file into a single clause, which matches any of its `Match` elements.
+   */
+  static Clause read(InputStream input) throws ParserException {
+    Element root = XmlParserPool.getDefault().parseDocument(input).getDocumentElement();
+
+    if (!root.getTagName().equals("FindBugsFilter")) {
+      throw new ParserException(
+          "Filter must have `%s` as its root element, not `%s`.",
+          "FindBugsFilter",
+          root.getTagName()
+      );
+    }
+
+    List<Clause> matches = new ArrayList<Clause>();
+
+    for (Element element: getChildElements(root)) {
+      if (!element.getTagName().equals("Match")) {
+        throw new ParserException("Unsupported filter element `%s`.", element.getTagName());
+      }
+
+      matches.add(readClause(element));
+    }
+
+    return any(matches);
+  }
+
+  private static Clause readClause(Element element) throws ParserException {
+    String tagName = element.getTagName();
+
+    switch (tagName) {
+      case "Match":
+      case "And":
+        checkAttributes(element);
+        return all(readChildClauses(element));
+
+      case "Or":
+        checkAttributes(element);
+        return any(readChildClauses(element));
+
+      case "Not": {
+        checkAttributes(element);
+        List<Clause> children = readChildClauses(element);
+
+        if (children.size() != 1) {
+          throw new ParserException("`Not` must contain exactly one element.");
+        }
+
+        Clause child = children.get(0);
+        return (c, p, t, cl, m, s) -> !child.matches(c, p, t, cl, m, s);
+      }
+
+      case "Bug":
+        return readBug(element);
+
+      case "Class": {
+        NameMatcher name = readName(element);
+        return (c, p, t, cl, m, s) -> name.matches(cl);
+      }
+
+      case "Package": {
+        NameMatcher name = readName(element);
+        return (c, p, t, cl, m, s) -> name.matches(getPackageName(cl));
+      }
+
+      case "Method": {
+        NameMatcher name = readName(element);
+        return (c, p, t, cl, m, s) -> name.matches(m);
+      }
+
+      case "Source": {
+        NameMatcher name = readName(element);
+        return (c, p, t, cl, m, s) -> name.matches(s) || name.matches(getFileName(s));
+      }
+
+      case "Priority":
+      case "Confidence": {
+        checkAttributes(element, "value");
+        int value = readInteger(element, "value");
+        return (c, p, t, cl, m, s) -> p == value;
+      }
+
+      default:
+        throw new ParserException("Unsupported filter element `%s`.", tagName);
+    }
+  }
+
+  private static Clause readBug(Element element) throws ParserException {
+    checkAttributes(element, "pattern", "category");
+
+    if (!element.hasAttribute("pattern") && !element.hasAttribute("category")) {
+      throw new ParserException("`Bug` must have a `pattern` or `category` attribute.");
+    }
+
+    Set<String> patterns = readList(element, "pattern");
+    Set<String> categories = readList(element, "category");
+
+    return (c, p, t, cl, m, s) -> (patterns == null || patterns.contains(t))
+        && (categories == null || categories.contains(c));
+  }
+
+  private static List<Clause> readChildClauses(Element element) throws ParserException {
+    List<Clause> clauses = new ArrayList<Clause>();
+
+    for (Element child: getChildElements(element)) {
+      clauses.add(readClause(child));
+    }
+
+    return clauses;
+  }
+
+  private static Clause all(List<Clause> clauses) {
+    return (c, p, t, cl, m, s) -> {
+      for (Clause clause: clauses) {
+        if (!clause.matches(c, p, t, cl, m, s)) {
+          return false;
+        }
+      }
+
+      return true;
+    };
+  }
+
+  private static Clause any(List<Clause> clauses) {
+    return (c, p, t, cl, m, s) -> {
+      for (Clause clause: clauses) {
+        if (clause.matches(c, p, t, cl, m, s)) {
+          return true;
+        }
+      }
+
+      return false;
+    };
+  }
+
+  private static NameMatcher readName(Element element) throws ParserException {
+    checkAttributes(element, "name");
+
+    if (!element.hasAttribute("name")) {
+      throw new ParserException("`%s` must have a `name` attribute.", element.getTagName());
+    }
+
+    String name = element.getAttribute("name");
+
+    if (!name.startsWith("~")) {
+      return name::equals;
+    }
+
+    try {
+      Pattern pattern = Pattern.compile(name.substring(1));
+      return value -> pattern.matcher(value).matches();
+
+    } catch (PatternSyntaxException e) {
+      throw new ParserException("Invalid regular expression in filter: %s", e.getMessage());
+    }
+  }
+
+  // Comma separated values, or `null` if the attribute is absent.
+  private static Set<String> readList(Element element, String attribute) {
+    if (!element.hasAttribute(attribute)) {
+      return null;
+    }
+
+    Set<String> values = new HashSet<String>();
+
+    for (String value: element.getAttribute(attribute).split(",")) {
+      values.add(value.trim());
+    }
+
+    return values;
+  }
+
+  private static int readInteger(Element element, String attribute) throws ParserException {
+    try {
+      return Integer.parseInt(element.getAttribute(attribute).trim());
+    } catch (NumberFormatException e) {
+      throw new ParserException(
+          "Invalid `%s` attribute on `%s` in filter.",
+          attribute,
+          element.getTagName()
+      );
+    }
+  }
+
+  private static void checkAttributes(Element element, String... supported)
+      throws ParserException {
+
+    List<String> names = Arrays.asList(supported);
+    NamedNodeMap attributes = element.getAttributes();
+
+    for (int i = 0; i < attributes.getLength(); i++) {
+      String name = attributes.item(i).getNodeName();
+
+      if (!names.contains(name)) {
+        throw new ParserException(
+            "Unsupported attribute `%s` on filter element `%s`.",
+            name,
+            element.getTagName()
+        );
+      }
+    }
+  }
+
+  private static String getPackageName(String className) {
+    int index = className.lastIndexOf('.');
+    return index < 0 ? "" : className.substring(0, index);
+  }
+
+  private static String getFileName(String path) {
+    return path.substring(path.lastIndexOf('/') + 1);
+  }
+
+  private static List<Element> getChildElements(Element parent) {
+    List<Element> elements = new ArrayList<Element>();
+
+    for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        elements.add((Element) child);
+      }
+    }
+
+    return elements;
+  }
+
+  @FunctionalInterface
+  private interface NameMatcher {
+    boolean matches(String value);
+  }
+}
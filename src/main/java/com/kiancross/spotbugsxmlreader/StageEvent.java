@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.Locale;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event spanning one stage of reading or outputting a report.
+ *
+ * <p>Events are only recorded while a recording with this event enabled is running,
+ * for example after starting the JVM with `-XX:StartFlightRecording`. Otherwise
+ * {@link #commit()} returns immediately.
+ */
+@Name("com.kiancross.spotbugsxmlreader.Stage")
+@Label("Pipeline Stage")
+@Category("SpotBugs XML Reader")
+@Description("A stage of reading or outputting a SpotBugs report.")
+final class StageEvent extends Event {
+  @Label("Stage")
+  String stage;
+
+  @Label("Items")
+  @Description("Number of bug instances processed by the stage.")
+  long items;
+
+  StageEvent(PipelineStats.Stage stage) {
+    this.stage = stage.name().toLowerCase(Locale.ROOT);
+  }
+}
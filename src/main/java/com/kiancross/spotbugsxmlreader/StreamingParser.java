@@ -0,0 +1,526 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A parser which reads the report incrementally using StAX.
+ *
+ * <p>Unlike {@link Parser}, the document is never held in memory in full. The
+ * `BugCollection` version and `Project` source directories are read when the parser
+ * is constructed, after which each `BugInstance` is converted as soon as its closing
+ * tag is read. This requires `Project` to appear before any `BugInstance`, which is
+ * always the case for reports generated by SpotBugs.
+ *
+ * <p>As the report cannot be revisited, detail is not captured and
+ * {@link BugInstance#getDetail()} returns `null`. Use {@link Parser} if it is needed.
+ */
+public class StreamingParser implements ReportParser {
+  private InputStream input;
+  private XMLStreamReader reader;
+  private BugInstanceConverter converter;
+  private BugInstanceFilter filter = BugInstanceFilter.acceptAll();
+  private PipelineStats stats = PipelineStats.disabled();
+  private boolean finished;
+
+  // Spans the life of the parser, from reading the header until the input is closed.
+  private final StageEvent event = new StageEvent(PipelineStats.Stage.PARSE);
+
+  // Time spent converting during the current call to `nextBugInstance`, which is
+  // excluded from the time spent parsing.
+  private long convertNanos;
+
+  /**
+   * Construct a streaming parser from an {@link InputStream}.
+   *
+   * @param input An {@link InputStream} containing XML.
+   *
+   * @throws ParserException Thrown if there is a syntax error in the XML, or the
+   *                         report header is invalid.
+   */
+  public StreamingParser(InputStream input) throws ParserException {
+    this(input, XmlParserPool.getDefault());
+  }
+
+  /**
+   * Construct a streaming parser from an {@link InputStream}, using the given pool to
+   * create the XML reader.
+   *
+   * @param input An {@link InputStream} containing XML.
+   *
+   * @param pool The pool to create the XML reader from.
+   *
+   * @throws ParserException Thrown if there is a syntax error in the XML, or the
+   *                         report header is invalid.
+   */
+  public StreamingParser(InputStream input, XmlParserPool pool) throws ParserException {
+    event.begin();
+
+    this.input = input;
+
+    boolean constructed = false;
+
+    try {
+      reader = pool.createStreamReader(input);
+
+      if (!nextElement()) {
+        throw new ParserException("Syntax error in XML: %s", "Premature end of file.");
+      }
+
+      checkVersion();
+      converter = new BugInstanceConverter(readHeader());
+
+      constructed = true;
+
+    } catch (XMLStreamException e) {
+      throw new ParserException("Syntax error in XML: %s", e.getMessage());
+
+    } finally {
+      // The caller never receives the parser, so cannot close it.
+      if (!constructed) {
+        closeAfterFailure();
+      }
+    }
+  }
+
+  private void closeAfterFailure() {
+    try {
+      if (reader != null) {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      // The original failure is more useful to report.
+    }
+
+    try {
+      input.close();
+    } catch (IOException e) {
+      // The original failure is more useful to report.
+    }
+  }
+
+  /**
+   * Construct a streaming parser from a file path. The file may be compressed with gzip.
+   *
+   * @param path Path to XML file, or `-` to read from standard input.
+   *
+   * @return The parser instance.
+   *
+   * @throws FileNotFoundException Thrown if the given file path does not exist.
+   *
+   * @throws ParserException Thrown if there is a syntax error in the given XML file.
+   */
+  public static StreamingParser fromFilePath(String path) throws FileNotFoundException,
+      ParserException {
+
+    return new StreamingParser(ReportInput.open(path));
+  }
+
+  /**
+   * Set the filter deciding which bug instances are converted.
+   *
+   * <p>Bug instances rejected on their `category`, `priority` or `type` attributes are
+   * skipped without reading their children. Other rules are evaluated once the children
+   * have been read, before the source path is resolved.
+   *
+   * @param filter The filter.
+   */
+  public void setFilter(BugInstanceFilter filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * Set where to record timings and counters for reading bug instances.
+   *
+   * @param stats The statistics.
+   */
+  public void setStats(PipelineStats stats) {
+    this.stats = stats;
+    converter.setStats(stats);
+  }
+
+  /**
+   * Get all remaining bug instances from the XML file.
+   *
+   * <p>The report is consumed as it is read, so a second call will return an empty list.
+   *
+   * @return List of {@link BugInstance} from the XML file.
+   *
+   * @throws ParserException Thrown if there are any syntax or semantic errors in the XML file.
+   */
+  @Override
+  public List<BugInstance> getBugInstances() throws ParserException {
+    List<BugInstance> bugInstances = new ArrayList<BugInstance>();
+
+    BugInstance instance;
+
+    while ((instance = nextBugInstance()) != null) {
+      bugInstances.add(instance);
+    }
+
+    return bugInstances;
+  }
+
+  /**
+   * Get an iterator which reads each bug instance from the XML file as it is requested.
+   *
+   * <p>The report is consumed as it is read, so only a single pass is possible.
+   *
+   * @return Iterator over the remaining {@link BugInstance}s in the XML file.
+   */
+  @Override
+  public Iterator<BugInstance> iterator() {
+    return new Iterator<BugInstance>() {
+      private BugInstance next;
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          try {
+            next = nextBugInstance();
+          } catch (ParserException e) {
+            throw new UncheckedParserException(e);
+          }
+        }
+
+        return next != null;
+      }
+
+      @Override
+      public BugInstance next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        BugInstance instance = next;
+        next = null;
+        return instance;
+      }
+    };
+  }
+
+  /**
+   * Release the underlying input. Any bug instances not yet read are discarded.
+   *
+   * @throws IOException Thrown if the underlying input could not be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!finished) {
+      event.commit();
+
+      if (converter != null) {
+        converter.commitEvents();
+      }
+    }
+
+    finished = true;
+
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    } finally {
+      input.close();
+    }
+  }
+
+  /**
+   * Read the next bug instance from the XML file.
+   *
+   * @return The next {@link BugInstance}, or `null` if there are no more.
+   *
+   * @throws ParserException Thrown if there are any syntax or semantic errors in the XML file.
+   */
+  public BugInstance nextBugInstance() throws ParserException {
+    if (finished) {
+      return null;
+    }
+
+    long start = stats.start();
+    convertNanos = 0;
+
+    try {
+      while (nextChildElement()) {
+        String tagName = reader.getLocalName();
+
+        if (tagName.equals("BugInstance")) {
+          BugInstance instance = readBugInstance();
+
+          stats.addElementsVisited(1);
+
+          if (instance != null) {
+            stats.addFindingsEmitted(1);
+            event.items++;
+            return instance;
+          }
+
+          stats.addFindingsFiltered(1);
+
+          continue;
+
+        } else if (tagName.equals("Project")) {
+          throw new ParserException("There must be exactly one `%s` tag.", "Project");
+        }
+
+        skipElement();
+      }
+
+      finish();
+      return null;
+
+    } catch (XMLStreamException e) {
+      throw new ParserException("Syntax error in XML: %s", e.getMessage());
+
+    } finally {
+      stats.stop(PipelineStats.Stage.PARSE, start, convertNanos);
+    }
+  }
+
+  private void checkVersion() throws ParserException {
+    Parser.checkVersion(reader.getAttributeValue(null, "version"));
+  }
+
+  private String[] readHeader() throws ParserException, XMLStreamException {
+    while (nextChildElement()) {
+      String tagName = reader.getLocalName();
+
+      if (tagName.equals("Project")) {
+        return readSourceDirectories();
+
+      } else if (tagName.equals("BugInstance")) {
+        throw new ParserException("`Project` tag must appear before any `BugInstance` tag.");
+      }
+
+      skipElement();
+    }
+
+    throw new ParserException("There must be exactly one `%s` tag.", "Project");
+  }
+
+  private String[] readSourceDirectories() throws ParserException, XMLStreamException {
+    List<String> sourceDirectories = new ArrayList<String>();
+
+    while (nextChildElement()) {
+      if (reader.getLocalName().equals("SrcDir")) {
+        sourceDirectories.add(readTextContent());
+      } else {
+        skipElement();
+      }
+    }
+
+    if (sourceDirectories.size() == 0) {
+      throw new ParserException(
+          "XML document should contain at least a single `SrcDir` node inside `Project`."
+      );
+    }
+
+    return sourceDirectories.toArray(new String[0]);
+  }
+
+  // Returns `null` if the bug instance is rejected by the filter.
+  private BugInstance readBugInstance() throws ParserException, XMLStreamException {
+    String category = getAttribute("category");
+    String priority = getAttribute("priority");
+    String type = getAttribute("type");
+
+    if (!filter.acceptsAttributes(category, priority, type)) {
+      skipElement();
+      return null;
+    }
+
+    // As with `Parser`, the first element with the `primary` attribute is used, falling
+    // back to the first element.
+    String className = null;
+    boolean primaryClass = false;
+    String methodName = null;
+    boolean primaryMethod = false;
+
+    String message = null;
+    int numberOfMessages = 0;
+
+    String relativeSourcePath = null;
+    String startLine = null;
+    String startColumn = null;
+
+    while (nextChildElement()) {
+      String tagName = reader.getLocalName();
+
+      if (tagName.equals("LongMessage")) {
+        message = readTextContent();
+        numberOfMessages++;
+
+      } else if (tagName.equals("Class")) {
+        boolean primary = reader.getAttributeValue(null, "primary") != null;
+
+        if (className == null || (primary && !primaryClass)) {
+          className = getAttribute("classname");
+          primaryClass = primary;
+        }
+
+        skipElement();
+
+      } else if (tagName.equals("Method")) {
+        boolean primary = reader.getAttributeValue(null, "primary") != null;
+
+        if (methodName == null || (primary && !primaryMethod)) {
+          methodName = getAttribute("name");
+          primaryMethod = primary;
+        }
+
+        skipElement();
+
+      } else if (tagName.equals("SourceLine") && relativeSourcePath == null
+          && reader.getAttributeValue(null, "primary") != null) {
+
+        relativeSourcePath = getAttribute("relSourcepath");
+        startLine = getAttribute("start");
+        startColumn = getAttribute("startBytecode");
+        skipElement();
+
+      } else {
+        skipElement();
+      }
+    }
+
+    if (relativeSourcePath == null) {
+      throw new ParserException("At least one `SourceLine` must have `primary` attribute.");
+    }
+
+    if (className == null) {
+      className = "";
+    }
+
+    if (methodName == null) {
+      methodName = "";
+    }
+
+    if (!filter.accepts(category, priority, type, className, methodName, relativeSourcePath)) {
+      return null;
+    }
+
+    // As with `Parser`, the message is only checked once the bug instance is accepted.
+    if (numberOfMessages != 1) {
+      throw new ParserException("There must be exactly one `%s` tag.", "LongMessage");
+    }
+
+    long convertStart = stats.start();
+
+    try {
+      return converter.convert(
+        message,
+        category,
+        priority,
+        type,
+        className,
+        methodName,
+        relativeSourcePath,
+        startLine,
+        startColumn
+      );
+
+    } finally {
+      convertNanos += stats.elapsed(convertStart);
+    }
+  }
+
+  // Mirrors `Element.getAttribute`, which returns an empty string for missing attributes.
+  private String getAttribute(String name) {
+    String value = reader.getAttributeValue(null, name);
+    return value == null ? "" : value;
+  }
+
+  // Advances to the next element at any depth. Returns false at the end of the document.
+  private boolean nextElement() throws XMLStreamException {
+    while (reader.hasNext()) {
+      if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  // Advances to the next child of the current element, assuming all previous children
+  // have been fully consumed. Returns false once the current element is closed.
+  private boolean nextChildElement() throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        return true;
+
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        return false;
+      }
+    }
+
+    return false;
+  }
+
+  private void skipElement() throws XMLStreamException {
+    int depth = 1;
+
+    while (depth > 0 && reader.hasNext()) {
+      int event = reader.next();
+
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  // Mirrors `Node.getTextContent` by concatenating the text of all descendants.
+  private String readTextContent() throws XMLStreamException {
+    StringBuilder text = new StringBuilder();
+    int depth = 1;
+
+    while (depth > 0 && reader.hasNext()) {
+      int event = reader.next();
+
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+
+      } else if (
+          event == XMLStreamConstants.CHARACTERS
+          || event == XMLStreamConstants.CDATA
+          || event == XMLStreamConstants.SPACE
+      ) {
+        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+
+    return text.toString();
+  }
+
+  // Reads to the end of the document so that trailing syntax errors are reported in
+  // the same way as the DOM parser, then releases the input.
+  private void finish() throws XMLStreamException {
+    while (reader.hasNext()) {
+      reader.next();
+    }
+
+    try {
+      close();
+    } catch (IOException e) {
+      // The report has been read in full, so there is nothing left to lose.
+    }
+  }
+}
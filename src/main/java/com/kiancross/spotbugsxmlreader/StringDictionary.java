@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each distinct string a dense integer identifier, so that repeated values are
+ * stored once and can be referred to by an `int`.
+ */
+class StringDictionary {
+  private final Map<String, Integer> identifiers = new HashMap<>();
+  private final List<String> values = new ArrayList<>();
+
+  /**
+   * Get the identifier for a value, adding the value if it has not been seen before.
+   */
+  int add(String value) {
+    Integer identifier = identifiers.get(value);
+
+    if (identifier == null) {
+      identifier = values.size();
+      identifiers.put(value, identifier);
+      values.add(value);
+    }
+
+    return identifier;
+  }
+
+  String get(int identifier) {
+    return values.get(identifier);
+  }
+
+  int size() {
+    return values.size();
+  }
+
+  /**
+   * Get every value, indexed by identifier. Once a dictionary is complete this can be
+   * kept in place of the dictionary, which also holds a map from each value.
+   */
+  String[] toArray() {
+    return values.toArray(new String[0]);
+  }
+}
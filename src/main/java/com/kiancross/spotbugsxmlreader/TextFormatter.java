@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+
+/**
+ * Writes each bug instance as its log entry, on a line of its own.
+ */
+final class TextFormatter implements ReportFormatter {
+  private final OutputSink output;
+  private final int severityThreshold;
+
+  TextFormatter(OutputSink output, int severityThreshold) {
+    this.output = output;
+    this.severityThreshold = severityThreshold;
+  }
+
+  @Override
+  public void write(BugInstance instance) throws IOException {
+    instance.appendLogEntry(output, severityThreshold);
+    output.newLine();
+  }
+
+  @Override
+  public void writeFixed(BugInstance instance) throws IOException {
+    instance.appendFixedLogEntry(output);
+    output.newLine();
+  }
+}
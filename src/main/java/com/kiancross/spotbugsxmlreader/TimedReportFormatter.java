@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+
+/**
+ * Records the time spent by another formatter as the output stage.
+ *
+ * <p>Only the calls to the formatter are timed, so bug instances which are parsed lazily
+ * while iterating are not counted as output.
+ */
+final class TimedReportFormatter implements ReportFormatter {
+  private final ReportFormatter formatter;
+  private final PipelineStats stats;
+  private final StageEvent event = new StageEvent(PipelineStats.Stage.OUTPUT);
+
+  TimedReportFormatter(ReportFormatter formatter, PipelineStats stats) {
+    this.formatter = formatter;
+    this.stats = stats;
+  }
+
+  @Override
+  public void begin() throws IOException {
+    event.begin();
+
+    long start = stats.start();
+    formatter.begin();
+    stats.stop(PipelineStats.Stage.OUTPUT, start);
+  }
+
+  @Override
+  public void write(BugInstance instance) throws IOException {
+    long start = stats.start();
+    formatter.write(instance);
+    stats.stop(PipelineStats.Stage.OUTPUT, start);
+
+    event.items++;
+  }
+
+  @Override
+  public void writeFixed(BugInstance instance) throws IOException {
+    long start = stats.start();
+    formatter.writeFixed(instance);
+    stats.stop(PipelineStats.Stage.OUTPUT, start);
+
+    event.items++;
+  }
+
+  @Override
+  public void end() throws IOException {
+    long start = stats.start();
+    formatter.end();
+    stats.stop(PipelineStats.Stage.OUTPUT, start);
+
+    event.commit();
+  }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+/**
+ * Wraps a {@link ParserException} where a checked exception cannot be thrown, such as
+ * from an {@link java.util.Iterator} or {@link java.util.stream.Stream}.
+ */
+public class UncheckedParserException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public UncheckedParserException(ParserException cause) {
+    super(cause.getMessage(), cause);
+  }
+
+  @Override
+  public synchronized ParserException getCause() {
+    return (ParserException) super.getCause();
+  }
+}
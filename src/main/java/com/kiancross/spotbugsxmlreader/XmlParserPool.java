@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2021 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Shares configured XML parser factories between parsers.
+ *
+ * <p>Looking up and configuring a factory, and creating a `DocumentBuilder` from it,
+ * can cost more than parsing a small report. A pool holds one factory of each kind, and
+ * each thread keeps its own `DocumentBuilder`, which is reset after every use. Pools are
+ * thread safe.
+ *
+ * <p>Most users should use {@link #getDefault()}. A pool with custom factories can be
+ * given to {@link Parser.Builder#setPool(XmlParserPool)}, in which case the factories
+ * must not be modified afterwards.
+ */
+public class XmlParserPool {
+  private static final XmlParserPool defaultPool = new XmlParserPool(
+      createDocumentBuilderFactory(),
+      createInputFactory()
+  );
+
+  private final DocumentBuilderFactory documentBuilderFactory;
+  private final XMLInputFactory inputFactory;
+  private final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<>();
+
+  /**
+   * Construct a pool from the given factories.
+   *
+   * @param documentBuilderFactory Used by {@link Parser}. Parallel conversion requires
+   *                               deferred node expansion to be disabled.
+   *
+   * @param inputFactory Used by {@link StreamingParser}.
+   */
+  public XmlParserPool(DocumentBuilderFactory documentBuilderFactory,
+      XMLInputFactory inputFactory) {
+
+    this.documentBuilderFactory = documentBuilderFactory;
+    this.inputFactory = inputFactory;
+  }
+
+  /**
+   * Get the pool used by parsers which are not given one.
+   *
+   * @return The default pool.
+   */
+  public static XmlParserPool getDefault() {
+    return defaultPool;
+  }
+
+  /**
+   * Create a `DocumentBuilderFactory` configured as for the default pool, with secure
+   * processing enabled, which can be customised further.
+   *
+   * @return The factory.
+   */
+  public static DocumentBuilderFactory createDocumentBuilderFactory() {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+    try {
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+
+      // A deferred DOM expands nodes lazily as they are first visited, which is not
+      // safe when elements are converted from several threads.
+      factory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+
+    } catch (ParserConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+
+    return factory;
+  }
+
+  /**
+   * Create an `XMLInputFactory` configured as for the default pool, with DTDs and
+   * external entities disabled, which can be customised further.
+   *
+   * @return The factory.
+   */
+  public static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+
+    return factory;
+  }
+
+  Document parseDocument(InputStream input) throws ParserException {
+    try {
+      DocumentBuilder builder = getDocumentBuilder();
+
+      try {
+        Document document = builder.parse(input);
+        document.getDocumentElement().normalize();
+
+        return document;
+
+      } finally {
+        builder.reset();
+      }
+
+    } catch (ParserConfigurationException | SAXException | IOException e) {
+      throw new ParserException("Syntax error in XML: %s", e.getMessage());
+    }
+  }
+
+  XMLStreamReader createStreamReader(InputStream input) throws ParserException {
+    try {
+      // The factory is not guaranteed to be thread safe, but creating a reader is cheap
+      // compared with reading the document, so contention is negligible.
+      synchronized (inputFactory) {
+        return inputFactory.createXMLStreamReader(input);
+      }
+
+    } catch (XMLStreamException e) {
+      throw new ParserException("Syntax error in XML: %s", e.getMessage());
+    }
+  }
+
+  private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+    DocumentBuilder builder = documentBuilders.get();
+
+    if (builder == null) {
+      // Likewise, the factory is only guaranteed to be safe from one thread at a time.
+      synchronized (documentBuilderFactory) {
+        builder = documentBuilderFactory.newDocumentBuilder();
+      }
+
+      documentBuilders.set(builder);
+    }
+
+    return builder;
+  }
+}
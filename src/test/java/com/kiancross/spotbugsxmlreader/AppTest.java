@@ -5,11 +5,30 @@
 package com.kiancross.spotbugsxmlreader;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class AppTest {
+  @TempDir Path directory;
+
+  private static String[] concat(String[] args, String... more) {
+    final String[] all = Arrays.copyOf(args, args.length + more.length);
+    System.arraycopy(more, 0, all, args.length, more.length);
+    return all;
+  }
+
   @Test void emptyThrows() {
     final String[] args = {};
     
@@ -49,4 +68,351 @@ class AppTest {
       App.main(args);
     });
   }
+
+  @Test void fromFileStreamingValid() {
+    final String[] args = {"-f", "src/test/resources/example-report.xml", "-t", "0", "-s"};
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+  }
+
+  @Test void fromFileParallelValid() {
+    final String[] args = {"-f", "src/test/resources/example-report.xml", "-t", "0", "-p", "2"};
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+  }
+
+  @Test void fromFileToOutputFileValid() throws IOException {
+    final Path output = directory.resolve("report.txt");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString()
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    final List<String> lines = Files.readAllLines(output);
+
+    assertEquals(10, lines.size());
+    assertTrue(lines.get(0).startsWith("(WARNING) "));
+  }
+
+  @Test void outputToMissingDirectoryThrows() {
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0",
+      "-o", directory.resolve("missing").resolve("report.txt").toString()
+    };
+
+    // Reported as a command line error, rather than escaping as `NoSuchFileException`.
+    final Exception e = assertThrows(Exception.class, () -> {
+      App.main(args);
+    });
+
+    assertEquals(Exception.class, e.getClass());
+  }
+
+  @Test void fromMultipleFilesToOutputFileValid() throws IOException {
+    final Path output = directory.resolve("report.txt");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "src/test/resources/*.xml",
+      "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString()
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    assertEquals(10, Files.readAllLines(output).size());
+  }
+
+  @Test void fromMultipleFilesNonExistantFileThrows() {
+    final String[] args = {"-f", "src/test/resources/example-report.xml", "foo", "-t", "0"};
+
+    assertThrows(Exception.class, () -> {
+      App.main(args);
+    });
+  }
+
+  @Test void againstIdenticalBaselineValid() throws IOException {
+    final Path output = directory.resolve("report.txt");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "3",
+      "-b", "src/test/resources/example-report.xml", "-o", output.toString()
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    assertEquals(0, Files.readAllLines(output).size());
+  }
+
+  @Test void nonExistantBaselineThrows() {
+    final String[] args = {"-f", "src/test/resources/example-report.xml", "-b", "foo"};
+
+    assertThrows(Exception.class, () -> {
+      App.main(args);
+    });
+  }
+
+  @Test void fromCacheValid() throws IOException {
+    final Path output = directory.resolve("report.txt");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString(),
+      "--cache-dir", directory.resolve("cache").toString()
+    };
+
+    for (int i = 0; i < 2; i++) {
+      assertDoesNotThrow(() -> {
+        App.main(args);
+      });
+
+      assertEquals(10, Files.readAllLines(output).size());
+    }
+  }
+
+  @Test void filteredValid() throws IOException {
+    final Path output = directory.resolve("report.txt");
+    final Path filter = Files.write(directory.resolve("filter.xml"), (
+        "<FindBugsFilter><Match><Bug category='BAD_PRACTICE'/></Match></FindBugsFilter>"
+    ).getBytes(StandardCharsets.UTF_8));
+
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString(),
+      "--exclude-category", "MALICIOUS_CODE", "--exclude-filter", filter.toString()
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    assertEquals(4, Files.readAllLines(output).size());
+  }
+
+  @Test void fromCacheWithDifferentFiltersValid() throws IOException {
+    final Path output = directory.resolve("report.txt");
+    final String cache = directory.resolve("cache").toString();
+    final String report = "src/test/resources/example-report.xml";
+
+    final String[] excludeArgs = {
+      "-f", report, "-t", "0", "-o", output.toString(), "--cache-dir", cache,
+      "--exclude-category", "MALICIOUS_CODE"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(excludeArgs);
+    });
+
+    assertEquals(5, Files.readAllLines(output).size());
+
+    final String[] includeArgs = {
+      "-f", report, "-t", "0", "-o", output.toString(), "--cache-dir", cache,
+      "--include-category", "MALICIOUS_CODE"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(includeArgs);
+    });
+
+    assertEquals(5, Files.readAllLines(output).size());
+  }
+
+  @Test void summaryValid() throws IOException {
+    final Path output = directory.resolve("summary.json");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString(),
+      "--summary", "json", "--top", "1"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    final List<String> lines = Files.readAllLines(output);
+
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).startsWith("{\"total\":10,\"errors\":0,\"warnings\":10,"));
+  }
+
+  @Test void summaryWithErrorsThrows() {
+    final String[] args = {"-f", "src/test/resources/example-report.xml", "--summary"};
+
+    assertThrows(Exception.class, () -> {
+      App.main(args);
+    });
+  }
+
+  @Test void statsDoNotChangeReport() throws IOException {
+    final Path output = directory.resolve("report.jsonl");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString(),
+      "--format", "jsonl", "--stats", "json", "--streaming"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    assertEquals(10, Files.readAllLines(output).size());
+  }
+
+  @Test void sortedWithinMemoryBudgetValid() throws IOException {
+    final Path inMemory = directory.resolve("sorted.txt");
+    final Path spilled = directory.resolve("spilled.txt");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "--sort-by", "file"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(concat(args, "-o", inMemory.toString()));
+      App.main(concat(args, "-o", spilled.toString(), "--streaming", "--max-memory", "1"));
+    });
+
+    final List<String> lines = Files.readAllLines(spilled);
+    String previous = "";
+
+    for (String line : lines) {
+      final String path = line.substring(line.indexOf(' ') + 1, line.indexOf(':'));
+      assertTrue(previous.compareTo(path) <= 0);
+      previous = path;
+    }
+
+    assertEquals(10, lines.size());
+    assertEquals(Files.readAllLines(inMemory), lines);
+  }
+
+  @Test void groupedByCategoryValid() throws IOException {
+    final Path output = directory.resolve("grouped.txt");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString(),
+      "--group-by", "category", "--sort-by", "priority"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    final List<String> lines = Files.readAllLines(output);
+
+    assertEquals(10 + 3 + 2, lines.size());
+    assertEquals("BAD_PRACTICE", lines.get(0));
+    assertEquals("", lines.get(2));
+    assertEquals("CORRECTNESS", lines.get(3));
+    assertEquals("", lines.get(8));
+    assertEquals("MALICIOUS_CODE", lines.get(9));
+  }
+
+  @Test void jsonLinesValid() throws IOException {
+    final Path output = directory.resolve("report.jsonl");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "0", "-o", output.toString(),
+      "--format", "jsonl"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    final List<String> lines = Files.readAllLines(output);
+
+    assertEquals(10, lines.size());
+    assertTrue(lines.get(0).startsWith("{\"severity\":\"warning\","));
+  }
+
+  @Test void sarifAgainstBaselineValid() throws IOException {
+    final Path output = directory.resolve("report.sarif");
+    final String[] args = {
+      "-f", "src/test/resources/example-report.xml", "-t", "3", "-o", output.toString(),
+      "-b", "src/test/resources/example-report.xml", "--format", "sarif"
+    };
+
+    assertDoesNotThrow(() -> {
+      App.main(args);
+    });
+
+    final List<String> lines = Files.readAllLines(output);
+
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).endsWith("\"results\":[]}]}"));
+  }
+
+  @Test void watchOutputsChanges() throws Exception {
+    final Path report = Files.copy(
+        Paths.get("src/test/resources/example-report.xml"),
+        directory.resolve("report.xml")
+    );
+    final Path output = directory.resolve("report.txt");
+    final String[] args = {"-f", report.toString(), "-t", "0", "-w", "-o", output.toString()};
+
+    final Thread watcher = new Thread(() -> {
+      assertDoesNotThrow(() -> {
+        App.main(args);
+      });
+    });
+
+    watcher.start();
+
+    try {
+      assertTrue(awaitLineCount(output, 10));
+
+      final String content = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+      final int end = content.indexOf("</BugInstance>") + "</BugInstance>".length();
+      final int start = content.lastIndexOf("<BugInstance ", end);
+      Files.write(report, (content.substring(0, start) + content.substring(end))
+          .getBytes(StandardCharsets.UTF_8));
+
+      assertTrue(awaitLineCount(output, 9));
+
+    } finally {
+      watcher.interrupt();
+      watcher.join(10000);
+    }
+
+    assertFalse(watcher.isAlive());
+  }
+
+  @Test void watchStandardInputThrows() {
+    final String[] args = {"-f", "-", "-w"};
+
+    assertThrows(Exception.class, () -> {
+      App.main(args);
+    });
+  }
+
+  @Test void serveStopsWhenInterrupted() throws InterruptedException {
+    final String[] args = {"serve", "-f", "src/test/resources/example-report.xml", "--port", "0"};
+
+    final Thread server = new Thread(() -> {
+      assertDoesNotThrow(() -> {
+        App.main(args);
+      });
+    });
+
+    server.start();
+    Thread.sleep(500);
+    server.interrupt();
+    server.join(10000);
+
+    assertFalse(server.isAlive());
+  }
+
+  private static boolean awaitLineCount(Path path, int count) throws InterruptedException {
+    for (int i = 0; i < 200; i++) {
+      try {
+        if (Files.exists(path) && Files.readAllLines(path).size() == count) {
+          return true;
+        }
+      } catch (IOException e) {
+        // The file is part way through being written.
+      }
+
+      Thread.sleep(50);
+    }
+
+    return false;
+  }
 }
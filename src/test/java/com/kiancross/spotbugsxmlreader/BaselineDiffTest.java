@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BaselineDiffTest {
+  private static BugInstance createBugInstance(String type, String methodName, int startLine) {
+    return new BugInstanceBuilder()
+        .setMessage(type + " in " + methodName)
+        .setSourcePath("/foo/Bar.java")
+        .setRelativeSourcePath("Bar.java")
+        .setCategory("CORRECTNESS")
+        .setType(type)
+        .setClassName("Bar")
+        .setMethodName(methodName)
+        .setStartLine(startLine)
+        .setPriority(1)
+        .build();
+  }
+
+  @Test void identicalReportsUnchanged() {
+    final List<BugInstance> baseline = Arrays.asList(
+        createBugInstance("A", "run", 1),
+        createBugInstance("B", "run", 2)
+    );
+
+    final BaselineDiff diff = BaselineDiff.compare(baseline, baseline.iterator());
+
+    assertEquals(Collections.emptyList(), diff.getNewBugInstances());
+    assertEquals(Collections.emptyList(), diff.getFixedBugInstances());
+    assertEquals(baseline, diff.getUnchangedBugInstances());
+  }
+
+  @Test void lineNumbersIgnored() {
+    final BugInstance moved = createBugInstance("A", "run", 20);
+
+    final BaselineDiff diff = BaselineDiff.compare(
+        Arrays.asList(createBugInstance("A", "run", 1)),
+        Arrays.asList(moved).iterator()
+    );
+
+    assertEquals(Collections.emptyList(), diff.getNewBugInstances());
+    assertEquals(Arrays.asList(moved), diff.getUnchangedBugInstances());
+  }
+
+  @Test void newAndFixedClassified() {
+    final BugInstance fixed = createBugInstance("A", "run", 1);
+    final BugInstance unchanged = createBugInstance("B", "run", 2);
+    final BugInstance added = createBugInstance("A", "stop", 3);
+
+    final BaselineDiff diff = BaselineDiff.compare(
+        Arrays.asList(fixed, unchanged),
+        Arrays.asList(added, unchanged).iterator()
+    );
+
+    assertEquals(Arrays.asList(added), diff.getNewBugInstances());
+    assertEquals(Arrays.asList(fixed), diff.getFixedBugInstances());
+    assertEquals(Arrays.asList(unchanged), diff.getUnchangedBugInstances());
+  }
+
+  @Test void duplicatesMatchedOneToOne() {
+    final BugInstance first = createBugInstance("A", "run", 1);
+    final BugInstance second = createBugInstance("A", "run", 2);
+    final BugInstance third = createBugInstance("A", "run", 3);
+
+    final BaselineDiff added = BaselineDiff.compare(
+        Arrays.asList(first, second),
+        Arrays.asList(first, second, third).iterator()
+    );
+
+    assertEquals(Arrays.asList(third), added.getNewBugInstances());
+    assertEquals(Collections.emptyList(), added.getFixedBugInstances());
+
+    final BaselineDiff fixed = BaselineDiff.compare(
+        Arrays.asList(first, second, third),
+        Arrays.asList(first).iterator()
+    );
+
+    assertEquals(Collections.emptyList(), fixed.getNewBugInstances());
+    assertEquals(Arrays.asList(second, third), fixed.getFixedBugInstances());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BinaryReportCodecTest {
+  private static byte[] encode(List<BugInstance> instances) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryReportCodec.encode(instances, output);
+    return output.toByteArray();
+  }
+
+  private static List<BugInstance> decode(byte[] data) throws IOException {
+    return BinaryReportCodec.decode(ByteBuffer.wrap(data));
+  }
+
+  @Test void roundTripMatchesBugInstances() throws FileNotFoundException, IOException,
+      ParserException {
+
+    final List<BugInstance> instances =
+        Parser.fromFilePath("src/test/resources/example-report.xml").getBugInstances();
+
+    final List<BugInstance> decoded = decode(encode(instances));
+
+    assertEquals(instances.size(), decoded.size());
+
+    for (int i = 0; i < instances.size(); i++) {
+      final BugInstance instance = instances.get(i);
+      final BugInstance other = decoded.get(i);
+
+      assertEquals(instance.getLogEntry(2), other.getLogEntry(2));
+      assertEquals(instance.getPriority(), other.getPriority());
+      assertEquals(instance.getType(), other.getType());
+      assertEquals(instance.getClassName(), other.getClassName());
+      assertEquals(instance.getMethodName(), other.getMethodName());
+      assertEquals(instance.getRelativeSourcePath(), other.getRelativeSourcePath());
+    }
+  }
+
+  @Test void emptyRoundTrip() throws IOException {
+    assertEquals(0, decode(encode(Collections.emptyList())).size());
+  }
+
+  @Test void nullValuesRoundTrip() throws IOException {
+    final BugInstance instance = new BugInstance();
+    instance.setMessage("f\u00f6o");
+    instance.setStartLine(-1);
+
+    final BugInstance decoded = decode(encode(Arrays.asList(instance))).get(0);
+
+    assertEquals("f\u00f6o", decoded.getMessage());
+    assertNull(decoded.getCategory());
+    assertEquals(-1, decoded.getStartLine());
+  }
+
+  @Test void recordRoundTrip() throws IOException {
+    final BugInstance instance = new BugInstance();
+    instance.setMessage("f\u00f6o");
+    instance.setSourcePath("/src/Foo.java");
+    instance.setStartLine(12);
+    instance.setPriority(3);
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (DataOutputStream data = new DataOutputStream(output)) {
+      BinaryReportCodec.writeRecord(instance, data);
+      BinaryReportCodec.writeRecord(new BugInstance(), data);
+    }
+
+    final DataInputStream input =
+        new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+
+    final BugInstance decoded = BinaryReportCodec.readRecord(input);
+
+    assertEquals("f\u00f6o", decoded.getMessage());
+    assertEquals("/src/Foo.java", decoded.getSourcePath());
+    assertNull(decoded.getCategory());
+    assertEquals(12, decoded.getStartLine());
+    assertEquals(3, decoded.getPriority());
+
+    assertNull(BinaryReportCodec.readRecord(input).getMessage());
+
+    assertThrows(IOException.class, () -> {
+      BinaryReportCodec.readRecord(input);
+    });
+  }
+
+  @Test void truncatedThrows() throws IOException {
+    final BugInstance instance = new BugInstance();
+    final byte[] data = encode(Arrays.asList(instance));
+
+    assertThrows(IOException.class, () -> {
+      decode(Arrays.copyOf(data, data.length - 1));
+    });
+  }
+
+  @Test void trailingDataThrows() throws IOException {
+    final byte[] data = encode(Collections.emptyList());
+
+    assertThrows(IOException.class, () -> {
+      decode(Arrays.copyOf(data, data.length + 1));
+    });
+  }
+
+  @Test void countLongerThanEntryThrows() throws IOException {
+    final byte[] data = encode(Collections.emptyList());
+
+    // The dictionary size and record count follow the magic number and version.
+    for (int offset : new int[] {8, 12}) {
+      final byte[] corrupt = data.clone();
+      Arrays.fill(corrupt, offset, offset + 4, (byte) 0x7f);
+
+      assertThrows(IOException.class, () -> {
+        decode(corrupt);
+      });
+    }
+  }
+
+  @Test void invalidMagicThrows() {
+    assertThrows(IOException.class, () -> {
+      decode(new byte[] {0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0});
+    });
+  }
+}
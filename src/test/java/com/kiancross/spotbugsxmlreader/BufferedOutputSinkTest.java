@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BufferedOutputSinkTest {
+  private static final String separator = System.lineSeparator();
+  private static final String nonAscii = "f\u00f6o"; // "foo" with an umlaut
+
+  @TempDir Path directory;
+
+  @Test void writesUtf8() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      sink.append(nonAscii).append('-').append("xbarx", 1, 4).newLine();
+    }
+
+    assertEquals(nonAscii + "-bar" + separator, output.toString(StandardCharsets.UTF_8.name()));
+  }
+
+  @Test void buffersUntilFlushed() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final OutputSink sink = new BufferedOutputSink(output);
+
+    sink.append("foo");
+    assertEquals(0, output.size());
+
+    sink.flush();
+    assertEquals("foo", output.toString(StandardCharsets.UTF_8.name()));
+  }
+
+  @Test void toFileReplacesContent() throws IOException {
+    final Path file = directory.resolve("report.txt");
+    Files.write(file, "existing content which is longer".getBytes(StandardCharsets.UTF_8));
+
+    try (OutputSink sink = BufferedOutputSink.toFile(file)) {
+      sink.append(nonAscii).newLine();
+    }
+
+    final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertEquals(nonAscii + separator, content);
+  }
+
+  @Test void toFileLargeOutput() throws IOException {
+    final Path file = directory.resolve("report.txt");
+
+    try (OutputSink sink = BufferedOutputSink.toFile(file)) {
+      for (int i = 0; i < 100000; i++) {
+        sink.append("line").newLine();
+      }
+    }
+
+    assertEquals(100000, Files.readAllLines(file).size());
+    assertTrue(Files.readAllLines(file).stream().allMatch(line -> line.equals("line")));
+  }
+}
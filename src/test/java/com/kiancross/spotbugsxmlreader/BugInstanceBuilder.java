@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+/**
+ * Builds {@link BugInstance}s for tests. Values which are not set keep the defaults of
+ * a new {@link BugInstance}.
+ */
+final class BugInstanceBuilder {
+  private String message;
+  private String sourcePath;
+  private String relativeSourcePath;
+  private String category;
+  private String type;
+  private String className;
+  private String methodName;
+  private int startLine;
+  private int startColumn;
+  private int priority;
+
+  BugInstanceBuilder setMessage(String message) {
+    this.message = message;
+    return this;
+  }
+
+  BugInstanceBuilder setSourcePath(String sourcePath) {
+    this.sourcePath = sourcePath;
+    return this;
+  }
+
+  BugInstanceBuilder setRelativeSourcePath(String relativeSourcePath) {
+    this.relativeSourcePath = relativeSourcePath;
+    return this;
+  }
+
+  BugInstanceBuilder setCategory(String category) {
+    this.category = category;
+    return this;
+  }
+
+  BugInstanceBuilder setType(String type) {
+    this.type = type;
+    return this;
+  }
+
+  BugInstanceBuilder setClassName(String className) {
+    this.className = className;
+    return this;
+  }
+
+  BugInstanceBuilder setMethodName(String methodName) {
+    this.methodName = methodName;
+    return this;
+  }
+
+  BugInstanceBuilder setStartLine(int startLine) {
+    this.startLine = startLine;
+    return this;
+  }
+
+  BugInstanceBuilder setStartColumn(int startColumn) {
+    this.startColumn = startColumn;
+    return this;
+  }
+
+  BugInstanceBuilder setPriority(int priority) {
+    this.priority = priority;
+    return this;
+  }
+
+  BugInstance build() {
+    final BugInstance instance = new BugInstance();
+
+    instance.setMessage(message);
+    instance.setSourcePath(sourcePath);
+    instance.setRelativeSourcePath(relativeSourcePath);
+    instance.setCategory(category);
+    instance.setType(type);
+    instance.setClassName(className);
+    instance.setMethodName(methodName);
+    instance.setStartLine(startLine);
+    instance.setStartColumn(startColumn);
+    instance.setPriority(priority);
+
+    return instance;
+  }
+}
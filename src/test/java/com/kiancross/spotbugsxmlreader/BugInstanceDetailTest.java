@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BugInstanceDetailTest {
+  private static final String reportPath = "src/test/resources/example-report.xml";
+
+  private static BugInstanceDetail getFirstDetail(Parser parser) throws ParserException {
+    return parser.getBugInstances().get(0).getDetail();
+  }
+
+  @Test void notCapturedByDefault() throws FileNotFoundException, ParserException {
+    assertNull(getFirstDetail(Parser.fromFilePath(reportPath)));
+  }
+
+  @Test void notCapturedByStreamingParser() throws Exception {
+    try (StreamingParser parser = StreamingParser.fromFilePath(reportPath)) {
+      assertNull(parser.getBugInstances().get(0).getDetail());
+    }
+  }
+
+  @Test void attributes() throws FileNotFoundException, ParserException {
+    final BugInstanceDetail detail = getFirstDetail(
+        Parser.builder().setCaptureDetail(true).build(reportPath)
+    );
+
+    assertEquals("EI_EXPOSE_REP2", detail.getAttributes().get("type"));
+    assertEquals(18, detail.getRank());
+    assertEquals(374, detail.getCweId());
+    assertEquals("EI2", detail.getAbbreviation());
+    assertEquals("4b05ecc0836c45a5fc0fd00c04cc7157", detail.getInstanceHash());
+    assertEquals(
+        "May expose internal representation by incorporating reference to mutable object",
+        detail.getShortMessage()
+    );
+  }
+
+  @Test void annotations() throws FileNotFoundException, ParserException {
+    final BugInstanceDetail detail = getFirstDetail(
+        Parser.builder().setCaptureDetail(true).build(reportPath)
+    );
+
+    final List<String> kinds = new ArrayList<>();
+
+    for (BugInstanceDetail.Annotation annotation : detail.getAnnotations()) {
+      kinds.add(annotation.getKind());
+    }
+
+    assertEquals(List.of("Class", "Method", "Field", "LocalVariable", "SourceLine"), kinds);
+
+    final BugInstanceDetail.Annotation classAnnotation = detail.getClasses().get(0);
+    assertEquals("com.kiancross.mandelbrot.HistogramColorMapper",
+        classAnnotation.getAttribute("classname"));
+    assertTrue(classAnnotation.isPrimary());
+    assertEquals("33", classAnnotation.getSourceLine().getAttribute("start"));
+
+    assertEquals("<init>", detail.getMethods().get(0).getAttribute("name"));
+    assertEquals("gradient", detail.getFields().get(0).getAttribute("name"));
+    assertEquals("LOCAL_VARIABLE_NAMED", detail.getAnnotations().get(3).getRole());
+    assertFalse(detail.getAnnotations().get(3).isPrimary());
+
+    assertEquals(1, detail.getSourceLines().size());
+    assertEquals("35", detail.getSourceLines().get(0).getAttribute("start"));
+  }
+
+  @Test void bugPattern() throws FileNotFoundException, ParserException {
+    final BugInstanceDetail detail = getFirstDetail(
+        Parser.builder().setCaptureDetail(true).build(reportPath)
+    );
+
+    assertEquals(
+        "May expose internal representation by incorporating reference to mutable object",
+        detail.getPatternShortDescription()
+    );
+    assertTrue(detail.getPatternDetails().contains("externally mutable object"));
+  }
+
+  @Test void loadedOnFirstAccessOnly() throws FileNotFoundException, ParserException {
+    final BugInstance instance = new BugInstance();
+    final BugInstanceDetail detail = getFirstDetail(
+        Parser.builder().setCaptureDetail(true).build(reportPath)
+    );
+    final int[] loads = {0};
+
+    instance.setDetailLoader(() -> {
+      loads[0]++;
+      return detail;
+    });
+
+    assertEquals(0, loads[0]);
+    assertSame(detail, instance.getDetail());
+    assertSame(detail, instance.getDetail());
+    assertEquals(1, loads[0]);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+
+class BugInstanceFilterTest {
+  private InputStream getTestInputStream(String data) {
+    return new ByteArrayInputStream(data.getBytes());
+  }
+
+  @Test void acceptAll() {
+    final BugInstanceFilter filter = BugInstanceFilter.acceptAll();
+
+    assertTrue(filter.isAcceptAll());
+    assertTrue(filter.accepts("STYLE", "3", "DM", "Foo", "bar", "Foo.java"));
+    assertTrue(BugInstanceFilter.builder().build().isAcceptAll());
+  }
+
+  @Test void includeCategory() {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .includeCategory("CORRECTNESS")
+        .includeCategory("SECURITY")
+        .build();
+
+    assertFalse(filter.isAcceptAll());
+    assertTrue(filter.acceptsAttributes("CORRECTNESS", "1", "NP"));
+    assertTrue(filter.acceptsAttributes("SECURITY", "1", "NP"));
+    assertFalse(filter.acceptsAttributes("STYLE", "1", "NP"));
+  }
+
+  @Test void excludeCategory() {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .excludeCategory("STYLE")
+        .build();
+
+    assertTrue(filter.acceptsAttributes("CORRECTNESS", "1", "NP"));
+    assertFalse(filter.acceptsAttributes("STYLE", "1", "NP"));
+  }
+
+  @Test void includeAndExcludeType() {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .includeType("NP")
+        .includeType("DM")
+        .excludeType("DM")
+        .build();
+
+    assertTrue(filter.acceptsAttributes("STYLE", "1", "NP"));
+    assertFalse(filter.acceptsAttributes("STYLE", "1", "DM"));
+    assertFalse(filter.acceptsAttributes("STYLE", "1", "SE"));
+  }
+
+  @Test void maximumPriority() {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .setMaximumPriority(2)
+        .build();
+
+    assertTrue(filter.acceptsAttributes("STYLE", "1", "NP"));
+    assertTrue(filter.acceptsAttributes("STYLE", "2", "NP"));
+    assertFalse(filter.acceptsAttributes("STYLE", "3", "NP"));
+
+    // Left for the converter to report.
+    assertTrue(filter.acceptsAttributes("STYLE", "bad", "NP"));
+  }
+
+  @Test void invalidMaximumPriorityThrows() {
+    assertThrows(IllegalArgumentException.class, () -> {
+      BugInstanceFilter.builder().setMaximumPriority(0);
+    });
+  }
+
+  @Test void paths() {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .includePath("com/**")
+        .includePath("org/**")
+        .excludePath("**/generated/**")
+        .build();
+
+    assertTrue(filter.acceptsAttributes("STYLE", "1", "NP"));
+    assertTrue(filter.accepts("STYLE", "1", "NP", "", "", "com/a/Foo.java"));
+    assertTrue(filter.accepts("STYLE", "1", "NP", "", "", "org/Foo.java"));
+    assertFalse(filter.accepts("STYLE", "1", "NP", "", "", "net/Foo.java"));
+    assertFalse(filter.accepts("STYLE", "1", "NP", "", "", "com/generated/Foo.java"));
+  }
+
+  @Test void excludeFilter() throws ParserException {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .excludeFilter(getTestInputStream(
+            "<FindBugsFilter><Match><Bug category='STYLE'/></Match></FindBugsFilter>"
+        ))
+        .build();
+
+    assertFalse(filter.isAcceptAll());
+    assertTrue(filter.accepts("CORRECTNESS", "1", "NP", "Foo", "bar", "Foo.java"));
+    assertFalse(filter.accepts("STYLE", "1", "NP", "Foo", "bar", "Foo.java"));
+  }
+
+  @Test void nonExistantExcludeFilterThrows() {
+    assertThrows(FileNotFoundException.class, () -> {
+      BugInstanceFilter.builder().excludeFilter("foo");
+    });
+  }
+
+  @Test void acceptsBugInstance() {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .setMaximumPriority(1)
+        .excludePath("gen/**")
+        .build();
+
+    final BugInstance instance = new BugInstance();
+    instance.setCategory("STYLE");
+    instance.setPriority(1);
+    instance.setType("NP");
+    instance.setClassName("Foo");
+    instance.setMethodName("bar");
+    instance.setRelativeSourcePath("src/Foo.java");
+
+    assertTrue(filter.accepts(instance));
+
+    instance.setRelativeSourcePath("gen/Foo.java");
+    assertFalse(filter.accepts(instance));
+
+    instance.setRelativeSourcePath("src/Foo.java");
+    instance.setPriority(2);
+    assertFalse(filter.accepts(instance));
+  }
+}
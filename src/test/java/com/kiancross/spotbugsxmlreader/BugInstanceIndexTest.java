@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BugInstanceIndexTest {
+  private BugInstanceIndex index;
+
+  private static BugInstance createBugInstance(String file, String category, int priority,
+      int startLine) {
+
+    return new BugInstanceBuilder()
+        .setSourcePath("/src/" + file)
+        .setRelativeSourcePath(file)
+        .setCategory(category)
+        .setPriority(priority)
+        .setStartLine(startLine)
+        .build();
+  }
+
+  @BeforeEach void initIndex() {
+    final List<BugInstance> instances = Arrays.asList(
+        createBugInstance("A.java", "STYLE", 3, 30),
+        createBugInstance("B.java", "CORRECTNESS", 1, 5),
+        createBugInstance("A.java", "CORRECTNESS", 2, 10),
+        createBugInstance("A.java", "STYLE", 1, 20),
+        createBugInstance("B.java", "STYLE", 2, 5)
+    );
+
+    index = new BugInstanceIndex(CompactBugInstanceStore.from(instances.iterator()));
+  }
+
+  @Test void findByFileOrderedByLine() {
+    assertArrayEquals(new int[] {2, 3, 0}, index.findByFile("/src/A.java"));
+    assertArrayEquals(new int[] {2, 3, 0}, index.findByFile("A.java"));
+    assertArrayEquals(new int[] {1, 4}, index.findByFile("B.java"));
+    assertArrayEquals(new int[0], index.findByFile("C.java"));
+  }
+
+  @Test void findByFileLineRange() {
+    assertArrayEquals(new int[] {3}, index.findByFile("A.java", 11, 29));
+    assertArrayEquals(new int[] {2, 3}, index.findByFile("A.java", 10, 20));
+    assertArrayEquals(new int[] {2, 3, 0}, index.findByFile("A.java", 0, Integer.MAX_VALUE));
+    assertArrayEquals(new int[0], index.findByFile("A.java", 31, 40));
+    assertArrayEquals(new int[0], index.findByFile("A.java", 20, 10));
+  }
+
+  @Test void samePathAndRelativePathNotDuplicated() {
+    final BugInstance instance = createBugInstance("A.java", "STYLE", 1, 1);
+    instance.setSourcePath("A.java");
+
+    final BugInstanceIndex other = new BugInstanceIndex(
+        CompactBugInstanceStore.from(Arrays.asList(instance, instance).iterator())
+    );
+
+    assertArrayEquals(new int[] {0, 1}, other.findByFile("A.java"));
+  }
+
+  @Test void findByCategoryAndPriority() {
+    assertArrayEquals(new int[] {0, 3, 4}, index.findByCategory("STYLE"));
+    assertArrayEquals(new int[] {1, 3}, index.findByPriority(1));
+    assertArrayEquals(new int[0], index.findByPriority(4));
+  }
+
+  @Test void findErrorsInStoreOrder() {
+    assertArrayEquals(new int[] {1, 2, 3, 4}, index.findErrors(2));
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4}, index.findErrors(3));
+    assertArrayEquals(new int[0], index.findErrors(0));
+  }
+
+  @Test void resultsAreCopies() {
+    index.findByCategory("STYLE")[0] = 4;
+    assertArrayEquals(new int[] {0, 3, 4}, index.findByCategory("STYLE"));
+  }
+
+  @Test void counts() {
+    final Map<String, Integer> byFile = index.countByFile();
+
+    assertEquals(2, byFile.size());
+    assertEquals(3, (int) byFile.get("/src/A.java"));
+    assertEquals(2, (int) index.countByCategory().get("CORRECTNESS"));
+    assertEquals(2, (int) index.countByPriority().get(1));
+  }
+
+  @Test void concurrentFirstUse() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      final List<Future<int[]>> results = new ArrayList<>();
+
+      for (int i = 0; i < 64; i++) {
+        results.add(executor.submit(() -> index.findByFile("A.java")));
+      }
+
+      for (Future<int[]> result : results) {
+        assertArrayEquals(new int[] {2, 3, 0}, result.get());
+      }
+
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class BugInstanceSorterTest {
+  private static final OutputOrder byFile = new OutputOrder(null, SortOrder.FILE);
+  private static final OutputOrder byPriority = new OutputOrder(null, SortOrder.PRIORITY);
+
+  private static BugInstance createBugInstance(String file, int line, String message) {
+    return new BugInstanceBuilder()
+        .setSourcePath("/src/" + file)
+        .setStartLine(line)
+        .setMessage(message)
+        .setPriority(1 + line % 3)
+        .build();
+  }
+
+  private static List<String> getMessages(Iterator<BugInstance> instances) {
+    final List<String> messages = new ArrayList<>();
+
+    while (instances.hasNext()) {
+      messages.add(instances.next().getMessage());
+    }
+
+    return messages;
+  }
+
+  private static List<BugInstance> createBugInstances(int count) {
+    final List<BugInstance> instances = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      instances.add(createBugInstance("File" + (i * 7919 % 13) + ".java", i % 5, "m" + i));
+    }
+
+    return instances;
+  }
+
+  private static List<String> sortInMemory(List<BugInstance> instances, SortOrder order) {
+    final List<BugInstance> sorted = new ArrayList<>(instances);
+    sorted.sort(order.getComparator());
+    return getMessages(sorted.iterator());
+  }
+
+  private static Path getSortDirectory() {
+    return Paths.get(System.getProperty("java.io.tmpdir"));
+  }
+
+  private static long countSortDirectories() throws IOException {
+    try (Stream<Path> paths = Files.list(getSortDirectory())) {
+      return paths
+          .filter(path -> path.getFileName().toString().startsWith("spotbugs-xml-reader-sort"))
+          .count();
+    }
+  }
+
+  @Test void sortsInMemory() throws IOException {
+    final List<BugInstance> instances = createBugInstances(100);
+
+    try (BugInstanceSorter sorter = new BugInstanceSorter(byFile, BugInstanceSorter.unlimited)) {
+      sorter.addAll(instances.iterator());
+
+      assertEquals(0, sorter.getRunCount());
+      assertEquals(sortInMemory(instances, SortOrder.FILE), getMessages(sorter.iterator()));
+    }
+  }
+
+  @Test void spillsAndMergesStably() throws IOException {
+    final List<BugInstance> instances = createBugInstances(1000);
+    final long budget = 20 * BugInstanceSorter.estimateSize(instances.get(0));
+
+    final long directories = countSortDirectories();
+
+    try (BugInstanceSorter sorter = new BugInstanceSorter(byPriority, budget)) {
+      sorter.addAll(instances.iterator());
+
+      assertTrue(sorter.getRunCount() > 1);
+      assertTrue(sorter.getRunCount() <= BugInstanceSorter.maximumMergeWidth);
+
+      // Equal bug instances keep the order in which they were added, as with `List.sort`.
+      assertEquals(sortInMemory(instances, SortOrder.PRIORITY), getMessages(sorter.iterator()));
+    }
+
+    assertEquals(directories, countSortDirectories());
+  }
+
+  @Test void mergesInPasses() throws IOException {
+    final List<BugInstance> instances = createBugInstances(500);
+
+    try (BugInstanceSorter sorter = new BugInstanceSorter(byFile, 0)) {
+      sorter.addAll(instances.iterator());
+
+      assertEquals(500, sorter.getRunCount());
+
+      final List<String> messages = getMessages(sorter.iterator());
+
+      assertTrue(sorter.getRunCount() <= BugInstanceSorter.maximumMergeWidth);
+      assertEquals(sortInMemory(instances, SortOrder.FILE), messages);
+    }
+  }
+
+  @Test void emptyHasNoBugInstances() throws IOException {
+    try (BugInstanceSorter sorter = new BugInstanceSorter(byFile, 0)) {
+      assertFalse(sorter.iterator().hasNext());
+    }
+  }
+}
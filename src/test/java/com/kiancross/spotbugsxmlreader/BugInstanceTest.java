@@ -8,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -52,5 +54,38 @@ class BugInstanceTest {
 
     assertEquals("(ERROR) bar:10:20 [baz] foo", bugInstance.getLogEntry(2));
   }
-}
 
+  @Test void appendFixedLogEntry() throws IOException {
+    bugInstance.setMessage("foo");
+    bugInstance.setSourcePath("bar");
+    bugInstance.setCategory("baz");
+    bugInstance.setStartLine(10);
+    bugInstance.setStartColumn(20);
+    bugInstance.setPriority(2);
+
+    final StringWriter writer = new StringWriter();
+    bugInstance.appendFixedLogEntry(writer);
+
+    assertEquals("(FIXED) bar:10:20 [baz] foo", writer.toString());
+  }
+
+  @Test void appendLogEntryMatchesGetLogEntry() throws IOException {
+    bugInstance.setMessage("foo");
+    bugInstance.setSourcePath("bar");
+    bugInstance.setCategory("baz");
+    bugInstance.setPriority(2);
+
+    final int[] values = {0, 7, 10, 1234567890, -42, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    for (int value : values) {
+      bugInstance.setStartLine(value);
+      bugInstance.setStartColumn(value);
+
+      final StringWriter writer = new StringWriter();
+      bugInstance.appendLogEntry(writer, 2);
+
+      assertEquals(String.format("(ERROR) bar:%d:%d [baz] foo", value, value), writer.toString());
+      assertEquals(writer.toString(), bugInstance.getLogEntry(2));
+    }
+  }
+}
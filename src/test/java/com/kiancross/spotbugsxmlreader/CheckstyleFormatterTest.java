@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class CheckstyleFormatterTest {
+  private static final String separator = System.lineSeparator();
+
+  private static BugInstance createBugInstance(String file, int priority, String message) {
+    return new BugInstanceBuilder()
+        .setMessage(message)
+        .setSourcePath(file)
+        .setType("DM")
+        .setPriority(priority)
+        .setStartLine(3)
+        .build();
+  }
+
+  @Test void groupsConsecutiveFindingsByFile() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      final ReportFormatter formatter = OutputFormat.CHECKSTYLE.create(sink, 1);
+
+      formatter.begin();
+      formatter.write(createBugInstance("A.java", 1, "a <b> & \"c\"\n\u0001"));
+      formatter.write(createBugInstance("A.java", 2, "d"));
+      formatter.writeFixed(createBugInstance("C.java", 2, "e"));
+      formatter.write(createBugInstance("B.java", 2, "f"));
+      formatter.end();
+    }
+
+    assertEquals(
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + separator
+        + "<checkstyle version=\"4.3\">" + separator
+        + "<file name=\"A.java\">" + separator
+        + "<error line=\"3\" severity=\"error\" "
+        + "message=\"a &lt;b&gt; &amp; &quot;c&quot;&#10;\ufffd\" source=\"spotbugs.DM\"/>"
+        + separator
+        + "<error line=\"3\" severity=\"warning\" message=\"d\" source=\"spotbugs.DM\"/>"
+        + separator
+        + "</file>" + separator
+        + "<file name=\"B.java\">" + separator
+        + "<error line=\"3\" severity=\"warning\" message=\"f\" source=\"spotbugs.DM\"/>"
+        + separator
+        + "</file>" + separator
+        + "</checkstyle>" + separator,
+        output.toString(StandardCharsets.UTF_8.name())
+    );
+  }
+
+  @Test void emptyReport() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      final ReportFormatter formatter = OutputFormat.CHECKSTYLE.create(sink, 1);
+
+      formatter.begin();
+      formatter.end();
+    }
+
+    assertEquals(
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + separator
+        + "<checkstyle version=\"4.3\">" + separator
+        + "</checkstyle>" + separator,
+        output.toString(StandardCharsets.UTF_8.name())
+    );
+  }
+}
@@ -6,9 +6,12 @@ package com.kiancross.spotbugsxmlreader;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Paths;
+import java.util.Arrays;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -182,4 +185,617 @@ class CommandLineInterfaceTest {
       commandLineInterface.parse(args);
     });
   }
+
+  @Test void streamingShort() {
+    final String[] args = {"-f", "foo", "-s"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertTrue(commandLineInterface.shouldUseStreamingParser());
+  }
+
+  @Test void streamingLong() {
+    final String[] args = {"-f", "foo", "--streaming"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertTrue(commandLineInterface.shouldUseStreamingParser());
+  }
+
+  @Test void defaultNotStreaming() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertFalse(commandLineInterface.shouldUseStreamingParser());
+  }
+
+  @Test void parallelismValueCorrect() {
+    final String[] args = {"-f", "foo", "-p", "4"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertDoesNotThrow(() -> {
+      assertEquals(4, commandLineInterface.getParallelism());
+    });
+  }
+
+  @Test void defaultParallelismValueCorrect() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertDoesNotThrow(() -> {
+      assertEquals(1, commandLineInterface.getParallelism());
+    });
+  }
+
+  @Test void parallelismValueLowThrows() {
+    final String[] args = {"-f", "foo", "--parallelism", "0"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getParallelism();
+    });
+  }
+
+  @Test void parallelismWithStreamingThrows() {
+    final String[] args = {"-f", "foo", "-p", "2", "-s"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getParallelism();
+    });
+  }
+
+  @Test void outputValueCorrect() {
+    final String[] args = {"-f", "foo", "--output", "bar"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertEquals("bar", commandLineInterface.getOutputPath());
+  }
+
+  @Test void defaultOutputIsNull() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertEquals(null, commandLineInterface.getOutputPath());
+  }
+
+  @Test void multipleFileValuesCorrect() {
+    final String[] args = {"-f", "foo", "bar", "-f", "foo", "-t", "0"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertEquals("foo", commandLineInterface.getReportPath());
+
+    assertDoesNotThrow(() -> {
+      assertEquals(Arrays.asList("foo", "bar"), commandLineInterface.getReportPaths());
+    });
+  }
+
+  @Test void fileGlobExpanded() {
+    final String[] args = {"-f", "src/test/resources/*.xml"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(
+          Arrays.asList(Paths.get("src/test/resources/example-report.xml").toString()),
+          commandLineInterface.getReportPaths()
+      );
+    });
+  }
+
+  @Test void fileGlobNoMatchesThrows() {
+    final String[] args = {"-f", "src/test/resources/*.foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getReportPaths();
+    });
+  }
+
+  @Test void baselineValueCorrect() {
+    final String[] args = {"-f", "foo", "--baseline", "bar"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertEquals("bar", commandLineInterface.getBaselinePath());
+  }
+
+  @Test void defaultBaselineIsNull() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertEquals(null, commandLineInterface.getBaselinePath());
+  }
+
+  @Test void cacheValuesCorrect() {
+    final String[] args = {"-f", "foo", "--cache-dir", "bar", "--cache-size", "2"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals("bar", commandLineInterface.getCacheDirectory());
+      assertEquals(2 * 1024 * 1024, commandLineInterface.getCacheSize());
+    });
+  }
+
+  @Test void defaultCacheValuesCorrect() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(null, commandLineInterface.getCacheDirectory());
+      assertEquals(ReportCache.defaultMaximumSize, commandLineInterface.getCacheSize());
+    });
+  }
+
+  @Test void cacheSizeValueNegativeThrows() {
+    final String[] args = {"-f", "foo", "--cache-size", "-1"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getCacheSize();
+    });
+  }
+
+  @Test void watchLong() {
+    final String[] args = {"-f", "foo", "--watch"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertTrue(commandLineInterface.shouldWatch());
+    });
+  }
+
+  @Test void defaultNotWatching() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertFalse(commandLineInterface.shouldWatch());
+    });
+  }
+
+  @Test void watchWithFullParseOptionThrows() {
+    final String[][] argsList = {
+      {"-f", "foo", "-w", "--streaming"},
+      {"-f", "foo", "-w", "--parallelism", "2"},
+      {"-f", "foo", "-w", "--cache-dir", "bar"},
+      {"-f", "foo", "-w", "--cache-size", "1"},
+      {"-f", "foo", "-w", "--stats"},
+    };
+
+    for (String[] args : argsList) {
+      assertDoesNotThrow(() -> {
+        commandLineInterface.parse(args);
+      });
+
+      assertThrows(CommandLineInterfaceException.class, () -> {
+        commandLineInterface.shouldWatch();
+      });
+    }
+  }
+
+  @Test void serveCommand() {
+    final String[] args = {"serve", "-f", "foo", "--port", "0"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertTrue(commandLineInterface.shouldServe());
+      assertEquals(0, commandLineInterface.getPort());
+    });
+  }
+
+  @Test void serveCommandAfterFiles() {
+    final String[] args = {"-f", "foo", "bar", "serve"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertTrue(commandLineInterface.shouldServe());
+      assertEquals("foo", commandLineInterface.getReportPath());
+    });
+  }
+
+  @Test void serveCommandOnlyFileThrows() {
+    final String[] args = {"-f", "serve"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getReportPaths();
+    });
+  }
+
+  @Test void defaultNotServing() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertFalse(commandLineInterface.shouldServe());
+      assertEquals(8765, commandLineInterface.getPort());
+    });
+  }
+
+  @Test void unknownCommandThrows() {
+    final String[] args = {"foo", "-f", "bar"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.shouldServe();
+    });
+  }
+
+  @Test void serveWithPrintOptionThrows() {
+    final String[][] argsList = {
+      {"serve", "-f", "foo", "-o", "bar"},
+      {"serve", "-f", "foo", "--baseline", "bar"},
+      {"serve", "-f", "foo", "--format", "sarif"},
+      {"serve", "-f", "foo", "--sort-by", "file"},
+      {"serve", "-f", "foo", "--group-by", "file"},
+      {"serve", "-f", "foo", "--summary"},
+      {"serve", "-f", "foo", "-w"},
+    };
+
+    for (String[] args : argsList) {
+      assertDoesNotThrow(() -> {
+        commandLineInterface.parse(args);
+      });
+
+      assertThrows(CommandLineInterfaceException.class, () -> {
+        commandLineInterface.shouldServe();
+      });
+    }
+  }
+
+  @Test void serveWithStatsThrows() {
+    final String[] args = {"serve", "-f", "foo", "--stats"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    final CommandLineInterfaceException exception = assertThrows(
+        CommandLineInterfaceException.class, () -> {
+          commandLineInterface.shouldServe();
+        }
+    );
+
+    assertEquals("`stats` cannot be used with `serve`", exception.getMessage());
+  }
+
+  @Test void portValueHighThrows() {
+    final String[] args = {"serve", "-f", "foo", "--port", "65536"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getPort();
+    });
+  }
+
+  @Test void invalidPathGlobThrows() {
+    final String[][] argsList = {
+      {"-f", "foo", "--include-path", "[a"},
+      {"-f", "foo", "--exclude-path", "[a"},
+    };
+
+    for (String[] args : argsList) {
+      assertDoesNotThrow(() -> {
+        commandLineInterface.parse(args);
+      });
+
+      assertThrows(CommandLineInterfaceException.class, () -> {
+        commandLineInterface.getFilter();
+      });
+    }
+  }
+
+  @Test void defaultFilterAcceptsAll() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertTrue(commandLineInterface.getFilter().isAcceptAll());
+    });
+  }
+
+  @Test void filterOptions() {
+    final String[] args = {
+      "-f", "foo",
+      "--include-category", "CORRECTNESS,STYLE",
+      "--exclude-type", "DM",
+      "--exclude-path", "gen/**",
+      "--max-priority", "2"
+    };
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+
+      final BugInstanceFilter filter = commandLineInterface.getFilter();
+
+      assertTrue(filter.accepts("STYLE", "2", "NP", "", "", "a/A.java"));
+      assertFalse(filter.accepts("SECURITY", "2", "NP", "", "", "a/A.java"));
+      assertFalse(filter.accepts("STYLE", "2", "DM", "", "", "a/A.java"));
+      assertFalse(filter.accepts("STYLE", "2", "NP", "", "", "gen/A.java"));
+      assertFalse(filter.accepts("STYLE", "3", "NP", "", "", "a/A.java"));
+    });
+  }
+
+  @Test void maxPriorityValueHighThrows() {
+    final String[] args = {"-f", "foo", "--max-priority", "4"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getFilter();
+    });
+  }
+
+  @Test void nonExistantExcludeFilterThrows() {
+    final String[] args = {"-f", "foo", "--exclude-filter", "bar"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getFilter();
+    });
+  }
+
+  @Test void defaultNoSummary() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(null, commandLineInterface.getSummaryFormat());
+      assertEquals(10, commandLineInterface.getTopFiles());
+    });
+  }
+
+  @Test void summaryDefaultFormat() {
+    final String[] args = {"--summary", "-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(ReportSummary.Format.TABLE, commandLineInterface.getSummaryFormat());
+    });
+  }
+
+  @Test void summaryJsonFormat() {
+    final String[] args = {"-f", "foo", "--summary", "json", "--top", "3"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(ReportSummary.Format.JSON, commandLineInterface.getSummaryFormat());
+      assertEquals(3, commandLineInterface.getTopFiles());
+    });
+  }
+
+  @Test void summaryUnknownFormatThrows() {
+    final String[] args = {"-f", "foo", "--summary", "xml"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getSummaryFormat();
+    });
+  }
+
+  @Test void statsFormats() {
+    final String[] args = {"-f", "foo", "--stats", "json"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(ReportSummary.Format.JSON, commandLineInterface.getStatsFormat());
+
+      commandLineInterface.parse(new String[] {"-f", "foo", "--stats"});
+      assertEquals(ReportSummary.Format.TABLE, commandLineInterface.getStatsFormat());
+
+      commandLineInterface.parse(new String[] {"-f", "foo"});
+      assertEquals(null, commandLineInterface.getStatsFormat());
+    });
+  }
+
+  @Test void statsUnknownFormatThrows() {
+    final String[] args = {"-f", "foo", "--stats", "csv"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getStatsFormat();
+    });
+  }
+
+  @Test void sortOrderAndMaxMemory() {
+    final String[] args = {"-f", "foo", "--sort-by", "priority", "--max-memory", "64"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(SortOrder.PRIORITY, commandLineInterface.getSortOrder());
+      assertEquals(64L * 1024 * 1024, commandLineInterface.getMaxMemory());
+
+      commandLineInterface.parse(new String[] {"-f", "foo"});
+      assertEquals(null, commandLineInterface.getSortOrder());
+      assertEquals(BugInstanceSorter.unlimited, commandLineInterface.getMaxMemory());
+    });
+  }
+
+  @Test void sortOrderUnknownThrows() {
+    final String[] args = {"-f", "foo", "--sort-by", "bar"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getSortOrder();
+    });
+  }
+
+  @Test void sortOrderWithSummaryThrows() {
+    final String[] args = {"-f", "foo", "--sort-by", "file", "--summary"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getSortOrder();
+    });
+  }
+
+  @Test void groupByAndCategoryOrder() {
+    final String[] args = {"-f", "foo", "--group-by", "file", "--sort-by", "category"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(GroupBy.FILE, commandLineInterface.getGroupBy());
+      assertEquals(SortOrder.CATEGORY, commandLineInterface.getSortOrder());
+
+      commandLineInterface.parse(new String[] {"-f", "foo", "--group-by", "category",
+          "--max-memory", "1"});
+      assertEquals(GroupBy.CATEGORY, commandLineInterface.getGroupBy());
+      assertEquals(1024L * 1024, commandLineInterface.getMaxMemory());
+    });
+  }
+
+  @Test void groupByUnknownThrows() {
+    final String[] args = {"-f", "foo", "--group-by", "priority"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getGroupBy();
+    });
+  }
+
+  @Test void maxMemoryZeroThrows() {
+    final String[] args = {"-f", "foo", "--sort-by", "file", "--max-memory", "0"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getMaxMemory();
+    });
+  }
+
+  @Test void maxMemoryWithoutSortOrderThrows() {
+    final String[] args = {"-f", "foo", "--max-memory", "1"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getMaxMemory();
+    });
+  }
+
+  @Test void topNegativeThrows() {
+    final String[] args = {"-f", "foo", "--summary", "--top", "-1"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getTopFiles();
+    });
+  }
+
+  @Test void defaultOutputFormat() {
+    final String[] args = {"-f", "foo"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(OutputFormat.TEXT, commandLineInterface.getOutputFormat());
+    });
+  }
+
+  @Test void outputFormat() {
+    final String[] args = {"-f", "foo", "--format", "sarif"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+      assertEquals(OutputFormat.SARIF, commandLineInterface.getOutputFormat());
+    });
+  }
+
+  @Test void outputFormatUnknownThrows() {
+    final String[] args = {"-f", "foo", "--format", "xml"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getOutputFormat();
+    });
+  }
+
+  @Test void outputFormatWithSummaryThrows() {
+    final String[] args = {"-f", "foo", "--format", "jsonl", "--summary"};
+
+    assertDoesNotThrow(() -> {
+      commandLineInterface.parse(args);
+    });
+
+    assertThrows(CommandLineInterfaceException.class, () -> {
+      commandLineInterface.getOutputFormat();
+    });
+  }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompactBugInstanceStoreTest {
+  private List<BugInstance> instances;
+  private CompactBugInstanceStore store;
+
+  @BeforeEach void initStore() throws FileNotFoundException, ParserException {
+    instances = Parser.fromFilePath("src/test/resources/example-report.xml").getBugInstances();
+    store = CompactBugInstanceStore.from(instances.iterator());
+  }
+
+  @Test void accessorsMatchBugInstances() {
+    assertEquals(instances.size(), store.size());
+
+    for (int i = 0; i < instances.size(); i++) {
+      final BugInstance instance = instances.get(i);
+
+      assertEquals(instance.getMessage(), store.getMessage(i));
+      assertEquals(instance.getSourcePath(), store.getSourcePath(i));
+      assertEquals(instance.getCategory(), store.getCategory(i));
+      assertEquals(instance.getType(), store.getType(i));
+      assertEquals(instance.getClassName(), store.getClassName(i));
+      assertEquals(instance.getMethodName(), store.getMethodName(i));
+      assertEquals(instance.getRelativeSourcePath(), store.getRelativeSourcePath(i));
+      assertEquals(instance.getStartLine(), store.getStartLine(i));
+      assertEquals(instance.getStartColumn(), store.getStartColumn(i));
+      assertEquals(instance.getPriority(), store.getPriority(i));
+      assertEquals(instance.isError(2), store.isError(i, 2));
+    }
+  }
+
+  @Test void iteratorMatchesBugInstances() {
+    final Iterator<BugInstance> iterator = store.iterator();
+
+    for (BugInstance instance : instances) {
+      assertTrue(iterator.hasNext());
+      assertEquals(instance.getLogEntry(2), iterator.next().getLogEntry(2));
+    }
+
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test void repeatedValuesAreShared() {
+    assertEquals("CORRECTNESS", store.getCategory(2));
+    assertSame(store.getCategory(2), store.getCategory(3));
+  }
+
+  @Test void messagesRoundTrip() {
+    final List<String> messages = Arrays.asList("caf\u00e9", null, "", "\ud83d\udc1b bug");
+    final List<BugInstance> messageInstances = new ArrayList<>();
+
+    for (String message : messages) {
+      messageInstances.add(new BugInstanceBuilder().setMessage(message).build());
+    }
+
+    final CompactBugInstanceStore messageStore = CompactBugInstanceStore.from(
+        messageInstances.iterator()
+    );
+
+    for (int i = 0; i < messages.size(); i++) {
+      assertEquals(messages.get(i), messageStore.getMessage(i));
+    }
+  }
+
+  @Test void emptyStore() {
+    final CompactBugInstanceStore empty = CompactBugInstanceStore.from(
+        Collections.<BugInstance>emptyIterator()
+    );
+
+    assertEquals(0, empty.size());
+    assertFalse(empty.iterator().hasNext());
+  }
+
+  @Test void outOfBoundsThrows() {
+    assertThrows(IndexOutOfBoundsException.class, () -> {
+      store.getMessage(store.size());
+    });
+
+    assertThrows(IndexOutOfBoundsException.class, () -> {
+      store.getPriority(-1);
+    });
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GlobExpanderTest {
+  @TempDir Path directory;
+
+  private String createFile(String name) throws IOException {
+    final Path file = directory.resolve(name);
+    Files.createDirectories(file.getParent());
+    return Files.createFile(file).toString();
+  }
+
+  @Test void isGlob() {
+    assertTrue(GlobExpander.isGlob("*.xml"));
+    assertTrue(GlobExpander.isGlob("foo/**/bar.xml"));
+    assertTrue(GlobExpander.isGlob("foo?.xml"));
+    assertTrue(GlobExpander.isGlob("foo{1,2}.xml"));
+    assertFalse(GlobExpander.isGlob("foo/bar.xml"));
+    assertFalse(GlobExpander.isGlob("-"));
+  }
+
+  @Test void nonGlobReturnedAsIs() throws IOException {
+    assertEquals(Collections.singletonList("foo"), GlobExpander.expand("foo"));
+  }
+
+  @Test void matchesSorted() throws IOException {
+    final String b = createFile("b.xml");
+    final String a = createFile("a.xml");
+    createFile("c.txt");
+    createFile("d/e.xml");
+
+    assertEquals(Arrays.asList(a, b), GlobExpander.expand(directory + "/*.xml"));
+  }
+
+  @Test void recursiveMatches() throws IOException {
+    final String a = createFile("a/spotbugs.xml");
+    final String b = createFile("a/b/spotbugs.xml");
+    createFile("a/b/other.xml");
+
+    assertEquals(Arrays.asList(b, a), GlobExpander.expand(directory + "/**/spotbugs.xml"));
+  }
+
+  @Test void nonExistantBaseMatchesNothing() throws IOException {
+    assertEquals(Collections.emptyList(), GlobExpander.expand(directory + "/foo/*.xml"));
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IncrementalParserTest {
+  private IncrementalParser parser;
+
+  @BeforeEach void initParser() {
+    parser = new IncrementalParser();
+  }
+
+  private static String getBugInstance(String message) {
+    return "<BugInstance priority='2' category='bar'>"
+        + "<LongMessage>" + message + "</LongMessage>"
+        + "<SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'/>"
+        + "</BugInstance>\n";
+  }
+
+  private static byte[] getReport(String sourceDirectory, String... messages) {
+    final StringBuilder report = new StringBuilder(
+        "<BugCollection version='4.5.0' timestamp='" + System.nanoTime() + "'>\n"
+        + "<Project><SrcDir>" + sourceDirectory + "</SrcDir></Project>\n"
+    );
+
+    for (String message : messages) {
+      report.append(getBugInstance(message));
+    }
+
+    report.append("<Errors></Errors>\n</BugCollection>\n");
+
+    return report.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String getMessages(List<BugInstance> instances) {
+    final StringBuilder messages = new StringBuilder();
+
+    for (BugInstance instance : instances) {
+      messages.append(instance.getMessage());
+    }
+
+    return messages.toString();
+  }
+
+  @Test void firstParseAddsEverything() throws ParserException {
+    final IncrementalParser.Update update = parser.parse(getReport("foo", "a", "b", "c"));
+
+    assertEquals("abc", getMessages(update.getBugInstances()));
+    assertEquals("abc", getMessages(update.getAddedBugInstances()));
+    assertEquals("", getMessages(update.getRemovedBugInstances()));
+    assertTrue(update.hasChanges());
+  }
+
+  @Test void matchesParser() throws FileNotFoundException, ParserException {
+    final String path = "src/test/resources/example-report.xml";
+    final List<BugInstance> expected = Parser.fromFilePath(path).getBugInstances();
+    final List<BugInstance> actual = parser.parse(path).getBugInstances();
+
+    assertEquals(expected.size(), actual.size());
+
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getLogEntry(2), actual.get(i).getLogEntry(2));
+    }
+  }
+
+  @Test void detailMatchesParser() throws FileNotFoundException, ParserException {
+    final String path = "src/test/resources/example-report.xml";
+    final List<BugInstance> expected = Parser.builder().setCaptureDetail(true).build(path)
+        .getBugInstances();
+
+    parser.setCaptureDetail(true);
+    final List<BugInstance> actual = parser.parse(path).getBugInstances();
+
+    for (int i = 0; i < expected.size(); i++) {
+      final BugInstanceDetail expectedDetail = expected.get(i).getDetail();
+      final BugInstanceDetail actualDetail = actual.get(i).getDetail();
+
+      assertEquals(expectedDetail.getAttributes(), actualDetail.getAttributes());
+      assertEquals(
+          expectedDetail.getAnnotations().size(),
+          actualDetail.getAnnotations().size()
+      );
+      assertEquals(
+          expectedDetail.getPatternShortDescription(),
+          actualDetail.getPatternShortDescription()
+      );
+    }
+  }
+
+  @Test void unchangedReportReusesInstances() throws ParserException {
+    final List<BugInstance> first = parser.parse(getReport("foo", "a", "b")).getBugInstances();
+    final IncrementalParser.Update update = parser.parse(getReport("foo", "a", "b"));
+
+    assertFalse(update.hasChanges());
+    assertSame(first.get(0), update.getBugInstances().get(0));
+    assertSame(first.get(1), update.getBugInstances().get(1));
+  }
+
+  @Test void onlyChangesReported() throws ParserException {
+    final List<BugInstance> first = parser.parse(getReport("foo", "a", "b", "c"))
+        .getBugInstances();
+
+    final IncrementalParser.Update update = parser.parse(getReport("foo", "d", "a", "c", "e"));
+
+    assertEquals("dace", getMessages(update.getBugInstances()));
+    assertEquals("de", getMessages(update.getAddedBugInstances()));
+    assertEquals("b", getMessages(update.getRemovedBugInstances()));
+    assertSame(first.get(2), update.getBugInstances().get(2));
+    assertEquals("dace", getMessages(parser.getBugInstances()));
+  }
+
+  @Test void duplicatesMatchedOneToOne() throws ParserException {
+    parser.parse(getReport("foo", "a", "a"));
+
+    final IncrementalParser.Update update = parser.parse(getReport("foo", "a", "a", "a"));
+
+    assertEquals("a", getMessages(update.getAddedBugInstances()));
+    assertEquals("", getMessages(update.getRemovedBugInstances()));
+  }
+
+  @Test void changedProjectConvertsEverything() throws ParserException {
+    parser.parse(getReport("foo", "a", "b"));
+
+    final IncrementalParser.Update update = parser.parse(getReport("/bar/foo", "a", "b"));
+
+    assertEquals("ab", getMessages(update.getAddedBugInstances()));
+    assertEquals("ab", getMessages(update.getRemovedBugInstances()));
+    assertEquals("/bar/foo", update.getBugInstances().get(0).getSourcePath());
+  }
+
+  @Test void noBugsValid() throws ParserException {
+    assertEquals(0, parser.parse(getReport("foo")).getBugInstances().size());
+  }
+
+  @Test void invalidChangeThrowsAndKeepsState() throws ParserException {
+    parser.parse(getReport("foo", "a"));
+
+    assertThrows(ParserException.class, () -> {
+      parser.parse(getReport("foo", "a", "b</LongMessage><LongMessage>c"));
+    });
+
+    final IncrementalParser.Update update = parser.parse(getReport("foo", "a", "b"));
+
+    assertEquals("b", getMessages(update.getAddedBugInstances()));
+  }
+
+  @Test void commentedBugInstanceIgnored() throws ParserException {
+    final String report = new String(getReport("foo", "a"), StandardCharsets.UTF_8).replace(
+        "<Errors>",
+        "<!-- <BugInstance priority='2'> --><Errors>"
+    );
+
+    final IncrementalParser.Update update = parser.parse(
+        report.getBytes(StandardCharsets.UTF_8)
+    );
+
+    assertEquals("a", getMessages(update.getBugInstances()));
+  }
+
+  @Test void nonUtf8ReportParsedFully() throws ParserException {
+    final String report = "<?xml version='1.0' encoding='UTF-16'?>\n"
+        + new String(getReport("foo", "caf\u00e9", "b"), StandardCharsets.UTF_8);
+
+    parser.parse(report.getBytes(StandardCharsets.UTF_16));
+
+    final IncrementalParser.Update update = parser.parse(
+        report.getBytes(StandardCharsets.UTF_16)
+    );
+
+    assertEquals("caf\u00e9b", getMessages(update.getBugInstances()));
+    assertEquals("caf\u00e9b", getMessages(update.getAddedBugInstances()));
+    assertEquals("caf\u00e9b", getMessages(update.getRemovedBugInstances()));
+  }
+
+  @Test void latin1ReportParsedFully() throws ParserException {
+    final String report = "<?xml version='1.0' encoding='ISO-8859-1'?>\n"
+        + new String(getReport("foo", "caf\u00e9"), StandardCharsets.UTF_8);
+
+    final IncrementalParser.Update update = parser.parse(
+        report.getBytes(StandardCharsets.ISO_8859_1)
+    );
+
+    assertEquals("caf\u00e9", getMessages(update.getBugInstances()));
+  }
+
+  @Test void unterminatedBugInstanceThrows() {
+    assertThrows(ParserException.class, () -> {
+      parser.parse((
+          "<BugCollection version='4.5.0'><Project><SrcDir>foo</SrcDir></Project>"
+          + "<BugInstance priority='2' category='bar'>"
+      ).getBytes(StandardCharsets.UTF_8));
+    });
+  }
+
+  @Test void nonExistantPathThrows() {
+    assertThrows(FileNotFoundException.class, () -> {
+      parser.parse("foo");
+    });
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class JsonLinesFormatterTest {
+  private static final String separator = System.lineSeparator();
+
+  private static BugInstance createBugInstance(int priority, String message) {
+    return new BugInstanceBuilder()
+        .setMessage(message)
+        .setSourcePath("/src/foo/Foo.java")
+        .setRelativeSourcePath("foo/Foo.java")
+        .setCategory("STYLE")
+        .setType("DM")
+        .setClassName("foo.Foo")
+        .setMethodName("bar")
+        .setPriority(priority)
+        .setStartLine(3)
+        .setStartColumn(4)
+        .build();
+  }
+
+  @Test void writesOneObjectPerLine() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      final ReportFormatter formatter = OutputFormat.JSONL.create(sink, 1);
+
+      formatter.begin();
+      formatter.write(createBugInstance(1, "first"));
+      formatter.write(createBugInstance(2, "second \"quoted\""));
+      formatter.writeFixed(createBugInstance(1, "third"));
+      formatter.end();
+    }
+
+    final String fields = "\"category\":\"STYLE\",\"priority\":%d,\"type\":\"DM\","
+        + "\"className\":\"foo.Foo\",\"methodName\":\"bar\","
+        + "\"sourcePath\":\"/src/foo/Foo.java\",\"relativeSourcePath\":\"foo/Foo.java\","
+        + "\"startLine\":3,\"startColumn\":4,\"message\":%s}";
+
+    assertEquals(
+        "{\"severity\":\"error\"," + String.format(fields, 1, "\"first\"") + separator
+        + "{\"severity\":\"warning\","
+        + String.format(fields, 2, "\"second \\\"quoted\\\"\"") + separator
+        + "{\"severity\":\"fixed\"," + String.format(fields, 1, "\"third\"") + separator,
+        output.toString(StandardCharsets.UTF_8.name())
+    );
+  }
+
+  @Test void emptyReportWritesNothing() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      final ReportFormatter formatter = OutputFormat.JSONL.create(sink, 1);
+
+      formatter.begin();
+      formatter.end();
+    }
+
+    assertEquals(0, output.size());
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class JsonWriterTest {
+  private final StringBuilder output = new StringBuilder();
+  private final JsonWriter json = new JsonWriter(output);
+
+  @Test void emptyObject() throws IOException {
+    json.beginObject().endObject();
+    assertEquals("{}", output.toString());
+  }
+
+  @Test void nestedValues() throws IOException {
+    json.beginObject()
+        .name("a").value(1)
+        .name("b").beginArray().value("x").value(true).value((String) null).endArray()
+        .name("c").beginObject().name("d").beginArray().endArray().endObject()
+        .name("e").value(-5)
+        .endObject();
+
+    assertEquals("{\"a\":1,\"b\":[\"x\",true,null],\"c\":{\"d\":[]},\"e\":-5}", output.toString());
+  }
+
+  @Test void deeplyNested() throws IOException {
+    for (int i = 0; i < 20; i++) {
+      json.beginArray().value(i);
+    }
+
+    for (int i = 0; i < 20; i++) {
+      json.endArray();
+    }
+
+    assertEquals(
+        "[0,[1,[2,[3,[4,[5,[6,[7,[8,[9,[10,[11,[12,[13,[14,[15,[16,[17,[18,[19"
+        + "]]]]]]]]]]]]]]]]]]]]",
+        output.toString()
+    );
+  }
+
+  @Test void stringsEscaped() throws IOException {
+    json.value("a\"b\\c\nd\re\tf\u0001g\u00e9");
+    assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\u00e9\"", output.toString());
+  }
+}
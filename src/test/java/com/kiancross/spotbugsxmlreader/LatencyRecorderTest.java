@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyRecorderTest {
+  @Test void emptyIsZero() {
+    final LatencyRecorder recorder = new LatencyRecorder(10);
+
+    assertEquals(0, recorder.getCount());
+    assertEquals(0, recorder.getPercentile(99));
+    assertEquals(0, recorder.getMaximum());
+  }
+
+  @Test void percentilesValid() {
+    final LatencyRecorder recorder = new LatencyRecorder(100);
+
+    for (int i = 100; i >= 1; i--) {
+      recorder.record(i);
+    }
+
+    assertEquals(100, recorder.getCount());
+    assertEquals(50, recorder.getPercentile(50));
+    assertEquals(99, recorder.getPercentile(99));
+    assertEquals(100, recorder.getPercentile(100));
+    assertEquals(100, recorder.getMaximum());
+  }
+
+  @Test void onlyRecentSamplesUsed() {
+    final LatencyRecorder recorder = new LatencyRecorder(10);
+
+    for (int i = 0; i < 10; i++) {
+      recorder.record(1000);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      recorder.record(1);
+    }
+
+    assertEquals(20, recorder.getCount());
+    assertEquals(1, recorder.getPercentile(99));
+    assertEquals(1000, recorder.getMaximum());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+class MergedReportReaderTest {
+  private static ReportParser openReport(String path) throws FileNotFoundException,
+      ParserException {
+
+    if (path.equals("invalid")) {
+      return new Parser(new ByteArrayInputStream("<foo></foo>".getBytes()));
+    }
+
+    return new Parser(new ByteArrayInputStream((
+        "<BugCollection version='4.5.0'><Project><SrcDir>/foo/bar</SrcDir></Project>"
+        + "<BugInstance category='C' priority='1'><LongMessage>" + path + "</LongMessage>"
+        + "<SourceLine relSourcepath='bar' start='1' startBytecode='2' primary='true'/>"
+        + "</BugInstance></BugCollection>"
+    ).getBytes()));
+  }
+
+  @Test void instancesInReportOrder() {
+    final String[] paths = {"a", "b", "c", "d", "e"};
+
+    try (MergedReportReader reader = new MergedReportReader(
+        Arrays.asList(paths), MergedReportReaderTest::openReport, 3)) {
+
+      final Iterator<BugInstance> iterator = reader.iterator();
+
+      for (String path : paths) {
+        assertTrue(iterator.hasNext());
+        assertEquals(path, iterator.next().getMessage());
+      }
+
+      assertFalse(iterator.hasNext());
+      assertThrows(NoSuchElementException.class, () -> {
+        iterator.next();
+      });
+    }
+  }
+
+  @Test void invalidReportThrowsWithPath() {
+    try (MergedReportReader reader = new MergedReportReader(
+        Arrays.asList("a", "invalid"), MergedReportReaderTest::openReport, 2)) {
+
+      final Iterator<BugInstance> iterator = reader.iterator();
+
+      assertEquals("a", iterator.next().getMessage());
+
+      final UncheckedParserException exception = assertThrows(
+          UncheckedParserException.class, () -> {
+            iterator.hasNext();
+          }
+      );
+
+      assertTrue(exception.getCause().getMessage().startsWith("invalid: "));
+    }
+  }
+
+  @Test void nonExistantReportThrows() {
+    try (MergedReportReader reader = new MergedReportReader(
+        Arrays.asList("foo"), Parser::fromFilePath, 1)) {
+
+      final UncheckedIOException exception = assertThrows(UncheckedIOException.class, () -> {
+        reader.iterator().hasNext();
+      });
+
+      assertTrue(exception.getCause() instanceof FileNotFoundException);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OutputOrderTest {
+  private static final String[] categories = {"STYLE", "CORRECTNESS", null, "BAD_PRACTICE"};
+
+  private static BugInstance createBugInstance(String path, int line, int column,
+      String category, int priority) {
+
+    return new BugInstanceBuilder()
+        .setSourcePath(path)
+        .setStartLine(line)
+        .setStartColumn(column)
+        .setCategory(category)
+        .setPriority(priority)
+        .build();
+  }
+
+  private static List<BugInstance> createBugInstances(int count) {
+    final List<BugInstance> instances = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      final String path = i % 11 == 0 ? null : "/src/File" + (i * 7919 % 17) + ".java";
+
+      instances.add(createBugInstance(
+          path, i % 7 - 1, i % 3 - 1, categories[i % categories.length], 1 + i % 3
+      ));
+    }
+
+    return instances;
+  }
+
+  private static void assertSortedAsComparator(OutputOrder order, List<BugInstance> instances) {
+    final List<BugInstance> expected = new ArrayList<>(instances);
+    expected.sort(order.getComparator());
+
+    final List<BugInstance> actual = new ArrayList<>(instances);
+    order.sort(actual);
+
+    // The same instances, not only equal ones, so that the sort is known to be stable.
+    for (int i = 0; i < expected.size(); i++) {
+      assertTrue(expected.get(i) == actual.get(i));
+    }
+  }
+
+  @Test void packedSortMatchesComparator() {
+    final List<BugInstance> instances = createBugInstances(1000);
+
+    for (GroupBy group : Arrays.asList(null, GroupBy.FILE, GroupBy.CATEGORY)) {
+      for (SortOrder sort : Arrays.asList(null, SortOrder.FILE, SortOrder.PRIORITY,
+          SortOrder.CATEGORY)) {
+
+        assertSortedAsComparator(new OutputOrder(group, sort), instances);
+      }
+    }
+  }
+
+  @Test void unpackableLocationFallsBack() {
+    final List<BugInstance> instances = createBugInstances(100);
+    instances.add(createBugInstance("/src/Large.java", 1 << 25, 0, "STYLE", 1));
+    instances.add(createBugInstance("/src/Large.java", 2, 1 << 20, "STYLE", 1));
+
+    assertSortedAsComparator(new OutputOrder(GroupBy.CATEGORY, SortOrder.FILE), instances);
+  }
+
+  @Test void packLocationOrdersByPathThenLineThenColumn() {
+    assertTrue(OutputOrder.packLocation(1, 5, 5) < OutputOrder.packLocation(2, 0, 0));
+    assertTrue(OutputOrder.packLocation(1, 5, 5) < OutputOrder.packLocation(1, 6, -1));
+    assertTrue(OutputOrder.packLocation(1, -1, -1) < OutputOrder.packLocation(1, 0, 0));
+    assertTrue(OutputOrder.packLocation((1 << 23) - 1, (1 << 24) - 2, (1 << 16) - 2) > 0);
+
+    assertEquals(-1, OutputOrder.packLocation(1 << 23, 0, 0));
+    assertEquals(-1, OutputOrder.packLocation(0, -2, 0));
+    assertEquals(-1, OutputOrder.packLocation(0, 0, 1 << 16));
+  }
+
+  @Test void sortIndicesIsStable() {
+    final int[] keys = {3, 1, 2, 1, 3, 0, 2};
+
+    final int[] order = OutputOrder.sortIndices(
+        keys.length, (a, b) -> Integer.compare(keys[a], keys[b])
+    );
+
+    assertArrayEquals(new int[] {5, 1, 3, 2, 6, 0, 4}, order);
+    assertArrayEquals(new int[0], OutputOrder.sortIndices(0, (a, b) -> 0));
+  }
+}
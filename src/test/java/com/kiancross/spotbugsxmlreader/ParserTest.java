@@ -7,11 +7,17 @@ package com.kiancross.spotbugsxmlreader;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import org.junit.jupiter.api.Test;
 
 class ParserTest {
@@ -110,6 +116,38 @@ class ParserTest {
     assertEquals("(WARNING) foo:35:11 [bar] bat", bug.getLogEntry(0));
   }
   
+  @Test void identifyingAttributesValid() throws ParserException {
+    final Parser parser = new Parser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>/a/foo</SrcDir> </Project>"
+        + "  <BugInstance type='baz' priority='2' category='bar'>"
+        + "    <Class classname='Other'/>"
+        + "    <Class classname='Main' primary='true'/>"
+        + "    <Method classname='Main' name='run' primary='true'/>"
+        + "    <Method classname='Main' name='other' primary='true'/>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'/>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'/>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals("baz", bugs.get(0).getType());
+    assertEquals("Main", bugs.get(0).getClassName());
+    assertEquals("run", bugs.get(0).getMethodName());
+    assertEquals("foo", bugs.get(0).getRelativeSourcePath());
+    assertEquals("/a/foo", bugs.get(0).getSourcePath());
+
+    assertEquals("", bugs.get(1).getType());
+    assertEquals("", bugs.get(1).getClassName());
+    assertEquals("", bugs.get(1).getMethodName());
+  }
+
   @Test void noPrimaryThrows() throws ParserException {
     final Parser parser = new Parser(getTestInputStream(
         "<BugCollection version='4.5.0'>"
@@ -231,4 +269,241 @@ class ParserTest {
       ));
     });
   }
+
+  @Test void iteratorIsLazy() throws ParserException {
+    final Parser parser = new Parser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='bad' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    final Iterator<BugInstance> bugs = parser.iterator();
+
+    assertTrue(bugs.hasNext());
+    assertEquals("(WARNING) foo:35:11 [bar] bat", bugs.next().getLogEntry(0));
+
+    assertThrows(UncheckedParserException.class, () -> {
+      bugs.next();
+    });
+  }
+
+  @Test void streamValid() throws ParserException {
+    final Parser parser = new Parser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='bad' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    try (Stream<BugInstance> bugs = parser.stream()) {
+      assertEquals("(WARNING) foo:35:11 [bar] bat", bugs.findFirst().get().getLogEntry(0));
+    }
+  }
+
+  private String getLargeReport(int size, int... invalid) {
+    StringBuilder report = new StringBuilder(
+        "<BugCollection version='4.5.0'><Project> <SrcDir>foo</SrcDir> </Project>"
+    );
+
+    for (int i = 0; i < size; i++) {
+      final boolean isInvalid = Arrays.binarySearch(invalid, i) >= 0;
+
+      report.append(String.format(
+          "<BugInstance priority='%s' category='bar'>"
+          + "  <LongMessage>bat %d</LongMessage>"
+          + "  <SourceLine primary='true' start='%d' startBytecode='11' relSourcepath='foo'/>"
+          + "</BugInstance>",
+          isInvalid ? "bad " + i : "2", i, i
+      ));
+    }
+
+    return report.append("</BugCollection>").toString();
+  }
+
+  @Test void parallelPreservesOrder() throws ParserException {
+    final String report = getLargeReport(2000);
+
+    final List<BugInstance> expected = new Parser(getTestInputStream(report)).getBugInstances();
+
+    final Parser parser = new Parser(getTestInputStream(report));
+    parser.setParallelism(4);
+
+    final List<BugInstance> actual = parser.getBugInstances();
+
+    assertEquals(expected.size(), actual.size());
+
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getLogEntry(0), actual.get(i).getLogEntry(0));
+    }
+  }
+
+  @Test void parallelThrowsFirstError() throws ParserException {
+    final Parser parser = new Parser(getTestInputStream(getLargeReport(2000, 700, 1500)));
+    parser.setParallelism(4);
+
+    final ParserException exception = assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+
+    assertEquals("Error when parsing integer: For input string: \"bad 700\"",
+        exception.getMessage());
+  }
+
+  @Test void invalidParallelismThrows() throws ParserException {
+    final Parser parser = new Parser(getTestInputStream(getLargeReport(0)));
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      parser.setParallelism(0);
+    });
+  }
+
+  @Test void builderParallelismValid() throws ParserException {
+    final Parser parser = Parser.builder()
+        .setParallelism(4)
+        .build(getTestInputStream(getLargeReport(1000)));
+
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals(1000, bugs.size());
+  }
+
+  @Test void builderInvalidParallelismThrows() {
+    assertThrows(IllegalArgumentException.class, () -> {
+      Parser.builder().setParallelism(0);
+    });
+  }
+
+  @Test void builderUsesPool() throws ParserConfigurationException {
+    final String report = "<!DOCTYPE BugCollection>" + getLargeReport(1);
+
+    assertDoesNotThrow(() -> {
+      Parser.builder().build(getTestInputStream(report));
+    });
+
+    final DocumentBuilderFactory factory = XmlParserPool.createDocumentBuilderFactory();
+    factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+
+    final XmlParserPool pool = new XmlParserPool(factory, XmlParserPool.createInputFactory());
+
+    assertThrows(ParserException.class, () -> {
+      Parser.builder().setPool(pool).build(getTestInputStream(report));
+    });
+  }
+
+  @Test void builderNonExistantPathThrows() {
+    assertThrows(FileNotFoundException.class, () -> {
+      Parser.builder().build("foo");
+    });
+  }
+
+  private String getFilterReport() {
+    return "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>/src/a</SrcDir> <SrcDir>/src/gen</SrcDir> </Project>"
+        + "  <BugInstance priority='1' category='CORRECTNESS' type='NP'>"
+        + "    <LongMessage>kept</LongMessage>"
+        + "    <SourceLine primary='true' start='1' startBytecode='1' relSourcepath='a/A.java'/>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='bad' category='STYLE' type='DM'>"
+        + "    <SourceLine primary='true' start='2' startBytecode='2' relSourcepath='a/B.java'/>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='2' category='CORRECTNESS' type='NP'>"
+        + "    <SourceLine primary='true' start='3' startBytecode='3' relSourcepath='gen/C.java'/>"
+        + "  </BugInstance>"
+        + "</BugCollection>";
+  }
+
+  @Test void filterSkipsRejectedBugInstances() throws ParserException {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .excludeCategory("STYLE")
+        .excludePath("gen/**")
+        .build();
+
+    final Parser parser = Parser.builder()
+        .setFilter(filter)
+        .build(getTestInputStream(getFilterReport()));
+
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals(1, bugs.size());
+    assertEquals("kept", bugs.get(0).getMessage());
+  }
+
+  @Test void filterSkipsRejectedBugInstancesLazily() throws ParserException {
+    final Parser parser = new Parser(getTestInputStream(getFilterReport()));
+    parser.setFilter(BugInstanceFilter.builder().excludeCategory("STYLE").build());
+
+    final Iterator<BugInstance> bugs = parser.iterator();
+
+    assertEquals("kept", bugs.next().getMessage());
+
+    final UncheckedParserException exception = assertThrows(UncheckedParserException.class,
+        () -> {
+          bugs.hasNext();
+        });
+
+    assertEquals("There must be exactly one `LongMessage` tag.",
+        exception.getCause().getMessage());
+  }
+
+  @Test void filterSkipsRejectedBugInstancesInParallel() throws ParserException {
+    final Parser parser = Parser.builder()
+        .setParallelism(4)
+        .setFilter(BugInstanceFilter.builder().includeType("NP").build())
+        .build(getTestInputStream(getLargeReport(2000, 700)));
+
+    assertEquals(0, parser.getBugInstances().size());
+  }
+
+  @Test void pathFilterAppliedBeforeMessageCheck() throws ParserException {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .excludeCategory("STYLE")
+        .excludePath("gen/**")
+        .build();
+
+    final Parser parser = Parser.builder()
+        .setFilter(filter)
+        .build(getTestInputStream(getFilterReport()));
+
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals(1, bugs.size());
+    assertEquals("kept", bugs.get(0).getMessage());
+  }
+
+  @Test void acceptedWithoutMessageThrows() throws ParserException {
+    final BugInstanceFilter filter = BugInstanceFilter.builder().excludeCategory("STYLE").build();
+
+    final Parser parser = Parser.builder()
+        .setFilter(filter)
+        .build(getTestInputStream(getFilterReport()));
+
+    final ParserException exception = assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+
+    assertEquals("There must be exactly one `LongMessage` tag.", exception.getMessage());
+  }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PipelineStatsTest {
+  private static final String reportPath = "src/test/resources/example-report.xml";
+
+  @TempDir Path directory;
+
+  // Reads a report through the parser's iterator, as the CLI does, returning the stage
+  // and item count of each recorded stage event.
+  private List<String> recordStageEvents(ReportParser parser) throws Exception {
+    final Path file = directory.resolve("events.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(StageEvent.class);
+      recording.start();
+
+      try (ReportParser closing = parser) {
+        final Iterator<BugInstance> instances = closing.iterator();
+
+        while (instances.hasNext()) {
+          instances.next();
+        }
+      }
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    final List<String> events = new ArrayList<>();
+
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      events.add(event.getString("stage") + "=" + event.getLong("items"));
+    }
+
+    return events;
+  }
+
+  private static String write(PipelineStats stats, ReportSummary.Format format)
+      throws IOException {
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      stats.write(sink, format);
+    }
+
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test void parserCountsFindings() throws Exception {
+    final PipelineStats stats = new PipelineStats();
+    stats.begin();
+
+    try (InputStream input = stats.countBytes(ReportInput.open(reportPath))) {
+      final Parser parser = Parser.builder()
+          .setFilter(BugInstanceFilter.builder().excludeCategory("MALICIOUS_CODE").build())
+          .setStats(stats)
+          .build(input);
+
+      assertEquals(5, parser.getBugInstances().size());
+    }
+
+    stats.finish();
+
+    assertEquals(Files.size(Paths.get(reportPath)), stats.getBytesRead());
+    assertEquals(10, stats.getElementsVisited());
+    assertEquals(5, stats.getFindingsEmitted());
+    assertEquals(5, stats.getFindingsFiltered());
+    assertTrue(stats.getStageNanos(PipelineStats.Stage.PARSE) > 0);
+    assertTrue(stats.getStageNanos(PipelineStats.Stage.CONVERT) > 0);
+    assertTrue(stats.getElapsedNanos() > 0);
+  }
+
+  @Test void streamingParserCountsFindings() throws Exception {
+    final PipelineStats stats = new PipelineStats();
+
+    try (StreamingParser parser = StreamingParser.fromFilePath(reportPath)) {
+      parser.setFilter(BugInstanceFilter.builder().setMaximumPriority(1).build());
+      parser.setStats(stats);
+
+      assertEquals(3, parser.getBugInstances().size());
+    }
+
+    assertEquals(10, stats.getElementsVisited());
+    assertEquals(3, stats.getFindingsEmitted());
+    assertEquals(7, stats.getFindingsFiltered());
+    assertTrue(stats.getStageNanos(PipelineStats.Stage.PARSE) > 0);
+  }
+
+  @Test void iteratorRecordsStageEvents() throws Exception {
+    final List<String> events = recordStageEvents(Parser.fromFilePath(reportPath));
+
+    assertTrue(events.contains("convert=10"));
+    assertTrue(events.contains("resolve=10"));
+  }
+
+  @Test void streamingParserRecordsStageEvents() throws Exception {
+    final List<String> events = recordStageEvents(StreamingParser.fromFilePath(reportPath));
+
+    assertTrue(events.contains("parse=10"));
+    assertTrue(events.contains("convert=10"));
+    assertTrue(events.contains("resolve=10"));
+  }
+
+  @Test void disabledCollectsNothing() throws Exception {
+    final PipelineStats stats = PipelineStats.disabled();
+    final InputStream input = new ByteArrayInputStream(new byte[] {1, 2, 3});
+
+    assertFalse(stats.isEnabled());
+    assertTrue(input == stats.countBytes(input));
+
+    stats.begin();
+    stats.stop(PipelineStats.Stage.OUTPUT, stats.start());
+    stats.addFindingsEmitted(1);
+    stats.finish();
+
+    assertEquals(0, stats.getStageNanos(PipelineStats.Stage.OUTPUT));
+    assertEquals(0, stats.getFindingsEmitted());
+    assertEquals(-1, stats.getPeakHeapBytes());
+  }
+
+  @Test void nestedTimeExcluded() {
+    final PipelineStats stats = new PipelineStats();
+
+    final long start = stats.start();
+    final long nested = stats.stop(PipelineStats.Stage.RESOLVE, stats.start());
+    final long total = stats.stop(PipelineStats.Stage.CONVERT, start, nested);
+
+    assertEquals(nested, stats.getStageNanos(PipelineStats.Stage.RESOLVE));
+    assertEquals(total - nested, stats.getStageNanos(PipelineStats.Stage.CONVERT));
+  }
+
+  @Test void writeTable() throws IOException {
+    final PipelineStats stats = new PipelineStats();
+    stats.addFindingsEmitted(4);
+
+    final String table = write(stats, ReportSummary.Format.TABLE);
+
+    assertTrue(table.startsWith("Stage"));
+    assertTrue(table.contains("Findings emitted:        4"));
+    assertTrue(table.contains("Peak heap (MiB):         unavailable"));
+  }
+
+  @Test void writeJson() throws IOException {
+    final PipelineStats stats = new PipelineStats();
+    stats.addElementsVisited(2);
+
+    final String json = write(stats, ReportSummary.Format.JSON);
+
+    assertTrue(json.startsWith(
+        "{\"stageNanos\":{\"parse\":0,\"convert\":0,\"resolve\":0,\"output\":0},"
+    ));
+    assertTrue(json.contains("\"elementsVisited\":2,"));
+    assertTrue(json.contains("\"allocationBytesPerSecond\":-1}"));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportCacheTest {
+  private static final Path exampleReport = Paths.get("src/test/resources/example-report.xml");
+
+  @TempDir Path directory;
+
+  private Path report;
+  private int parses;
+
+  @BeforeEach void copyReport() throws IOException {
+    report = Files.copy(exampleReport, directory.resolve("report.xml"));
+    parses = 0;
+  }
+
+  private ReportParser countingOpen(String path) throws FileNotFoundException,
+      ParserException {
+
+    parses++;
+    return Parser.fromFilePath(path);
+  }
+
+  private List<BugInstance> read(ReportCache cache) throws FileNotFoundException,
+      ParserException {
+
+    return cache.open(report.toString(), this::countingOpen).getBugInstances();
+  }
+
+  @Test void secondReadIsCached() throws FileNotFoundException, ParserException {
+    final ReportCache cache = new ReportCache(directory.resolve("cache"), 1024 * 1024);
+
+    final List<BugInstance> first = read(cache);
+    final List<BugInstance> second = read(cache);
+
+    assertEquals(1, parses);
+    assertEquals(first.size(), second.size());
+
+    for (int i = 0; i < first.size(); i++) {
+      assertEquals(first.get(i).getLogEntry(2), second.get(i).getLogEntry(2));
+    }
+  }
+
+  @Test void changedReportIsParsed() throws IOException, ParserException {
+    final ReportCache cache = new ReportCache(directory.resolve("cache"), 1024 * 1024);
+
+    final int size = read(cache).size();
+
+    final String content = new String(Files.readAllBytes(report), "UTF-8");
+    final int end = content.indexOf("</BugInstance>") + "</BugInstance>".length();
+    final int start = content.lastIndexOf("<BugInstance ", end);
+    Files.write(report, (content.substring(0, start) + content.substring(end)).getBytes("UTF-8"));
+
+    assertEquals(size - 1, read(cache).size());
+    assertEquals(2, parses);
+  }
+
+  @Test void corruptEntryIgnored() throws IOException, ParserException {
+    final ReportCache cache = new ReportCache(directory.resolve("cache"), 1024 * 1024);
+    final String key = ReportCache.hash(report);
+
+    read(cache);
+
+    Files.write(directory.resolve("cache").resolve(key + ".bin"), new byte[] {1, 2, 3});
+
+    assertNull(cache.load(key));
+    assertEquals(10, read(cache).size());
+    assertEquals(2, parses);
+  }
+
+  @Test void leastRecentlyUsedEvicted() throws IOException, ParserException {
+    final Path cacheDirectory = directory.resolve("cache");
+    final String key = ReportCache.hash(report);
+
+    final List<BugInstance> instances = read(new ReportCache(cacheDirectory, 1024 * 1024));
+
+    final Path entry = cacheDirectory.resolve(key + ".bin");
+    final long entrySize = Files.size(entry);
+
+    // Reading an entry marks it as used, so the time is only set back once it has been read.
+    Files.setLastModifiedTime(entry, FileTime.fromMillis(0));
+
+    final ReportCache cache = new ReportCache(cacheDirectory, entrySize + entrySize / 2);
+    cache.store("other", instances.subList(1, instances.size()));
+
+    assertFalse(Files.exists(entry));
+    assertTrue(Files.exists(cacheDirectory.resolve("other.bin")));
+    assertNotNull(cache.load("other"));
+  }
+
+  @Test void nonExistantPathThrows() {
+    final ReportCache cache = new ReportCache(directory.resolve("cache"), 1024 * 1024);
+
+    assertThrows(FileNotFoundException.class, () -> {
+      cache.open("foo", Parser::fromFilePath);
+    });
+  }
+
+  @Test void negativeSizeThrows() {
+    assertThrows(IllegalArgumentException.class, () -> {
+      new ReportCache(directory, -1);
+    });
+  }
+}
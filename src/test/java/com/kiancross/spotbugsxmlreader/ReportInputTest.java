@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportInputTest {
+  private static final Path exampleReport = Paths.get("src/test/resources/example-report.xml");
+
+  @TempDir Path directory;
+
+  private byte[] readAll(String path) throws IOException, ParserException {
+    try (InputStream input = ReportInput.open(path)) {
+      return input.readAllBytes();
+    }
+  }
+
+  @Test void nonExistantPathThrows() {
+    final FileNotFoundException exception = assertThrows(FileNotFoundException.class, () -> {
+      ReportInput.open("foo");
+    });
+
+    assertEquals("foo (No such file or directory)", exception.getMessage());
+  }
+
+  @Test void directoryThrows() {
+    final FileNotFoundException exception = assertThrows(FileNotFoundException.class, () -> {
+      ReportInput.open(directory.toString());
+    });
+
+    assertEquals(directory + " (Is a directory)", exception.getMessage());
+  }
+
+  @Test void plainFile() throws IOException, ParserException {
+    assertArrayEquals(Files.readAllBytes(exampleReport), readAll(exampleReport.toString()));
+  }
+
+  @Test void emptyFile() throws IOException, ParserException {
+    final Path file = Files.createFile(directory.resolve("empty.xml"));
+    assertEquals(0, readAll(file.toString()).length);
+  }
+
+  @Test void gzipFile() throws IOException, ParserException {
+    final Path file = directory.resolve("report.xml.gz");
+
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file))) {
+      Files.copy(exampleReport, output);
+    }
+
+    assertArrayEquals(Files.readAllBytes(exampleReport), readAll(file.toString()));
+    assertEquals(10, Parser.fromFilePath(file.toString()).getBugInstances().size());
+    assertEquals(10, StreamingParser.fromFilePath(file.toString()).getBugInstances().size());
+  }
+
+  @Test void standardInput() throws IOException, ParserException {
+    final InputStream standardInput = System.in;
+
+    try {
+      System.setIn(new ByteArrayInputStream(Files.readAllBytes(exampleReport)));
+      assertEquals(10, Parser.fromFilePath("-").getBugInstances().size());
+    } finally {
+      System.setIn(standardInput);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReportServerTest {
+  private ReportServer server;
+
+  @BeforeEach void startServer() throws FileNotFoundException, IOException, ParserException {
+    final CompactBugInstanceStore store = CompactBugInstanceStore.from(
+        Parser.fromFilePath("src/test/resources/example-report.xml").iterator()
+    );
+
+    server = new ReportServer(store, 0, 2, 2);
+  }
+
+  @AfterEach void stopServer() {
+    server.close();
+  }
+
+  private HttpURLConnection connect(String path) throws IOException {
+    final URL url = new URL("http://localhost:" + server.getPort() + path);
+    return (HttpURLConnection) url.openConnection();
+  }
+
+  private String get(String path) throws IOException {
+    final HttpURLConnection connection = connect(path);
+
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("application/json; charset=utf-8", connection.getContentType());
+
+    try (InputStream input = connection.getInputStream()) {
+      return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static int count(String haystack, String needle) {
+    int count = 0;
+
+    for (int i = haystack.indexOf(needle); i != -1; i = haystack.indexOf(needle, i + 1)) {
+      count++;
+    }
+
+    return count;
+  }
+
+  @Test void allFindings() throws IOException {
+    assertEquals(10, count(get("/findings"), "\"sourcePath\""));
+  }
+
+  @Test void findingsForFile() throws IOException {
+    final String path = "java/com/kiancross/mandelbrot/SerializableColor.java";
+    final String body = get("/findings?file=" + path.replace("/", "%2F"));
+
+    assertEquals(1, count(body, "\"relativeSourcePath\""));
+    assertEquals(1, count(body, "\"relativeSourcePath\":\"" + path + "\""));
+  }
+
+  @Test void errorsAtThreshold() throws IOException {
+    assertEquals(10, count(get("/errors?threshold=3"), "\"sourcePath\""));
+    assertEquals(0, count(get("/errors?threshold=0"), "\"sourcePath\""));
+    assertTrue(get("/errors").startsWith("{\"threshold\":2,"));
+  }
+
+  @Test void countsByCategory() throws IOException {
+    final String body = get("/counts");
+
+    assertTrue(body.startsWith("{\"by\":\"category\",\"counts\":{"));
+    assertTrue(body.contains("\"MALICIOUS_CODE\":"));
+  }
+
+  @Test void invalidArgumentsRejected() throws IOException {
+    assertEquals(400, connect("/errors?threshold=foo").getResponseCode());
+    assertEquals(400, connect("/counts?by=foo").getResponseCode());
+  }
+
+  @Test void unknownPathRejected() throws IOException {
+    assertEquals(404, connect("/foo").getResponseCode());
+    assertEquals(404, connect("/findings/foo").getResponseCode());
+  }
+
+  @Test void nonGetRejected() throws IOException {
+    final HttpURLConnection connection = connect("/findings");
+    connection.setRequestMethod("DELETE");
+
+    assertEquals(405, connection.getResponseCode());
+  }
+
+  @Test void concurrentRequests() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      final List<Future<String>> responses = new ArrayList<>();
+
+      for (int i = 0; i < 50; i++) {
+        responses.add(executor.submit(() -> get("/findings")));
+      }
+
+      for (Future<String> response : responses) {
+        assertEquals(10, count(response.get(), "\"sourcePath\""));
+      }
+
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test void metricsCountRequests() throws IOException {
+    get("/findings");
+    get("/findings");
+
+    final String body = get("/metrics");
+
+    assertTrue(body.contains("\"findings\":{\"requests\":2,\"p50Micros\":"));
+    assertTrue(body.contains("\"counts\":{\"requests\":0,"));
+  }
+}
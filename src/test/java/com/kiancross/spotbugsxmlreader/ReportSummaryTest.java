@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReportSummaryTest {
+  private static final String separator = System.lineSeparator();
+
+  private ReportSummary summary;
+
+  private static String path(String... parts) {
+    return File.separator + String.join(File.separator, parts);
+  }
+
+  private static BugInstance createBugInstance(String directory, String file, String category,
+      int priority) {
+
+    return new BugInstanceBuilder()
+        .setSourcePath(path("src", directory, file))
+        .setRelativeSourcePath(directory + "/" + file)
+        .setCategory(category)
+        .setPriority(priority)
+        .build();
+  }
+
+  @BeforeEach void initSummary() {
+    final List<BugInstance> instances = Arrays.asList(
+        createBugInstance("main", "A.java", "STYLE", 3),
+        createBugInstance("main", "B.java", "CORRECTNESS", 1),
+        createBugInstance("main", "A.java", "CORRECTNESS", 2),
+        createBugInstance("test", "C.java", "STYLE", 1),
+        createBugInstance("main", "B.java", "STYLE", 2)
+    );
+
+    summary = ReportSummary.of(instances.iterator(), 1);
+  }
+
+  private String write(ReportSummary.Format format, int topFiles) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      summary.write(sink, format, topFiles);
+    }
+
+    return output.toString(StandardCharsets.UTF_8.name());
+  }
+
+  @Test void totals() {
+    assertEquals(5, summary.getTotal());
+    assertEquals(2, summary.getErrors());
+    assertEquals(3, summary.getWarnings());
+  }
+
+  @Test void categoryCounts() {
+    final List<Map.Entry<String, Integer>> counts = summary.getCategoryCounts();
+
+    assertEquals(2, counts.size());
+    assertEquals("STYLE", counts.get(0).getKey());
+    assertEquals(3, (int) counts.get(0).getValue());
+    assertEquals("CORRECTNESS", counts.get(1).getKey());
+    assertEquals(2, (int) counts.get(1).getValue());
+  }
+
+  @Test void priorityCounts() {
+    final List<Map.Entry<Integer, Integer>> counts = summary.getPriorityCounts();
+
+    assertEquals(3, counts.size());
+    assertEquals(1, (int) counts.get(0).getKey());
+    assertEquals(2, (int) counts.get(0).getValue());
+    assertEquals(3, (int) counts.get(2).getKey());
+    assertEquals(1, (int) counts.get(2).getValue());
+  }
+
+  @Test void sourceDirectoryCounts() {
+    final List<Map.Entry<String, Integer>> counts = summary.getSourceDirectoryCounts();
+
+    assertEquals(2, counts.size());
+    assertEquals(path("src", "main"), counts.get(0).getKey());
+    assertEquals(4, (int) counts.get(0).getValue());
+    assertEquals(path("src", "test"), counts.get(1).getKey());
+    assertEquals(1, (int) counts.get(1).getValue());
+  }
+
+  @Test void sourceDirectoryFallsBackToParent() {
+    final BugInstance instance = new BugInstanceBuilder()
+        .setSourcePath(path("src", "main", "A.java"))
+        .setRelativeSourcePath("other/A.java")
+        .build();
+
+    assertEquals(path("src", "main"), ReportSummary.getSourceDirectory(instance));
+  }
+
+  @Test void topFiles() {
+    final List<Map.Entry<String, Integer>> top = summary.getTopFiles(2);
+
+    assertEquals(2, top.size());
+    assertEquals(path("src", "main", "A.java"), top.get(0).getKey());
+    assertEquals(2, (int) top.get(0).getValue());
+    assertEquals(path("src", "main", "B.java"), top.get(1).getKey());
+
+    assertEquals(3, summary.getTopFiles(10).size());
+    assertTrue(summary.getTopFiles(0).isEmpty());
+  }
+
+  @Test void emptySummary() throws IOException {
+    summary = new ReportSummary(2);
+
+    assertEquals("Findings: 0 (0 errors, 0 warnings)" + separator,
+        write(ReportSummary.Format.TABLE, 10));
+  }
+
+  @Test void writeTable() throws IOException {
+    final String table = write(ReportSummary.Format.TABLE, 1);
+
+    assertTrue(table.startsWith("Findings: 5 (2 errors, 3 warnings)" + separator + separator
+        + "Category     Count" + separator
+        + "STYLE            3" + separator
+        + "CORRECTNESS      2" + separator));
+
+    assertTrue(table.endsWith(separator + "File" + " ".repeat(path("src", "main").length())
+        + "     Count" + separator
+        + path("src", "main", "A.java") + "      2" + separator));
+  }
+
+  @Test void writeJson() throws IOException {
+    final String json = write(ReportSummary.Format.JSON, 1);
+
+    assertEquals(
+        "{\"total\":5,\"errors\":2,\"warnings\":3,"
+        + "\"categories\":{\"STYLE\":3,\"CORRECTNESS\":2},"
+        + "\"priorities\":{\"1\":2,\"2\":2,\"3\":1},"
+        + "\"sourceDirectories\":{" + quote(path("src", "main")) + ":4,"
+        + quote(path("src", "test")) + ":1},"
+        + "\"topFiles\":[{\"path\":" + quote(path("src", "main", "A.java")) + ",\"count\":2}]}"
+        + separator,
+        json
+    );
+  }
+
+  private static String quote(String value) {
+    return "\"" + value.replace("\\", "\\\\") + "\"";
+  }
+}
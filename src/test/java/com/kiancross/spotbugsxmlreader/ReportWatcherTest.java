@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportWatcherTest {
+  @TempDir Path directory;
+
+  private static CompletableFuture<Boolean> awaitChange(ReportWatcher watcher) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return watcher.awaitChange();
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  @Test void modifiedReportSignalled() throws IOException, InterruptedException,
+      ExecutionException, TimeoutException {
+
+    final Path report = Files.write(directory.resolve("report.xml"), new byte[] {1});
+
+    try (ReportWatcher watcher = new ReportWatcher(Arrays.asList(report), 10)) {
+      final CompletableFuture<Boolean> changed = awaitChange(watcher);
+
+      Files.write(report, new byte[] {2});
+
+      assertTrue(changed.get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test void createdReportSignalled() throws IOException, InterruptedException,
+      ExecutionException, TimeoutException {
+
+    final Path report = directory.resolve("report.xml");
+
+    try (ReportWatcher watcher = new ReportWatcher(Arrays.asList(report), 10)) {
+      final CompletableFuture<Boolean> changed = awaitChange(watcher);
+
+      Files.write(report, new byte[] {1});
+
+      assertTrue(changed.get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test void closeSignalsNoChange() throws IOException, InterruptedException,
+      ExecutionException, TimeoutException {
+
+    final Path report = directory.resolve("report.xml");
+    final ReportWatcher watcher = new ReportWatcher(Arrays.asList(report), 10);
+    final CompletableFuture<Boolean> changed = awaitChange(watcher);
+
+    watcher.close();
+
+    assertFalse(changed.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test void nonExistantDirectoryThrows() {
+    assertThrows(IOException.class, () -> {
+      new ReportWatcher(Arrays.asList(directory.resolve("foo/report.xml")), 10);
+    });
+  }
+}
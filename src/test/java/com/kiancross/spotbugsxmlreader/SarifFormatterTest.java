@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+
+class SarifFormatterTest {
+  private static final String separator = System.lineSeparator();
+
+  private static final String header = "{\"$schema\":\"https://json.schemastore.org/"
+      + "sarif-2.1.0.json\",\"version\":\"2.1.0\",\"runs\":[{\"tool\":{\"driver\":{"
+      + "\"name\":\"SpotBugs\",\"informationUri\":\"https://spotbugs.github.io\"}},"
+      + "\"results\":[";
+
+  private static BugInstance createBugInstance(int priority, String methodName) {
+    return new BugInstanceBuilder()
+        .setMessage("bat")
+        .setSourcePath(Paths.get("Foo.java").toAbsolutePath().toString())
+        .setCategory("STYLE")
+        .setType("DM")
+        .setClassName("foo.Foo")
+        .setMethodName(methodName)
+        .setPriority(priority)
+        .setStartLine(3)
+        .build();
+  }
+
+  private String format(boolean fixed, BugInstance... instances) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    try (OutputSink sink = new BufferedOutputSink(output)) {
+      final ReportFormatter formatter = OutputFormat.SARIF.create(sink, 1);
+
+      formatter.begin();
+
+      for (BugInstance instance : instances) {
+        if (fixed) {
+          formatter.writeFixed(instance);
+        } else {
+          formatter.write(instance);
+        }
+      }
+
+      formatter.end();
+    }
+
+    return output.toString(StandardCharsets.UTF_8.name());
+  }
+
+  @Test void emptyLog() throws IOException {
+    assertEquals(header + "]}]}" + separator, format(false));
+  }
+
+  @Test void writesResults() throws IOException {
+    final String uri = Paths.get("Foo.java").toAbsolutePath().toUri().toString();
+
+    final String result = "{\"ruleId\":\"DM\",\"level\":\"%s\",\"message\":{\"text\":\"bat\"},"
+        + "\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":\"" + uri
+        + "\"},\"region\":{\"startLine\":3}},\"logicalLocations\":[{"
+        + "\"fullyQualifiedName\":\"%s\",\"kind\":\"%s\"}]}],"
+        + "\"properties\":{\"category\":\"STYLE\",\"priority\":%d}}";
+
+    assertEquals(
+        header
+        + String.format(result, "error", "foo.Foo.bar", "function", 1) + ","
+        + String.format(result, "warning", "foo.Foo", "type", 2)
+        + "]}]}" + separator,
+        format(false, createBugInstance(1, "bar"), createBugInstance(2, ""))
+    );
+  }
+
+  @Test void writesFixedAsAbsent() throws IOException {
+    final String log = format(true, createBugInstance(1, "bar"));
+
+    assertTrue(log.contains("\"level\":\"none\",\"baselineState\":\"absent\""));
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+
+class SourcePathResolverTest {
+  private final SourcePathResolver resolver = new SourcePathResolver(new String[] {
+    "/project/src/main/resources",
+    "/project/src/main/java",
+    "/other/src/main/java"
+  });
+
+  private String relative(String... parts) {
+    return String.join(File.separator, parts);
+  }
+
+  @Test void resolvesAgainstMatchingDirectory() throws ParserException {
+    assertEquals(
+        Paths.get("/project/src/main/java", "com", "Foo.java").toString(),
+        resolver.resolve(relative("java", "com", "Foo.java"))
+    );
+  }
+
+  @Test void firstMatchingDirectoryWins() throws ParserException {
+    assertEquals(
+        Paths.get("/project/src/main/resources", "foo.properties").toString(),
+        resolver.resolve(relative("resources", "foo.properties"))
+    );
+  }
+
+  @Test void repeatedPathIsMemoised() throws ParserException {
+    final String path = resolver.resolve(relative("java", "com", "Foo.java"));
+    assertSame(path, resolver.resolve(relative("java", "com", "Foo.java")));
+  }
+
+  @Test void segmentOnlyResolvesToDirectory() throws ParserException {
+    assertEquals("/project/src/main/java", resolver.resolve("java"));
+  }
+
+  @Test void unknownDirectoryThrows() {
+    assertThrows(ParserException.class, () -> {
+      resolver.resolve(relative("kotlin", "com", "Foo.kt"));
+    });
+
+    assertThrows(ParserException.class, () -> {
+      resolver.resolve(relative("kotlin", "com", "Foo.kt"));
+    });
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import org.junit.jupiter.api.Test;
+
+class SpotBugsFilterTest {
+  private SpotBugsFilter.Clause read(String matches) throws ParserException {
+    return SpotBugsFilter.read(new ByteArrayInputStream((
+        "<FindBugsFilter xmlns='https://github.com/spotbugs/filter/3.0.0'>"
+        + matches
+        + "</FindBugsFilter>"
+    ).getBytes()));
+  }
+
+  private boolean matches(SpotBugsFilter.Clause clause, String className, String path) {
+    return clause.matches("STYLE", 2, "DM_DEFAULT_ENCODING", className, "run", path);
+  }
+
+  @Test void emptyMatchesNothing() throws ParserException {
+    assertFalse(matches(read(""), "com.example.Foo", "com/example/Foo.java"));
+  }
+
+  @Test void bug() throws ParserException {
+    assertTrue(matches(read("<Match><Bug pattern='NP,DM_DEFAULT_ENCODING'/></Match>"),
+        "Foo", "Foo.java"));
+
+    assertTrue(matches(read("<Match><Bug category='STYLE'/></Match>"), "Foo", "Foo.java"));
+
+    assertFalse(matches(read("<Match><Bug pattern='DM_DEFAULT_ENCODING' category='BAD'/>"
+        + "</Match>"), "Foo", "Foo.java"));
+  }
+
+  @Test void matchIsConjunction() throws ParserException {
+    final SpotBugsFilter.Clause clause = read(
+        "<Match><Bug category='STYLE'/><Class name='com.example.Foo'/></Match>"
+    );
+
+    assertTrue(matches(clause, "com.example.Foo", "com/example/Foo.java"));
+    assertFalse(matches(clause, "com.example.Bar", "com/example/Bar.java"));
+  }
+
+  @Test void filterIsDisjunction() throws ParserException {
+    final SpotBugsFilter.Clause clause = read(
+        "<Match><Class name='com.example.Foo'/></Match>"
+        + "<Match><Class name='com.example.Bar'/></Match>"
+    );
+
+    assertTrue(matches(clause, "com.example.Foo", "com/example/Foo.java"));
+    assertTrue(matches(clause, "com.example.Bar", "com/example/Bar.java"));
+    assertFalse(matches(clause, "com.example.Baz", "com/example/Baz.java"));
+  }
+
+  @Test void regularExpressions() throws ParserException {
+    final SpotBugsFilter.Clause clause = read("<Match><Class name='~.*\\.Foo.*'/></Match>");
+
+    assertTrue(matches(clause, "com.example.FooBar", "Foo.java"));
+    assertFalse(matches(clause, "com.example.Bar", "Bar.java"));
+  }
+
+  @Test void packageAndSource() throws ParserException {
+    final SpotBugsFilter.Clause packages = read("<Match><Package name='com.example'/></Match>");
+
+    assertTrue(matches(packages, "com.example.Foo", "Foo.java"));
+    assertFalse(matches(packages, "com.example.sub.Foo", "Foo.java"));
+
+    final SpotBugsFilter.Clause sources = read("<Match><Source name='Foo.java'/></Match>");
+
+    assertTrue(matches(sources, "Foo", "com/example/Foo.java"));
+    assertFalse(matches(sources, "Foo", "com/example/Bar.java"));
+  }
+
+  @Test void methodAndPriority() throws ParserException {
+    assertTrue(matches(read("<Match><Method name='run'/><Priority value='2'/></Match>"),
+        "Foo", "Foo.java"));
+
+    assertFalse(matches(read("<Match><Confidence value='1'/></Match>"), "Foo", "Foo.java"));
+  }
+
+  @Test void logicalOperators() throws ParserException {
+    final SpotBugsFilter.Clause clause = read(
+        "<Match><Or><Class name='A'/><And><Class name='B'/><Not><Source name='B.java'/></Not>"
+        + "</And></Or></Match>"
+    );
+
+    assertTrue(matches(clause, "A", "A.java"));
+    assertTrue(matches(clause, "B", "C.java"));
+    assertFalse(matches(clause, "B", "B.java"));
+  }
+
+  @Test void invalidRootThrows() {
+    final ParserException exception = assertThrows(ParserException.class, () -> {
+      SpotBugsFilter.read(new ByteArrayInputStream("<Filter></Filter>".getBytes()));
+    });
+
+    assertEquals("Filter must have `FindBugsFilter` as its root element, not `Filter`.",
+        exception.getMessage());
+  }
+
+  @Test void unsupportedElementThrows() {
+    final ParserException exception = assertThrows(ParserException.class, () -> {
+      read("<Match><Field name='foo'/></Match>");
+    });
+
+    assertEquals("Unsupported filter element `Field`.", exception.getMessage());
+  }
+
+  @Test void unsupportedAttributeThrows() {
+    final ParserException exception = assertThrows(ParserException.class, () -> {
+      read("<Match><Bug code='NP'/></Match>");
+    });
+
+    assertEquals("Unsupported attribute `code` on filter element `Bug`.",
+        exception.getMessage());
+  }
+
+  @Test void invalidNotThrows() {
+    assertThrows(ParserException.class, () -> {
+      read("<Match><Not><Class name='A'/><Class name='B'/></Not></Match>");
+    });
+  }
+
+  @Test void invalidRegularExpressionThrows() {
+    assertThrows(ParserException.class, () -> {
+      read("<Match><Class name='~('/></Match>");
+    });
+  }
+}
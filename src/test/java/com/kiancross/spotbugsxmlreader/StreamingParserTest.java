@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class StreamingParserTest {
+  private InputStream getTestInputStream(String data) {
+    return new ByteArrayInputStream(data.getBytes());
+  }
+
+  @Test void nonExistantPathThrows() {
+    assertThrows(FileNotFoundException.class, () -> {
+      StreamingParser.fromFilePath("foo");
+    });
+  }
+  
+  @Test void nonExistantBugCollectionThrows() {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream("<foo></foo>"));
+    });
+  }
+  
+  @Test void duplicateBugCollectionThrows() {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'></BugCollection>"
+        + "<BugCollection version='4.5.0'></BugCollection>"
+      ));
+    });
+  }
+  
+  @Test void nonExistantProjectThrows() {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream(
+          "<BugCollection version='4.5.0'><foo></foo></BugCollection>"
+      ));
+    });
+  }
+  
+  @Test void duplicateProjectThrows() {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'><Project></Project> <Project></Project></BugCollection>"
+      ));
+    });
+  }
+  
+  @Test void nonExistantSourcesThrows() {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'><Project> <foo></foo> </Project></BugCollection>"
+      ));
+    });
+  }
+  
+  @Test void singleSourcesValid() {
+    assertDoesNotThrow(() -> {
+      new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'><Project> <SrcDir>foo</SrcDir> </Project></BugCollection>"
+      ));
+    });
+  }
+  
+  @Test void doubleSourcesValid() {
+    assertDoesNotThrow(() -> {
+      new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "<Project> <SrcDir>foo</SrcDir> <SrcDir>bar</SrcDir> </Project>"
+        + "</BugCollection>"
+      ));
+    });
+  }
+  
+  @Test void noBugsValid() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'><Project> <SrcDir>foo</SrcDir> </Project></BugCollection>"
+    ));
+
+    assertEquals(0, parser.getBugInstances().size());
+  }
+  
+  @Test void oneBugValid() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+    
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals(1, bugs.size());
+
+    final BugInstance bug = bugs.get(0);
+
+    assertEquals("(WARNING) foo:35:11 [bar] bat", bug.getLogEntry(0));
+  }
+  
+  @Test void identifyingAttributesValid() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>/a/foo</SrcDir> </Project>"
+        + "  <BugInstance type='baz' priority='2' category='bar'>"
+        + "    <Class classname='Other'/>"
+        + "    <Class classname='Main' primary='true'/>"
+        + "    <Method classname='Main' name='run' primary='true'/>"
+        + "    <Method classname='Main' name='other' primary='true'/>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'/>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'/>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals("baz", bugs.get(0).getType());
+    assertEquals("Main", bugs.get(0).getClassName());
+    assertEquals("run", bugs.get(0).getMethodName());
+    assertEquals("foo", bugs.get(0).getRelativeSourcePath());
+    assertEquals("/a/foo", bugs.get(0).getSourcePath());
+
+    assertEquals("", bugs.get(1).getType());
+    assertEquals("", bugs.get(1).getClassName());
+    assertEquals("", bugs.get(1).getMethodName());
+  }
+
+  @Test void noPrimaryThrows() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+  }
+  
+  @Test void invalidPriorityThrows() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='bad' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+  }
+  
+  @Test void invalidStartThrows() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='foo' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='bad' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+  }
+  
+  @Test void invalidStartBytecodeThrows() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='foo' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='11' startBytecode='bad' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+  }
+  
+  @Test void invalidRelSourcepathThrows() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='foo' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='11' startBytecode='10' relSourcepath='bar'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+  }
+
+  @Test void versionLowThrows() throws ParserException {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream(
+          "<BugCollection version='3.9.9'>"
+          + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+          + "  <BugInstance priority='2' category='bar'>"
+          + "    <LongMessage>bat</LongMessage>"
+          + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+          + "      <Message>bat</Message>"
+          + "    </SourceLine>"
+          + "  </BugInstance>"
+          + "</BugCollection>"
+      ));
+    });
+  }
+
+  @Test void versionHighThrows() throws ParserException {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream(
+          "<BugCollection version='5.0.0'>"
+          + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+          + "  <BugInstance priority='2' category='bar'>"
+          + "    <LongMessage>bat</LongMessage>"
+          + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+          + "      <Message>bat</Message>"
+          + "    </SourceLine>"
+          + "  </BugInstance>"
+          + "</BugCollection>"
+      ));
+    });
+  }
+
+  @Test void projectAfterBugInstanceThrows() {
+    assertThrows(ParserException.class, () -> {
+      new StreamingParser(getTestInputStream(
+          "<BugCollection version='4.5.0'>"
+          + "  <BugInstance priority='2' category='bar'>"
+          + "    <LongMessage>bat</LongMessage>"
+          + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+          + "      <Message>bat</Message>"
+          + "    </SourceLine>"
+          + "  </BugInstance>"
+          + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+          + "</BugCollection>"
+      ));
+    });
+  }
+
+  @Test void trailingSyntaxErrorThrows() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'><Project> <SrcDir>foo</SrcDir> </Project></BugCollection>"
+        + "<foo>"
+    ));
+
+    assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+  }
+
+  @Test void matchesDomParser() throws FileNotFoundException, ParserException {
+    final String path = "src/test/resources/example-report.xml";
+
+    final List<BugInstance> expected = Parser.fromFilePath(path).getBugInstances();
+    final List<BugInstance> actual = StreamingParser.fromFilePath(path).getBugInstances();
+
+    assertEquals(expected.size(), actual.size());
+
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getLogEntry(2), actual.get(i).getLogEntry(2));
+    }
+  }
+
+  @Test void iteratorIsLazy() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='bad' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    final Iterator<BugInstance> bugs = parser.iterator();
+
+    assertTrue(bugs.hasNext());
+    assertEquals("(WARNING) foo:35:11 [bar] bat", bugs.next().getLogEntry(0));
+
+    assertThrows(UncheckedParserException.class, () -> {
+      bugs.next();
+    });
+  }
+
+  @Test void streamValid() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(
+        "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='bad' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>"
+    ));
+
+    try (Stream<BugInstance> bugs = parser.stream()) {
+      assertEquals("(WARNING) foo:35:11 [bar] bat", bugs.findFirst().get().getLogEntry(0));
+    }
+  }
+
+  @Test void closeReleasesInput() throws IOException, ParserException {
+    final boolean[] closed = {false};
+
+    final InputStream input = new ByteArrayInputStream(("<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>foo</SrcDir> </Project>"
+        + "  <BugInstance priority='2' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='bad' category='bar'>"
+        + "    <LongMessage>bat</LongMessage>"
+        + "    <SourceLine primary='true' start='35' startBytecode='11' relSourcepath='foo'>"
+        + "      <Message>bat</Message>"
+        + "    </SourceLine>"
+        + "  </BugInstance>"
+        + "</BugCollection>").getBytes()) {
+      @Override
+      public void close() {
+        closed[0] = true;
+      }
+    };
+
+    final StreamingParser parser = new StreamingParser(input);
+    parser.iterator().next();
+    parser.close();
+
+    assertTrue(closed[0]);
+    assertFalse(parser.iterator().hasNext());
+  }
+
+  @Test void invalidHeaderReleasesInput() {
+    final String[] reports = {
+      "",
+      "<BugCollection version='3.0.0'></BugCollection>",
+      "<BugCollection version='4.5.0'><foo></foo></BugCollection>",
+      "<BugCollection version='4.5.0'><Project>",
+    };
+
+    for (String report : reports) {
+      final boolean[] closed = {false};
+
+      final InputStream input = new ByteArrayInputStream(report.getBytes()) {
+        @Override
+        public void close() {
+          closed[0] = true;
+        }
+      };
+
+      assertThrows(ParserException.class, () -> {
+        new StreamingParser(input);
+      });
+
+      assertTrue(closed[0]);
+    }
+  }
+
+  private String getFilterReport() {
+    return "<BugCollection version='4.5.0'>"
+        + "  <Project> <SrcDir>/src/a</SrcDir> <SrcDir>/src/gen</SrcDir> </Project>"
+        + "  <BugInstance priority='1' category='CORRECTNESS' type='NP'>"
+        + "    <LongMessage>kept</LongMessage>"
+        + "    <SourceLine primary='true' start='1' startBytecode='1' relSourcepath='a/A.java'/>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='bad' category='STYLE' type='DM'>"
+        + "    <SourceLine primary='true' start='2' startBytecode='2' relSourcepath='a/B.java'/>"
+        + "  </BugInstance>"
+        + "  <BugInstance priority='2' category='CORRECTNESS' type='NP'>"
+        + "    <SourceLine primary='true' start='3' startBytecode='3' relSourcepath='gen/C.java'/>"
+        + "  </BugInstance>"
+        + "</BugCollection>";
+  }
+
+  @Test void filterSkipsRejectedBugInstances() throws ParserException {
+    final StreamingParser parser = new StreamingParser(getTestInputStream(getFilterReport()));
+
+    parser.setFilter(BugInstanceFilter.builder()
+        .setMaximumPriority(1)
+        .excludeType("DM")
+        .build());
+
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals(1, bugs.size());
+    assertEquals("kept", bugs.get(0).getMessage());
+  }
+
+  @Test void pathFilterAppliedBeforeMessageCheck() throws ParserException {
+    final BugInstanceFilter filter = BugInstanceFilter.builder()
+        .excludeCategory("STYLE")
+        .excludePath("gen/**")
+        .build();
+
+    final StreamingParser parser = new StreamingParser(getTestInputStream(getFilterReport()));
+    parser.setFilter(filter);
+
+    final List<BugInstance> bugs = parser.getBugInstances();
+
+    assertEquals(1, bugs.size());
+    assertEquals("kept", bugs.get(0).getMessage());
+  }
+
+  @Test void acceptedWithoutMessageThrows() throws ParserException {
+    final BugInstanceFilter filter = BugInstanceFilter.builder().excludeCategory("STYLE").build();
+
+    final StreamingParser parser = new StreamingParser(getTestInputStream(getFilterReport()));
+    parser.setFilter(filter);
+
+    final ParserException exception = assertThrows(ParserException.class, () -> {
+      parser.getBugInstances();
+    });
+
+    assertEquals("There must be exactly one `LongMessage` tag.", exception.getMessage());
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class StringDictionaryTest {
+  private final StringDictionary dictionary = new StringDictionary();
+
+  @Test void identifiersAreDense() {
+    assertEquals(0, dictionary.add("foo"));
+    assertEquals(1, dictionary.add("bar"));
+    assertEquals(0, dictionary.add("foo"));
+    assertEquals(2, dictionary.size());
+  }
+
+  @Test void getReturnsValue() {
+    final int identifier = dictionary.add("foo");
+    assertEquals("foo", dictionary.get(identifier));
+  }
+
+  @Test void toArrayIndexedByIdentifier() {
+    dictionary.add("foo");
+    dictionary.add("bar");
+    dictionary.add("foo");
+
+    assertArrayEquals(new String[] {"foo", "bar"}, dictionary.toArray());
+  }
+}
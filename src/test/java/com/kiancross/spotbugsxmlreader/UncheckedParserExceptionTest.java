@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class UncheckedParserExceptionTest {
+  @Test void cause() {
+    final ParserException cause = new ParserException("-%s-", "foo");
+    final UncheckedParserException exception = new UncheckedParserException(cause);
+
+    assertSame(cause, exception.getCause());
+    assertEquals("-foo-", exception.getMessage());
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2022 Kian Cross
+ */
+
+package com.kiancross.spotbugsxmlreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.junit.jupiter.api.Test;
+
+class XmlParserPoolTest {
+  private final XmlParserPool pool = XmlParserPool.getDefault();
+
+  private InputStream getTestInputStream(String data) {
+    return new ByteArrayInputStream(data.getBytes());
+  }
+
+  @Test void defaultIsShared() {
+    assertSame(XmlParserPool.getDefault(), XmlParserPool.getDefault());
+  }
+
+  @Test void defaultFactoriesSecure() throws ParserConfigurationException {
+    final DocumentBuilderFactory documentBuilderFactory =
+        XmlParserPool.createDocumentBuilderFactory();
+
+    assertTrue(documentBuilderFactory.getFeature(XMLConstants.FEATURE_SECURE_PROCESSING));
+
+    final XMLInputFactory inputFactory = XmlParserPool.createInputFactory();
+
+    assertEquals(false, inputFactory.getProperty(XMLInputFactory.SUPPORT_DTD));
+    assertEquals(
+        false,
+        inputFactory.getProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES)
+    );
+  }
+
+  @Test void documentBuilderReused() throws ParserException {
+    assertEquals("foo", pool.parseDocument(getTestInputStream("<foo/>"))
+        .getDocumentElement().getTagName());
+
+    assertEquals("bar", pool.parseDocument(getTestInputStream("<bar/>"))
+        .getDocumentElement().getTagName());
+  }
+
+  @Test void documentBuilderUsableAfterError() throws ParserException {
+    assertThrows(ParserException.class, () -> {
+      pool.parseDocument(getTestInputStream("<foo>"));
+    });
+
+    assertEquals("foo", pool.parseDocument(getTestInputStream("<foo/>"))
+        .getDocumentElement().getTagName());
+  }
+
+  @Test void concurrentParsesValid() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      final List<Future<String>> results = new ArrayList<>();
+
+      for (int i = 0; i < 100; i++) {
+        final String tagName = "foo" + i;
+
+        results.add(executor.submit(() -> pool.parseDocument(
+            getTestInputStream("<" + tagName + "/>")
+        ).getDocumentElement().getTagName()));
+      }
+
+      for (int i = 0; i < 100; i++) {
+        assertEquals("foo" + i, results.get(i).get());
+      }
+
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test void streamReaderValid() throws ParserException, XMLStreamException {
+    final XMLStreamReader reader = pool.createStreamReader(getTestInputStream("<foo/>"));
+
+    assertEquals(XMLStreamConstants.START_ELEMENT, reader.next());
+    assertEquals("foo", reader.getLocalName());
+    assertFalse(reader.isEndElement());
+  }
+}